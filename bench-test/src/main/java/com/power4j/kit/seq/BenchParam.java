@@ -29,4 +29,6 @@ public interface BenchParam {
 
 	int SEQ_POOL_SIZE = 1000;
 
+	int SEQ_LOCAL_BLOCK_SIZE = 32;
+
 }
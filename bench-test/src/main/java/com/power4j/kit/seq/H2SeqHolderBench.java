@@ -53,6 +53,8 @@ public class H2SeqHolderBench {
 
 	private static SeqHolder seqHolder;
 
+	private static SeqHolder relaxedSeqHolder;
+
 	@Setup
 	public void setup() {
 		HikariConfig config = new HikariConfig();
@@ -64,6 +66,11 @@ public class H2SeqHolderBench {
 		seqHolder = new SeqHolder(synchronizer, "h2-bench-test", TestUtil.getPartitionName(), BenchParam.SEQ_INIT_VAL,
 				BenchParam.SEQ_POOL_SIZE, null);
 		seqHolder.prepare();
+		final String partition = TestUtil.getPartitionName();
+		relaxedSeqHolder = SeqHolder.builder().synchronizer(synchronizer).name("h2-bench-test-relaxed")
+				.partitionFunc(() -> partition).initValue(BenchParam.SEQ_INIT_VAL).poolSize(BenchParam.SEQ_POOL_SIZE)
+				.threadLocalBlock(BenchParam.SEQ_LOCAL_BLOCK_SIZE).build();
+		relaxedSeqHolder.prepare();
 	}
 
 	@Benchmark
@@ -78,6 +85,12 @@ public class H2SeqHolderBench {
 		bh.consume(seqHolder.next());
 	}
 
+	@Benchmark
+	@Threads(4)
+	public void test4ThreadsRelaxed(Blackhole bh) {
+		bh.consume(relaxedSeqHolder.next());
+	}
+
 	public static void main(String[] args) throws Exception {
 		Options opt = new OptionsBuilder().include(H2SeqHolderBench.class.getSimpleName()).build();
 		new Runner(opt).run();
@@ -27,6 +27,27 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * 单机序号池测试
+ * <p>
+ * {@code poolType} 取值:
+ * <ul>
+ * <li>{@code simple}: 普通计数器</li>
+ * <li>{@code padded}: 填充缓存行的计数器</li>
+ * <li>{@code reRoll}: 可滚动的号池,取号时使用 CAS 循环</li>
+ * </ul>
+ * 参考结果(1 vCPU 的容器, JDK 17, {@code -wi 1 -w 2 -i 3 -r 2}, ops/s).{@code reRoll} 与改动前的 CAS
+ * 循环实现相同; 单核环境下多线程只体现调度开销,伪共享的收益需要在多核机器上测试:
+ *
+ * <pre>
+ * {@code
+ * Threads      simple      padded      reRoll
+ *       1  131776126   132306155    87003979
+ *       4  115084431   114815064    75370369
+ *       8  131857552   129620904    82071401
+ *      16  120686334   126903598    81068636
+ *      32  125097330   125997600    76095095
+ *      64  116663533   125947058    72261092
+ * }
+ * </pre>
  *
  * @author CJ (power4j@outlook.com)
  * @date 2020/7/3
@@ -40,23 +61,60 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class LongSeqPoolBench {
 
+	@Param({ "simple", "padded", "reRoll" })
+	private String poolType;
+
 	private LongSeqPool longSeqPool;
 
 	@Setup
 	public void setup() {
-		longSeqPool = LongSeqPool.forRange("longSeqPool", BenchParam.SEQ_INIT_VAL, Long.MAX_VALUE, false);
+		switch (poolType) {
+			case "padded":
+				longSeqPool = LongSeqPool.padded("longSeqPool", BenchParam.SEQ_INIT_VAL, Long.MAX_VALUE, false);
+				break;
+			case "reRoll":
+				longSeqPool = LongSeqPool.forRange("longSeqPool", BenchParam.SEQ_INIT_VAL, Long.MAX_VALUE, true);
+				break;
+			default:
+				longSeqPool = LongSeqPool.forRange("longSeqPool", BenchParam.SEQ_INIT_VAL, Long.MAX_VALUE, false);
+				break;
+		}
 	}
 
 	@Benchmark
 	@Threads(1)
 	public void testSingleThread(Blackhole bh) {
-		bh.consume(longSeqPool.next());
+		bh.consume(longSeqPool.take());
 	}
 
 	@Benchmark
 	@Threads(4)
 	public void test4Threads(Blackhole bh) {
-		bh.consume(longSeqPool.next());
+		bh.consume(longSeqPool.take());
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void test8Threads(Blackhole bh) {
+		bh.consume(longSeqPool.take());
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void test16Threads(Blackhole bh) {
+		bh.consume(longSeqPool.take());
+	}
+
+	@Benchmark
+	@Threads(32)
+	public void test32Threads(Blackhole bh) {
+		bh.consume(longSeqPool.take());
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void test64Threads(Blackhole bh) {
+		bh.consume(longSeqPool.take());
 	}
 
 	public static void main(String[] args) throws Exception {
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq;
+
+import com.power4j.kit.seq.persistent.Partitions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 分区函数测试,对比每次格式化日期与缓存分区值的 {@link Partitions#DAILY}
+ * <p>
+ * 参考结果(1 vCPU 的容器, JDK 17, {@code -wi 1 -w 2 -i 3 -r 2}, ops/s):
+ *
+ * <pre>
+ * {@code
+ * formatEachCall              3608529
+ * clockPartitioner           29720275
+ * clockPartitioner4Threads   27836727
+ * }
+ * </pre>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 3, time = 10)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PartitionsBench {
+
+	/**
+	 * 改动前的实现
+	 */
+	private final Supplier<String> formatEachCall = () -> LocalDate.now()
+			.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+
+	private final Supplier<String> cached = Partitions.DAILY;
+
+	@Benchmark
+	public void formatEachCall(Blackhole bh) {
+		bh.consume(formatEachCall.get());
+	}
+
+	@Benchmark
+	public void clockPartitioner(Blackhole bh) {
+		bh.consume(cached.get());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void clockPartitioner4Threads(Blackhole bh) {
+		bh.consume(cached.get());
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options opt = new OptionsBuilder().include(PartitionsBench.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq;
+
+import com.power4j.kit.seq.core.SeqFormatter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 格式化测试,对比 {@code String.format} 与预编译模板
+ * <p>
+ * 参考结果(1 vCPU 的容器, JDK 17, {@code -wi 1 -w 2 -i 3 -r 2}, ops/s):
+ *
+ * <pre>
+ * {@code
+ * stringFormat             1980248
+ * template                17598282
+ * templateToBuilder       25046331
+ * templateToByteBuffer    25575934
+ * }
+ * </pre>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 3, time = 10)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SeqFormatterBench {
+
+	private final String seqName = "order";
+
+	private final String partition = "20201015";
+
+	private final SeqFormatter template = SeqFormatter.compile("{name}.{partition}.{seq:08}");
+
+	private final StringBuilder builder = new StringBuilder(64);
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+	private long value;
+
+	@Benchmark
+	public void stringFormat(Blackhole bh) {
+		bh.consume(String.format("%s.%s.%08d", seqName, partition, ++value));
+	}
+
+	@Benchmark
+	public void template(Blackhole bh) {
+		bh.consume(template.format(seqName, partition, ++value));
+	}
+
+	@Benchmark
+	public void templateToBuilder(Blackhole bh) {
+		builder.setLength(0);
+		template.formatTo(seqName, partition, ++value, builder);
+		bh.consume(builder);
+	}
+
+	@Benchmark
+	public void templateToByteBuffer(Blackhole bh) {
+		buffer.clear();
+		template.formatTo(seqName, partition, ++value, buffer);
+		bh.consume(buffer);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options opt = new OptionsBuilder().include(SeqFormatterBench.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * 号池计数器,方法语义与 {@link AtomicLong} 相同
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+interface LongCounter {
+
+	long get();
+
+	void set(long newValue);
+
+	long getAndIncrement();
+
+	long getAndAdd(long delta);
+
+	boolean compareAndSet(long expectedValue, long newValue);
+
+	long getAndUpdate(LongUnaryOperator updateFunction);
+
+	/**
+	 * 创建计数器
+	 * @param initialValue 初始值
+	 * @param padded 是否填充缓存行
+	 * @return LongCounter
+	 */
+	static LongCounter create(long initialValue, boolean padded) {
+		return padded ? new PaddedLongCounter(initialValue) : new SimpleLongCounter(initialValue);
+	}
+
+	/**
+	 * 普通计数器
+	 */
+	final class SimpleLongCounter extends AtomicLong implements LongCounter {
+
+		SimpleLongCounter(long initialValue) {
+			super(initialValue);
+		}
+
+	}
+
+}
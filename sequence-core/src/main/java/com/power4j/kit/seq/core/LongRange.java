@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.core;
+
+import java.util.Objects;
+import java.util.stream.LongStream;
+
+/**
+ * 连续的序号区间(前闭后开) {@code [from, from + size)}
+ * <ul>
+ * <li>不可变对象,线程安全</li>
+ * <li>{@code size} 总是大于0</li>
+ * </ul>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public final class LongRange {
+
+	private final long from;
+
+	private final long size;
+
+	/**
+	 * 根据起始值和数量创建
+	 * @param from 起始值,包含
+	 * @param size 数量,必须大于0
+	 * @return LongRange
+	 */
+	public static LongRange of(long from, long size) {
+		return new LongRange(from, size);
+	}
+
+	private LongRange(long from, long size) {
+		if (size <= 0L) {
+			throw new IllegalArgumentException("Invalid size: " + size);
+		}
+		this.from = from;
+		this.size = size;
+	}
+
+	/**
+	 * 起始值
+	 * @return 区间内的第一个值(包含)
+	 */
+	public long getFrom() {
+		return from;
+	}
+
+	/**
+	 * 结束值
+	 * @return 区间外的第一个值(不包含),当区间末尾是 {@code Long.MAX_VALUE} 时会溢出
+	 */
+	public long getTo() {
+		return from + size;
+	}
+
+	/**
+	 * 最后一个值
+	 * @return 区间内的最后一个值(包含)
+	 */
+	public long getLast() {
+		return from + size - 1L;
+	}
+
+	/**
+	 * 区间内的序号数量
+	 * @return
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * 是否包含
+	 * @param value
+	 * @return
+	 */
+	public boolean contains(long value) {
+		return value >= from && value <= getLast();
+	}
+
+	/**
+	 * 转换为 {@code LongStream}
+	 * @return
+	 */
+	public LongStream stream() {
+		return LongStream.rangeClosed(from, getLast());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		LongRange that = (LongRange) o;
+		return from == that.from && size == that.size;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(from, size);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + from + "," + getLast() + "]";
+	}
+
+}
@@ -20,21 +20,22 @@ import com.power4j.kit.seq.core.exceptions.SeqException;
 import lombok.Getter;
 
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 序号池(Long型)
  * <ul>
  * <li>取值范围{@code [0,Long.MAX_VALUE]}</li>
  * <li>支持一次性取号和循环取号</li>
- * <li>线程安全,lock free</li>
+ * <li>支持批量取号,参考 {@link #nextBatch(int)}</li>
+ * <li>线程安全,lock free;不滚动的号池取号是 wait free 的</li>
+ * <li>可选填充缓存行的计数器,参考 {@link #padded(String, long, long, boolean)}</li>
  * </ul>
  *
  * @author CJ (power4j@outlook.com)
  * @date 2020/6/30
  * @since 1.0
  */
-public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
+public class LongSeqPool implements SeqPool<Long, LongSeqPool>, LongSequence {
 
 	private final static long ZERO = 0L;
 
@@ -45,9 +46,9 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 	public final static long MIN_VALUE = ZERO;
 
 	/**
-	 * 表示一个号池外的值
+	 * 表示一个号池外的值,与 {@link LongSequence#NO_VALUE} 相同
 	 */
-	public final static long OUT_OF_POOL = Long.MIN_VALUE;
+	public final static long OUT_OF_POOL = NO_VALUE;
 
 	private final String name;
 
@@ -60,7 +61,10 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 	@Getter
 	private final boolean reRoll;
 
-	private final AtomicLong current;
+	@Getter
+	private final boolean padded;
+
+	private final LongCounter current;
 
 	/**
 	 * 根据数量创建
@@ -71,7 +75,7 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 	 * @return LongSeqPool
 	 */
 	public static LongSeqPool forSize(String name, long start, int size, boolean reRoll) {
-		return new LongSeqPool(name, start, start + size - ONE, reRoll);
+		return new LongSeqPool(name, start, start + size - ONE, reRoll, false);
 	}
 
 	/**
@@ -83,7 +87,19 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 	 * @return LongSeqPool
 	 */
 	public static LongSeqPool forRange(String name, long min, long max, boolean reRoll) {
-		return new LongSeqPool(name, min, max, reRoll);
+		return new LongSeqPool(name, min, max, reRoll, false);
+	}
+
+	/**
+	 * 根据区间创建,计数器独占缓存行.适用于多个线程频繁地并发取号的场景,代价是每个号池多占用约 256 字节
+	 * @param name 名称
+	 * @param min 起始值，包含
+	 * @param max end 结束值，包含
+	 * @param reRoll 是否允许滚动
+	 * @return LongSeqPool
+	 */
+	public static LongSeqPool padded(String name, long min, long max, boolean reRoll) {
+		return new LongSeqPool(name, min, max, reRoll, true);
 	}
 
 	/**
@@ -94,7 +110,7 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 	 * @return LongSeqPool
 	 */
 	public static LongSeqPool startFrom(String name, long start, boolean reRoll) {
-		return new LongSeqPool(name, start, Long.MAX_VALUE, reRoll);
+		return new LongSeqPool(name, start, Long.MAX_VALUE, reRoll, false);
 	}
 
 	/**
@@ -103,14 +119,16 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 	 * @param start 起始值，包含
 	 * @param end 结束值，包含
 	 * @param reRoll 是否允许滚动，可以滚动的号池永远不会耗尽
+	 * @param padded 计数器是否填充缓存行
 	 */
-	private LongSeqPool(String name, long start, long end, boolean reRoll) {
+	private LongSeqPool(String name, long start, long end, boolean reRoll, boolean padded) {
 		assertMinValue(start, "Invalid start value: " + start);
 		this.name = name;
 		this.start = start;
 		this.end = end;
 		this.reRoll = reRoll;
-		this.current = new AtomicLong(start);
+		this.padded = padded;
+		this.current = LongCounter.create(start, padded);
 		if (end < start) {
 			throw new IllegalArgumentException("Nothing to offer");
 		}
@@ -132,6 +150,16 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 		return Optional.ofNullable(OUT_OF_POOL == val ? null : val);
 	}
 
+	@Override
+	public long nextLong() throws SeqException {
+		return take();
+	}
+
+	@Override
+	public long tryNextLong() {
+		return take(OUT_OF_POOL);
+	}
+
 	@Override
 	public Long peek() {
 		return current.get();
@@ -163,10 +191,41 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 		if (defVal >= start && defVal <= end) {
 			throw new IllegalArgumentException("Bad defVal");
 		}
-		long val = current.getAndUpdate(this::updateFunc);
+		// 不滚动时计数器只增不减,越过 end 之后的值都视为无效,因此不需要 CAS 循环
+		long val = reRoll ? current.getAndUpdate(this::updateFunc) : current.getAndIncrement();
 		return (val > end || val < start) ? defVal : val;
 	}
 
+	/**
+	 * 批量取出序号,一次原子操作完成
+	 * @param size 期望的数量,必须大于0
+	 * @return 返回取到的序号区间,号池剩余数量不足时只返回剩余部分,号池耗尽返回 {@code Optional.empty()}
+	 * @throws IllegalArgumentException size 无效
+	 */
+	public Optional<LongRange> nextBatch(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Bad size: " + size);
+		}
+		if (!reRoll) {
+			final long pre = current.getAndAdd(size);
+			if (pre > end || pre < start) {
+				return Optional.empty();
+			}
+			return Optional.of(LongRange.of(pre, (size - ONE <= end - pre) ? size : end - pre + ONE));
+		}
+		long pre;
+		long count;
+		long next;
+		do {
+			pre = current.get();
+			// end - pre 不会溢出, 而 end - pre + 1 在 end = Long.MAX_VALUE 时可能溢出
+			count = (size - ONE <= end - pre) ? size : end - pre + ONE;
+			next = (count - ONE == end - pre) ? start : pre + count;
+		}
+		while (!current.compareAndSet(pre, next));
+		return Optional.of(LongRange.of(pre, count));
+	}
+
 	private long updateFunc(final long pre) {
 		if (reRoll && pre >= end) {
 			return minValue();
@@ -181,14 +240,15 @@ public class LongSeqPool implements SeqPool<Long, LongSeqPool> {
 
 	@Override
 	public LongSeqPool fork(String name) {
-		LongSeqPool seqPool = new LongSeqPool(name, start, end, reRoll);
+		LongSeqPool seqPool = new LongSeqPool(name, start, end, reRoll, padded);
 		seqPool.setCurrent(peek());
 		return seqPool;
 	}
 
 	@Override
 	public long remaining() {
-		return reRoll ? capacity() : end - peek() + ONE;
+		// 不滚动的号池耗尽后计数器会继续增长
+		return reRoll ? capacity() : Math.max(ZERO, end - peek() + ONE);
 	}
 
 	@Override
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.core;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+
+/**
+ * 基本类型的序号生成器,取号过程不产生 {@code Optional} 和 {@code Long} 对象
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public interface LongSequence extends Sequence<Long> {
+
+	/**
+	 * 表示无法获得序号,序号的取值范围是 {@code [0,Long.MAX_VALUE]},因此不会与有效值冲突
+	 */
+	long NO_VALUE = Long.MIN_VALUE;
+
+	/**
+	 * 取值
+	 * @return
+	 * @throws SeqException 无法获得序号抛出异常
+	 */
+	long nextLong() throws SeqException;
+
+	/**
+	 * 取值
+	 * @return 无法获得序号返回 {@link #NO_VALUE}
+	 */
+	long tryNextLong();
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * 填充了缓存行的计数器,避免与相邻对象产生伪共享(false sharing)
+ * <p>
+ * 父类字段总是排在子类字段之前,因此通过继承关系在 {@code value} 前后各放置 128 字节的填充
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+final class PaddedLongCounter extends PaddedLongCounterValue implements LongCounter {
+
+	private static final VarHandle VALUE;
+
+	static {
+		try {
+			VALUE = MethodHandles.lookup().findVarHandle(PaddedLongCounterValue.class, "value", long.class);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	long p10, p11, p12, p13, p14, p15, p16, p17;
+
+	long p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+
+	PaddedLongCounter(long initialValue) {
+		this.value = initialValue;
+	}
+
+	@Override
+	public long get() {
+		return value;
+	}
+
+	@Override
+	public void set(long newValue) {
+		value = newValue;
+	}
+
+	@Override
+	public long getAndIncrement() {
+		return (long) VALUE.getAndAdd(this, 1L);
+	}
+
+	@Override
+	public long getAndAdd(long delta) {
+		return (long) VALUE.getAndAdd(this, delta);
+	}
+
+	@Override
+	public boolean compareAndSet(long expectedValue, long newValue) {
+		return VALUE.compareAndSet(this, expectedValue, newValue);
+	}
+
+	@Override
+	public long getAndUpdate(LongUnaryOperator updateFunction) {
+		long prev;
+		do {
+			prev = value;
+		}
+		while (!VALUE.weakCompareAndSet(this, prev, updateFunction.applyAsLong(prev)));
+		return prev;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(value);
+	}
+
+}
+
+abstract class PaddedLongCounterLhs {
+
+	long p00, p01, p02, p03, p04, p05, p06, p07;
+
+	long p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+
+}
+
+abstract class PaddedLongCounterValue extends PaddedLongCounterLhs {
+
+	protected volatile long value;
+
+}
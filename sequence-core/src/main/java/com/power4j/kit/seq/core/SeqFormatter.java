@@ -16,6 +16,10 @@
 
 package com.power4j.kit.seq.core;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * 格式化函数
  *
@@ -29,22 +33,22 @@ public interface SeqFormatter {
 	/**
 	 * 默认格式: 分区+序号值
 	 */
-	SeqFormatter DEFAULT_FORMAT = (seqName, partition, value) -> String.format("%s%08d", partition, value);
+	SeqFormatter DEFAULT_FORMAT = SeqTemplate.compile("{partition}{seq:08}");
 
 	/**
 	 * 适用于按年分区
 	 */
-	SeqFormatter ANNUALLY_FORMAT = (seqName, partition, value) -> String.format("%s%10d", partition, value);
+	SeqFormatter ANNUALLY_FORMAT = SeqTemplate.compile("{partition}{seq:10}");
 
 	/**
 	 * 适用于按月分区
 	 */
-	SeqFormatter MONTHLY_FORMAT = (seqName, partition, value) -> String.format("%s%08d", partition, value);
+	SeqFormatter MONTHLY_FORMAT = SeqTemplate.compile("{partition}{seq:08}");
 
 	/**
 	 * 适用于按日分区
 	 */
-	SeqFormatter DAILY_FORMAT = (seqName, partition, value) -> String.format("%s%06d", partition, value);
+	SeqFormatter DAILY_FORMAT = SeqTemplate.compile("{partition}{seq:06}");
 
 	/**
 	 * 格式化
@@ -55,4 +59,58 @@ public interface SeqFormatter {
 	 */
 	String format(String seqName, String partition, long value);
 
+	/**
+	 * 格式化并追加到 {@code builder}
+	 * @param seqName
+	 * @param partition
+	 * @param value
+	 * @param builder
+	 */
+	default void formatTo(String seqName, String partition, long value, StringBuilder builder) {
+		builder.append(format(seqName, partition, value));
+	}
+
+	/**
+	 * 格式化并写入 {@code dst}
+	 * @param seqName
+	 * @param partition
+	 * @param value
+	 * @param dst
+	 * @param offset 写入位置
+	 * @return 写入的字符数
+	 * @throws IndexOutOfBoundsException 空间不足
+	 */
+	default int formatTo(String seqName, String partition, long value, char[] dst, int offset) {
+		final String str = format(seqName, partition, value);
+		if (offset < 0 || dst.length - offset < str.length()) {
+			throw new IndexOutOfBoundsException("Need " + str.length() + " chars at offset " + offset);
+		}
+		str.getChars(0, str.length(), dst, offset);
+		return str.length();
+	}
+
+	/**
+	 * 格式化并以 UTF-8 编码写入 {@code dst}
+	 * @param seqName
+	 * @param partition
+	 * @param value
+	 * @param dst
+	 * @return 写入的字节数
+	 * @throws BufferOverflowException 空间不足
+	 */
+	default int formatTo(String seqName, String partition, long value, ByteBuffer dst) {
+		final byte[] bytes = format(seqName, partition, value).getBytes(StandardCharsets.UTF_8);
+		dst.put(bytes);
+		return bytes.length;
+	}
+
+	/**
+	 * 编译模板,语法见 {@link SeqTemplate}
+	 * @param template 模板,例如 {@code "{name}.{partition}.{seq:08}"}
+	 * @return SeqFormatter
+	 */
+	static SeqFormatter compile(String template) {
+		return SeqTemplate.compile(template);
+	}
+
 }
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.core;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 预编译的格式化模板
+ * <p>
+ * 模板语法:
+ * <ul>
+ * <li>{@code {name}}: 序号名称</li>
+ * <li>{@code {partition}}: 分区</li>
+ * <li>{@code {seq}}: 序号值,必须出现且只能出现一次. {@code {seq:08}} 表示不足8位时左侧补0, {@code {seq:8}}
+ * 表示不足8位时左侧补空格,与 {@code %08d}、{@code %8d} 的结果相同</li>
+ * <li>{@code {{} 和 {@code }}} 分别表示字符 {@code {} 和 {@code }}</li>
+ * </ul>
+ * 例如 {@code "{name}.{partition}.{seq:08}"} 与
+ * {@code String.format("%s.%s.%08d", name, partition, value)} 的输出相同.
+ * </p>
+ * <p>
+ * 序号值前后的内容只与名称和分区有关,按照名称和分区缓存在一个固定大小的表中,冲突时覆盖旧的内容;字节形式只在写入 {@link ByteBuffer} 时才生成.
+ * 序号值直接写入目标缓冲区,不创建中间字符串. 实例是线程安全的
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public final class SeqTemplate implements SeqFormatter {
+
+	private static final int MAX_WIDTH = 64;
+
+	/**
+	 * 前后缀缓存的槽位数量,必须是2的幂
+	 */
+	private static final int CACHE_SLOTS = 16;
+
+	private final String template;
+
+	private final List<Part> prefixParts;
+
+	private final List<Part> suffixParts;
+
+	private final int width;
+
+	private final char padChar;
+
+	private final boolean usesName;
+
+	private final boolean usesPartition;
+
+	private final AtomicReferenceArray<Rendered> cache = new AtomicReferenceArray<>(CACHE_SLOTS);
+
+	/**
+	 * 编译模板
+	 * @param template 模板
+	 * @return SeqTemplate
+	 * @throws IllegalArgumentException 模板语法错误
+	 */
+	public static SeqTemplate compile(String template) {
+		return new SeqTemplate(Objects.requireNonNull(template));
+	}
+
+	private SeqTemplate(String template) {
+		this.template = template;
+		List<Part> prefix = new ArrayList<>(4);
+		List<Part> suffix = new ArrayList<>(4);
+		List<Part> target = prefix;
+		int seqWidth = 0;
+		char seqPad = ' ';
+		boolean seqFound = false;
+		StringBuilder literal = new StringBuilder();
+		int i = 0;
+		while (i < template.length()) {
+			char c = template.charAt(i);
+			if (c == '{' && i + 1 < template.length() && template.charAt(i + 1) == '{') {
+				literal.append('{');
+				i += 2;
+				continue;
+			}
+			if (c == '}' && i + 1 < template.length() && template.charAt(i + 1) == '}') {
+				literal.append('}');
+				i += 2;
+				continue;
+			}
+			if (c == '}') {
+				throw new IllegalArgumentException("Unmatched '}' at " + i + ": " + template);
+			}
+			if (c != '{') {
+				literal.append(c);
+				++i;
+				continue;
+			}
+			int close = template.indexOf('}', i);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unmatched '{' at " + i + ": " + template);
+			}
+			String placeholder = template.substring(i + 1, close);
+			if (literal.length() > 0) {
+				target.add(Part.literal(literal.toString()));
+				literal.setLength(0);
+			}
+			if ("name".equals(placeholder)) {
+				target.add(Part.NAME);
+			}
+			else if ("partition".equals(placeholder)) {
+				target.add(Part.PARTITION);
+			}
+			else if ("seq".equals(placeholder) || placeholder.startsWith("seq:")) {
+				if (seqFound) {
+					throw new IllegalArgumentException("Duplicate {seq}: " + template);
+				}
+				seqFound = true;
+				if (placeholder.length() > 4) {
+					String spec = placeholder.substring(4);
+					seqPad = spec.charAt(0) == '0' ? '0' : ' ';
+					seqWidth = parseWidth(spec, template);
+				}
+				target = suffix;
+			}
+			else {
+				throw new IllegalArgumentException("Unknown placeholder {" + placeholder + "}: " + template);
+			}
+			i = close + 1;
+		}
+		if (literal.length() > 0) {
+			target.add(Part.literal(literal.toString()));
+		}
+		if (!seqFound) {
+			throw new IllegalArgumentException("Missing {seq}: " + template);
+		}
+		this.prefixParts = prefix;
+		this.suffixParts = suffix;
+		this.width = seqWidth;
+		this.padChar = seqPad;
+		this.usesName = prefix.contains(Part.NAME) || suffix.contains(Part.NAME);
+		this.usesPartition = prefix.contains(Part.PARTITION) || suffix.contains(Part.PARTITION);
+	}
+
+	private static int parseWidth(String spec, String template) {
+		try {
+			int val = Integer.parseInt(spec);
+			if (val < 0 || val > MAX_WIDTH) {
+				throw new IllegalArgumentException("Bad width " + spec + ": " + template);
+			}
+			return val;
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad width " + spec + ": " + template, e);
+		}
+	}
+
+	/**
+	 * 模板
+	 * @return
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	@Override
+	public String format(String seqName, String partition, long value) {
+		final Rendered r = render(seqName, partition);
+		final StringBuilder builder = new StringBuilder(r.prefix.length() + valueLength(value) + r.suffix.length());
+		appendTo(r, value, builder);
+		return builder.toString();
+	}
+
+	@Override
+	public void formatTo(String seqName, String partition, long value, StringBuilder builder) {
+		appendTo(render(seqName, partition), value, builder);
+	}
+
+	@Override
+	public int formatTo(String seqName, String partition, long value, char[] dst, int offset) {
+		final Rendered r = render(seqName, partition);
+		final int valueLength = valueLength(value);
+		final int length = r.prefix.length() + valueLength + r.suffix.length();
+		if (offset < 0 || dst.length - offset < length) {
+			throw new IndexOutOfBoundsException("Need " + length + " chars at offset " + offset);
+		}
+		int pos = offset;
+		r.prefix.getChars(0, r.prefix.length(), dst, pos);
+		pos += r.prefix.length();
+		writeValue(value, valueLength, dst, pos);
+		pos += valueLength;
+		r.suffix.getChars(0, r.suffix.length(), dst, pos);
+		return length;
+	}
+
+	@Override
+	public int formatTo(String seqName, String partition, long value, ByteBuffer dst) {
+		final Rendered r = render(seqName, partition);
+		final int valueLength = valueLength(value);
+		final Encoded e = r.encoded();
+		final int length = e.prefix.length + valueLength + e.suffix.length;
+		if (dst.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		dst.put(e.prefix);
+		if (value == Long.MIN_VALUE) {
+			dst.put(padded(value).getBytes(StandardCharsets.US_ASCII));
+		}
+		else {
+			final int pos = dst.position();
+			// 从右向左写入,不借助中间数组
+			long val = Math.abs(value);
+			int index = pos + valueLength;
+			do {
+				dst.put(--index, (byte) ('0' + (int) (val % 10)));
+				val /= 10;
+			}
+			while (val != 0);
+			writeSignAndPadding(value, pos, index, (idx, ch) -> dst.put(idx, (byte) ch));
+			dst.position(pos + valueLength);
+		}
+		dst.put(e.suffix);
+		return length;
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+	private void appendTo(Rendered r, long value, StringBuilder builder) {
+		builder.append(r.prefix);
+		if (value == Long.MIN_VALUE) {
+			builder.append(padded(value));
+		}
+		else {
+			final int valueLength = valueLength(value);
+			final int pos = builder.length();
+			builder.setLength(pos + valueLength);
+			long val = Math.abs(value);
+			int index = pos + valueLength;
+			do {
+				builder.setCharAt(--index, (char) ('0' + (int) (val % 10)));
+				val /= 10;
+			}
+			while (val != 0);
+			writeSignAndPadding(value, pos, index, builder::setCharAt);
+		}
+		builder.append(r.suffix);
+	}
+
+	private void writeValue(long value, int valueLength, char[] dst, int pos) {
+		if (value == Long.MIN_VALUE) {
+			padded(value).getChars(0, valueLength, dst, pos);
+			return;
+		}
+		long val = Math.abs(value);
+		int index = pos + valueLength;
+		do {
+			dst[--index] = (char) ('0' + (int) (val % 10));
+			val /= 10;
+		}
+		while (val != 0);
+		writeSignAndPadding(value, pos, index, (idx, ch) -> dst[idx] = ch);
+	}
+
+	/**
+	 * 数字已经写入 {@code [digitsStart, pos + valueLength)},在 {@code [pos, digitsStart)}
+	 * 中写入符号和填充字符
+	 */
+	private void writeSignAndPadding(long value, int pos, int digitsStart, CharWriter writer) {
+		int index = digitsStart;
+		if (value < 0 && padChar == '0') {
+			while (index > pos + 1) {
+				writer.write(--index, '0');
+			}
+			writer.write(pos, '-');
+			return;
+		}
+		if (value < 0) {
+			writer.write(--index, '-');
+		}
+		while (index > pos) {
+			writer.write(--index, padChar);
+		}
+	}
+
+	private String padded(long value) {
+		String digits = Long.toString(value);
+		if (digits.length() >= width) {
+			return digits;
+		}
+		StringBuilder builder = new StringBuilder(width);
+		if (padChar == '0') {
+			builder.append('-');
+			for (int i = digits.length(); i < width; ++i) {
+				builder.append('0');
+			}
+			return builder.append(digits, 1, digits.length()).toString();
+		}
+		for (int i = digits.length(); i < width; ++i) {
+			builder.append(' ');
+		}
+		return builder.append(digits).toString();
+	}
+
+	private int valueLength(long value) {
+		return Math.max(width, stringSize(value));
+	}
+
+	private Rendered render(String seqName, String partition) {
+		// 只使用模板用到的部分,多个取号器共用同一个模板时可以共享缓存
+		final String name = usesName ? seqName : null;
+		final String part = usesPartition ? partition : null;
+		final int hash = Objects.hashCode(name) * 31 + Objects.hashCode(part);
+		final int slot = (hash ^ (hash >>> 16)) & (CACHE_SLOTS - 1);
+		Rendered r = cache.get(slot);
+		if (r != null && r.hash == hash && Objects.equals(r.seqName, name) && Objects.equals(r.partition, part)) {
+			return r;
+		}
+		r = new Rendered(name, part, hash, renderParts(prefixParts, seqName, partition),
+				renderParts(suffixParts, seqName, partition));
+		cache.lazySet(slot, r);
+		return r;
+	}
+
+	private static String renderParts(List<Part> parts, String seqName, String partition) {
+		StringBuilder builder = new StringBuilder();
+		for (Part part : parts) {
+			if (part == Part.NAME) {
+				builder.append(seqName);
+			}
+			else if (part == Part.PARTITION) {
+				builder.append(partition);
+			}
+			else {
+				builder.append(part.text);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 字符数量,包括负号
+	 */
+	static int stringSize(long x) {
+		if (x == Long.MIN_VALUE) {
+			return 20;
+		}
+		int sign = 0;
+		if (x < 0) {
+			sign = 1;
+			x = -x;
+		}
+		long p = 10;
+		for (int i = 1; i < 19; i++) {
+			if (x < p) {
+				return i + sign;
+			}
+			p = 10 * p;
+		}
+		return 19 + sign;
+	}
+
+	@FunctionalInterface
+	private interface CharWriter {
+
+		void write(int index, char ch);
+
+	}
+
+	private static final class Part {
+
+		static final Part NAME = new Part(null);
+
+		static final Part PARTITION = new Part(null);
+
+		private final String text;
+
+		private Part(String text) {
+			this.text = text;
+		}
+
+		static Part literal(String text) {
+			return new Part(text);
+		}
+
+	}
+
+	/**
+	 * 某个名称和分区对应的前后缀
+	 */
+	private static final class Rendered {
+
+		private final String seqName;
+
+		private final String partition;
+
+		private final int hash;
+
+		private final String prefix;
+
+		private final String suffix;
+
+		/**
+		 * 字节形式,首次使用时生成. 字段都是 final 的,并发生成多次也没有问题
+		 */
+		private Encoded encoded;
+
+		Rendered(String seqName, String partition, int hash, String prefix, String suffix) {
+			this.seqName = seqName;
+			this.partition = partition;
+			this.hash = hash;
+			this.prefix = prefix;
+			this.suffix = suffix;
+		}
+
+		Encoded encoded() {
+			Encoded e = encoded;
+			if (e == null) {
+				e = new Encoded(prefix.getBytes(StandardCharsets.UTF_8), suffix.getBytes(StandardCharsets.UTF_8));
+				encoded = e;
+			}
+			return e;
+		}
+
+	}
+
+	/**
+	 * 前后缀的 UTF-8 编码
+	 */
+	private static final class Encoded {
+
+		private final byte[] prefix;
+
+		private final byte[] suffix;
+
+		Encoded(byte[] prefix, byte[] suffix) {
+			this.prefix = prefix;
+			this.suffix = suffix;
+		}
+
+	}
+
+}
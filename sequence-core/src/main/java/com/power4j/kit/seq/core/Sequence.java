@@ -19,6 +19,8 @@ package com.power4j.kit.seq.core;
 import com.power4j.kit.seq.core.exceptions.SeqException;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 序号生成器
@@ -66,4 +68,40 @@ public interface Sequence<T> {
 		return nextStrOpt().orElseThrow(() -> new SeqException("Nothing to offer"));
 	}
 
+	/**
+	 * 异步取值
+	 * <p>
+	 * 默认实现在调用线程中同步取值,不阻塞调用线程的实现需要覆盖此方法
+	 * </p>
+	 * @return 无法获得序号时以 {@link SeqException} 异常结束
+	 * @since 1.6.1
+	 */
+	default CompletionStage<T> nextAsync() {
+		try {
+			return CompletableFuture.completedFuture(next());
+		}
+		catch (RuntimeException e) {
+			CompletableFuture<T> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	/**
+	 * 异步返回经过格式化后字符串
+	 * @return 无法获得序号时以 {@link SeqException} 异常结束
+	 * @since 1.6.1
+	 * @see #nextAsync()
+	 */
+	default CompletionStage<String> nextStrAsync() {
+		try {
+			return CompletableFuture.completedFuture(nextStr());
+		}
+		catch (RuntimeException e) {
+			CompletableFuture<String> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
 }
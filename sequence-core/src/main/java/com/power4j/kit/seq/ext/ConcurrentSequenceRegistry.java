@@ -0,0 +1,357 @@
+package com.power4j.kit.seq.ext;
+
+import com.power4j.kit.seq.core.Sequence;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.utils.ExecutorUtil;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 支持并发访问和淘汰的 Sequence 注册表
+ * <p>
+ * 读取不加锁;{@link #getOrRegister} 创建对象时只阻塞同名的调用,不影响其他名称. 可以限制最大数量,超过上限时淘汰最久未使用的对象,
+ * 长时间未使用的对象也会被淘汰. 被淘汰的对象会传给淘汰监听器,比如调用 {@code SeqHolder#close()} 归还剩余的序号. 主动调用
+ * {@link #remove} 或 {@link #register} 替换的对象不会通知监听器
+ * </p>
+ * <p>
+ * 淘汰在注册新对象时进行,需要扫描全部对象,因此开销是分摊的:超过上限时一次多淘汰 {@code maxSize/16} 个,空闲检查最多每
+ * {@code idleTimeout/2} 执行一次. 其他线程正在淘汰时直接跳过,注册不会等待
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ * @param <T> 自增类型,比如 {@code Long}
+ * @param <S> Sequence 接口
+ */
+public class ConcurrentSequenceRegistry<T, S extends Sequence<T>> implements SequenceRegistry<T, S> {
+
+	/**
+	 * 访问时间的精度,避免每次读取都写入共享变量
+	 */
+	private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * 超过上限时额外淘汰 {@code maxSize >> EVICT_BATCH_SHIFT} 个对象
+	 */
+	private static final int EVICT_BATCH_SHIFT = 4;
+
+	private final Map<String, Entry<S>> map = new ConcurrentHashMap<>(16);
+
+	private final ReentrantLock evictLock = new ReentrantLock();
+
+	private final int maxSize;
+
+	private final long idleTimeoutNanos;
+
+	private final BiConsumer<String, ? super S> evictionListener;
+
+	private final Executor listenerExecutor;
+
+	/**
+	 * 下一次自动检查空闲对象的时间
+	 */
+	private final AtomicLong nextIdleCheckNanos = new AtomicLong(System.nanoTime());
+
+	/**
+	 * 创建不限数量,不淘汰的注册表
+	 */
+	public ConcurrentSequenceRegistry() {
+		this(new Builder<>());
+	}
+
+	private ConcurrentSequenceRegistry(Builder<T, S> builder) {
+		this.maxSize = builder.maxSize;
+		this.idleTimeoutNanos = builder.idleTimeout == null ? 0L : TimeUnit.NANOSECONDS.convert(builder.idleTimeout);
+		this.evictionListener = builder.evictionListener;
+		this.listenerExecutor = builder.listenerExecutor == null ? ExecutorUtil.sharedPrefetchExecutor()
+				: builder.listenerExecutor;
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Bad maxSize: " + maxSize);
+		}
+	}
+
+	@Override
+	public Optional<S> register(String name, S seq) {
+		Objects.requireNonNull(seq);
+		final Entry<S> entry = new Entry<>(CompletableFuture.completedFuture(seq));
+		final Entry<S> old = map.put(name, entry);
+		afterInsert(entry);
+		return valueOf(old);
+	}
+
+	@Override
+	public Optional<S> get(String name) {
+		final Entry<S> entry = map.get(name);
+		if (entry != null) {
+			entry.touch();
+		}
+		return valueOf(entry);
+	}
+
+	@Override
+	public Optional<S> remove(String name) {
+		return valueOf(map.remove(name));
+	}
+
+	@Override
+	public S getOrRegister(String name, Function<String, S> func) {
+		Entry<S> entry = map.get(name);
+		if (entry == null) {
+			final Entry<S> created = new Entry<>(new CompletableFuture<>());
+			entry = map.putIfAbsent(name, created);
+			if (entry == null) {
+				return create(name, created, func);
+			}
+		}
+		entry.touch();
+		try {
+			return entry.future.join();
+		}
+		catch (CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new SeqException("Create sequence failed: " + name, cause);
+		}
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	/**
+	 * 淘汰长时间未使用的对象.注册新对象时会按间隔自动执行,也可以定期手动执行
+	 */
+	public void evictIdle() {
+		if (idleTimeoutNanos <= 0L) {
+			return;
+		}
+		evictLock.lock();
+		evictIdleLocked();
+	}
+
+	/**
+	 * 持有 {@link #evictLock} 时调用,返回前释放
+	 */
+	private void evictIdleLocked() {
+		final List<Map.Entry<String, S>> evicted = new ArrayList<>();
+		try {
+			final long now = System.nanoTime();
+			map.forEach((name, entry) -> {
+				if (now - entry.lastAccessNanos > idleTimeoutNanos) {
+					evict(name, entry, evicted);
+				}
+			});
+		}
+		finally {
+			evictLock.unlock();
+		}
+		notifyEvicted(evicted);
+	}
+
+	private S create(String name, Entry<S> entry, Function<String, S> func) {
+		final S seq;
+		try {
+			seq = Objects.requireNonNull(func.apply(name));
+		}
+		catch (RuntimeException | Error e) {
+			// 创建失败,下次调用重新创建
+			map.remove(name, entry);
+			entry.future.completeExceptionally(e);
+			throw e;
+		}
+		entry.future.complete(seq);
+		afterInsert(entry);
+		return seq;
+	}
+
+	private void afterInsert(Entry<S> entry) {
+		evictIdleIfDue();
+		evictOverflow(entry);
+	}
+
+	/**
+	 * 距离上次检查超过 {@code idleTimeout/2} 时淘汰空闲对象
+	 */
+	private void evictIdleIfDue() {
+		if (idleTimeoutNanos <= 0L) {
+			return;
+		}
+		final long now = System.nanoTime();
+		final long due = nextIdleCheckNanos.get();
+		if (now - due < 0L || !nextIdleCheckNanos.compareAndSet(due, now + idleTimeoutNanos / 2)
+				|| !evictLock.tryLock()) {
+			return;
+		}
+		evictIdleLocked();
+	}
+
+	/**
+	 * 数量超过上限时淘汰最久未使用的对象,一次多淘汰 {@code maxSize >> EVICT_BATCH_SHIFT} 个,分摊扫描的开销
+	 * @param keep 不会被淘汰的对象
+	 */
+	private void evictOverflow(Entry<S> keep) {
+		final int size = map.size();
+		if (size <= maxSize || !evictLock.tryLock()) {
+			return;
+		}
+		final List<Map.Entry<String, S>> evicted = new ArrayList<>();
+		try {
+			final List<Map.Entry<String, Entry<S>>> candidates = new ArrayList<>(size);
+			for (Map.Entry<String, Entry<S>> item : map.entrySet()) {
+				final Entry<S> entry = item.getValue();
+				if (entry != keep && entry.future.isDone()) {
+					candidates.add(item);
+				}
+			}
+			candidates.sort((a, b) -> Long.signum(a.getValue().lastAccessNanos - b.getValue().lastAccessNanos));
+			final int target = maxSize - (maxSize >> EVICT_BATCH_SHIFT);
+			for (int i = 0; i < candidates.size() && map.size() > target; ++i) {
+				evict(candidates.get(i).getKey(), candidates.get(i).getValue(), evicted);
+			}
+		}
+		finally {
+			evictLock.unlock();
+		}
+		notifyEvicted(evicted);
+	}
+
+	private void evict(String name, Entry<S> entry, List<Map.Entry<String, S>> evicted) {
+		// 正在创建的对象不淘汰
+		if (entry.future.isDone() && map.remove(name, entry)) {
+			valueOf(entry).ifPresent(seq -> evicted.add(new AbstractMap.SimpleImmutableEntry<>(name, seq)));
+		}
+	}
+
+	private void notifyEvicted(List<Map.Entry<String, S>> evicted) {
+		if (evictionListener == null || evicted.isEmpty()) {
+			return;
+		}
+		final Runnable task = () -> {
+			for (Map.Entry<String, S> item : evicted) {
+				evictionListener.accept(item.getKey(), item.getValue());
+			}
+		};
+		try {
+			listenerExecutor.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			// 线程池已满,在当前线程中执行
+			task.run();
+		}
+	}
+
+	private Optional<S> valueOf(Entry<S> entry) {
+		if (entry == null) {
+			return Optional.empty();
+		}
+		try {
+			// 正在创建时等待创建完成,只影响同名的调用
+			return Optional.of(entry.future.join());
+		}
+		catch (CompletionException e) {
+			return Optional.empty();
+		}
+	}
+
+	public static <T, S extends Sequence<T>> Builder<T, S> builder() {
+		return new Builder<>();
+	}
+
+	public static class Builder<T, S extends Sequence<T>> {
+
+		private int maxSize = Integer.MAX_VALUE;
+
+		private Duration idleTimeout;
+
+		private BiConsumer<String, ? super S> evictionListener;
+
+		private Executor listenerExecutor;
+
+		/**
+		 * 最大数量,默认不限制
+		 * @param maxSize 数量
+		 * @return Builder
+		 */
+		public Builder<T, S> maxSize(int maxSize) {
+			this.maxSize = maxSize;
+			return this;
+		}
+
+		/**
+		 * 超过 {@code idleTimeout} 未使用时淘汰,默认不按时间淘汰
+		 * @param idleTimeout 空闲时间
+		 * @return Builder
+		 */
+		public Builder<T, S> idleTimeout(Duration idleTimeout) {
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+		/**
+		 * 淘汰监听器,参数为名称和被淘汰的对象.在 {@link #listenerExecutor} 中执行,此时对象已经从注册表中移除
+		 * @param evictionListener 监听器
+		 * @return Builder
+		 */
+		public Builder<T, S> evictionListener(BiConsumer<String, ? super S> evictionListener) {
+			this.evictionListener = evictionListener;
+			return this;
+		}
+
+		/**
+		 * 执行淘汰监听器的线程池,默认使用 {@link ExecutorUtil#sharedPrefetchExecutor()}.
+		 * 线程池拒绝时在触发淘汰的线程中执行
+		 * @param listenerExecutor 线程池
+		 * @return Builder
+		 */
+		public Builder<T, S> listenerExecutor(Executor listenerExecutor) {
+			this.listenerExecutor = listenerExecutor;
+			return this;
+		}
+
+		public ConcurrentSequenceRegistry<T, S> build() {
+			return new ConcurrentSequenceRegistry<>(this);
+		}
+
+	}
+
+	private static class Entry<S> {
+
+		private final CompletableFuture<S> future;
+
+		private volatile long lastAccessNanos;
+
+		Entry(CompletableFuture<S> future) {
+			this.future = future;
+			this.lastAccessNanos = System.nanoTime();
+		}
+
+		void touch() {
+			final long now = System.nanoTime();
+			if (now - lastAccessNanos > TOUCH_GRANULARITY_NANOS) {
+				lastAccessNanos = now;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 自适应拉取数量
+ * <p>
+ * 记录相邻两次拉取的时间间隔,按照 {@code 上次数量 * 期望间隔 / 实际间隔} 估算下一次的数量. 为避免波动,
+ * 每次最多扩大为原来的2倍或者缩小为原来的一半,并且限制在 {@code [minSize, maxSize]} 范围内
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public final class AdaptiveFetchSizePolicy implements FetchSizePolicy {
+
+	private final long targetNanos;
+
+	private final int minSize;
+
+	private final int maxSize;
+
+	private final LongSupplier nanoTime;
+
+	private boolean started;
+
+	private long lastFetchNanos;
+
+	private volatile int size;
+
+	AdaptiveFetchSizePolicy(Duration targetInterval, int minSize, int maxSize, LongSupplier nanoTime) {
+		if (minSize <= 0 || maxSize < minSize) {
+			throw new IllegalArgumentException("Bad size range: [" + minSize + "," + maxSize + "]");
+		}
+		this.targetNanos = TimeUnit.NANOSECONDS.convert(Objects.requireNonNull(targetInterval));
+		if (targetNanos <= 0) {
+			throw new IllegalArgumentException("Bad target interval: " + targetInterval);
+		}
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.nanoTime = nanoTime;
+		this.size = minSize;
+	}
+
+	@Override
+	public synchronized int nextFetchSize() {
+		final long now = nanoTime.getAsLong();
+		if (started) {
+			final long elapsed = Math.max(1L, now - lastFetchNanos);
+			final double ideal = (double) size * targetNanos / elapsed;
+			final double bounded = Math.min(Math.max(ideal, size / 2.0), size * 2.0);
+			size = (int) Math.min(Math.max(Math.round(bounded), minSize), maxSize);
+		}
+		started = true;
+		lastFetchNanos = now;
+		return size;
+	}
+
+	@Override
+	public int currentFetchSize() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "adaptive(" + Duration.ofNanos(targetNanos) + ",[" + minSize + "," + maxSize + "])";
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.persistent.provider.ExecutorAsyncSynchronizer;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步的Seq记录同步接口,语义与 {@link SeqSynchronizer} 相同
+ * <p>
+ * 访问后端期间不占用调用线程,适合在事件循环线程中使用,参考 {@link SeqHolder.Builder#asyncSynchronizer}. 结果可能在后端驱动的
+ * IO 线程中完成,后续的回调不应执行阻塞操作
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public interface AsyncSeqSynchronizer {
+
+	/**
+	 * 创建序号记录,如已经存在则忽略
+	 * @param name 名称
+	 * @param partition 分区
+	 * @param nextValue 初始值
+	 * @return true 表示创建成功,false 表示记录已经存在
+	 */
+	CompletionStage<Boolean> tryCreate(String name, String partition, long nextValue);
+
+	/**
+	 * 尝试更新记录
+	 * <p>
+	 * <b>此接口为可选实现接口</b>
+	 * </p>
+	 * @param name
+	 * @param partition
+	 * @param nextValueOld
+	 * @param nextValueNew
+	 * @return true 表示更新成功,不支持时以 {@link UnsupportedOperationException} 异常结束
+	 */
+	default CompletionStage<Boolean> tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		final CompletableFuture<Boolean> future = new CompletableFuture<>();
+		future.completeExceptionally(new UnsupportedOperationException());
+		return future;
+	}
+
+	/**
+	 * 尝试加法操作
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param maxReTry 最大重试次数,小于0表示无限制
+	 * @return 返回执行加法操作执行结果
+	 */
+	CompletionStage<AddState> tryAddAndGet(String name, String partition, int delta, int maxReTry);
+
+	/**
+	 * 分配号段,参考 {@link SeqSynchronizer#tryAllocate}. 重试次数超过 {@link #getMaxReTry()} 时返回失败
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param initValue 记录不存在时的初始值
+	 * @return 执行结果
+	 */
+	default CompletionStage<AddState> tryAllocate(String name, String partition, int delta, long initValue) {
+		final long created = initValue + delta;
+		return tryCreate(name, partition, created)
+				.thenCompose(ok -> ok ? CompletableFuture.completedFuture(AddState.success(initValue, created, 1))
+						: tryAddAndGet(name, partition, delta, getMaxReTry()));
+	}
+
+	/**
+	 * {@link #tryAllocate} 使用的最大重试次数,参考 {@link #tryAddAndGet}
+	 * @return 默认 {@link SeqSynchronizer#DEFAULT_MAX_RETRY}
+	 */
+	default int getMaxReTry() {
+		return SeqSynchronizer.DEFAULT_MAX_RETRY;
+	}
+
+	/**
+	 * 查询当前值
+	 * @param name
+	 * @param partition
+	 * @return 记录不存在时返回 {@code Optional.empty()}
+	 */
+	CompletionStage<Optional<Long>> getNextValue(String name, String partition);
+
+	/**
+	 * 在线程池中执行阻塞的同步器
+	 * @param synchronizer 同步器
+	 * @param executor 线程池,应该是有界的
+	 * @return AsyncSeqSynchronizer
+	 */
+	static AsyncSeqSynchronizer wrap(SeqSynchronizer synchronizer, Executor executor) {
+		return new ExecutorAsyncSynchronizer(synchronizer, executor);
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 基于时钟的分区函数
+ * <p>
+ * 缓存当前分区的值及其时间范围(毫秒),时间处于范围内时直接返回缓存的值,只有跨越分区边界时才读取时区并重新计算. 时钟回拨同样会触发重新计算
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public final class ClockPartitioner implements Supplier<String> {
+
+	private final Clock clock;
+
+	private final Supplier<ZoneId> zoneSource;
+
+	private final ChronoUnit unit;
+
+	private final DateTimeFormatter formatter;
+
+	private volatile Window window;
+
+	/**
+	 * 按年分区,格式 {@code yyyy}
+	 * @param clock 时钟
+	 * @param zoneId 时区
+	 * @return ClockPartitioner
+	 */
+	public static ClockPartitioner annually(Clock clock, ZoneId zoneId) {
+		return of(clock, zoneId, ChronoUnit.YEARS, "yyyy");
+	}
+
+	/**
+	 * 按月分区,格式 {@code yyyyMM}
+	 * @param clock 时钟
+	 * @param zoneId 时区
+	 * @return ClockPartitioner
+	 */
+	public static ClockPartitioner monthly(Clock clock, ZoneId zoneId) {
+		return of(clock, zoneId, ChronoUnit.MONTHS, "yyyyMM");
+	}
+
+	/**
+	 * 按日分区,格式 {@code yyyyMMdd}
+	 * @param clock 时钟
+	 * @param zoneId 时区
+	 * @return ClockPartitioner
+	 */
+	public static ClockPartitioner daily(Clock clock, ZoneId zoneId) {
+		return of(clock, zoneId, ChronoUnit.DAYS, "yyyyMMdd");
+	}
+
+	/**
+	 * 创建分区函数
+	 * @param clock 时钟
+	 * @param zoneId 时区
+	 * @param unit 分区周期,支持 {@code YEARS},{@code MONTHS},{@code DAYS}
+	 * @param pattern 分区格式,同一个周期内的格式化结果必须相同
+	 * @return ClockPartitioner
+	 * @throws IllegalArgumentException 不支持的分区周期
+	 */
+	public static ClockPartitioner of(Clock clock, ZoneId zoneId, ChronoUnit unit, String pattern) {
+		Objects.requireNonNull(zoneId);
+		return new ClockPartitioner(clock, () -> zoneId, unit, DateTimeFormatter.ofPattern(pattern));
+	}
+
+	/**
+	 * 使用系统默认时区创建分区函数. 重新计算分区边界时读取默认时区, {@link java.util.TimeZone#setDefault} 之后从下一个分区开始生效
+	 * @param clock 时钟
+	 * @param unit 分区周期,支持 {@code YEARS},{@code MONTHS},{@code DAYS}
+	 * @param pattern 分区格式,同一个周期内的格式化结果必须相同
+	 * @return ClockPartitioner
+	 * @throws IllegalArgumentException 不支持的分区周期
+	 */
+	public static ClockPartitioner ofSystemZone(Clock clock, ChronoUnit unit, String pattern) {
+		return new ClockPartitioner(clock, ZoneId::systemDefault, unit, DateTimeFormatter.ofPattern(pattern));
+	}
+
+	private ClockPartitioner(Clock clock, Supplier<ZoneId> zoneSource, ChronoUnit unit, DateTimeFormatter formatter) {
+		if (unit != ChronoUnit.YEARS && unit != ChronoUnit.MONTHS && unit != ChronoUnit.DAYS) {
+			throw new IllegalArgumentException("Unsupported unit: " + unit);
+		}
+		this.clock = Objects.requireNonNull(clock);
+		this.zoneSource = zoneSource;
+		this.unit = unit;
+		this.formatter = formatter;
+	}
+
+	@Override
+	public String get() {
+		return current(clock.millis()).value;
+	}
+
+	/**
+	 * 下一个分区的开始时间
+	 * @return 毫秒时间戳
+	 */
+	public long nextBoundaryMillis() {
+		return current(clock.millis()).endMillis;
+	}
+
+	/**
+	 * 计算指定时间所属的分区,不影响缓存
+	 * @param epochMillis 毫秒时间戳
+	 * @return 分区
+	 */
+	public String partitionAt(long epochMillis) {
+		return compute(epochMillis, zoneSource.get()).value;
+	}
+
+	/**
+	 * 时钟
+	 * @return
+	 */
+	public Clock getClock() {
+		return clock;
+	}
+
+	private Window current(long now) {
+		Window w = window;
+		if (w == null || now < w.startMillis || now >= w.endMillis) {
+			w = compute(now, zoneSource.get());
+			window = w;
+		}
+		return w;
+	}
+
+	private Window compute(long now, ZoneId zoneId) {
+		final LocalDate date = Instant.ofEpochMilli(now).atZone(zoneId).toLocalDate();
+		final LocalDate start;
+		switch (unit) {
+			case YEARS:
+				start = date.withDayOfYear(1);
+				break;
+			case MONTHS:
+				start = date.withDayOfMonth(1);
+				break;
+			default:
+				start = date;
+				break;
+		}
+		final LocalDate end = start.plus(1, unit);
+		return new Window(start.format(formatter), toMillis(start, zoneId), toMillis(end, zoneId));
+	}
+
+	private static long toMillis(LocalDate date, ZoneId zoneId) {
+		return date.atStartOfDay(zoneId).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * 分区值及其时间范围 {@code [startMillis, endMillis)}
+	 */
+	private static final class Window {
+
+		private final String value;
+
+		private final long startMillis;
+
+		private final long endMillis;
+
+		Window(String value, long startMillis, long endMillis) {
+			this.value = value;
+			this.startMillis = startMillis;
+			this.endMillis = endMillis;
+		}
+
+	}
+
+}
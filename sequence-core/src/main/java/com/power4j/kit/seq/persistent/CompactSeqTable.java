@@ -0,0 +1,492 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 紧凑的多序号取号表
+ * <p>
+ * 适用于序号数量非常多的场景(比如每个租户、每种单据各有一个序号). 每个 {@link SeqHolder} 包含锁、原子变量、号池等多个对象,
+ * 数量达到百万级时占用大量堆内存; 此类把所有序号的当前号段 {@code [next, end)} 保存在开放寻址哈希表的 {@code long} 数组中,
+ * 每个序号只占用几十个字节,号段用完时通过 {@link SeqSynchronizer} 拉取.
+ * </p>
+ * <p>
+ * 哈希表按 {@code (名称, 分区)} 的哈希值分成多个段,每个段有独立的锁,访问后端时不持有锁. 同一个序号并发补充号段时,
+ * 只有一个线程访问后端,其他线程限时等待它的结果后继续从新号段取号. 不同分区是不同的记录,不再使用的分区需要调用
+ * {@link #remove(String, String)} 移除
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class CompactSeqTable {
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private final Stripe[] stripes;
+
+	private final AtomicLong pullCount = new AtomicLong();
+
+	private final SeqSynchronizer seqSynchronizer;
+
+	private final long initValue;
+
+	private final int poolSize;
+
+	private final long waitTimeoutNanos;
+
+	private CompactSeqTable(Builder builder) {
+		this.seqSynchronizer = Objects.requireNonNull(builder.synchronizer);
+		this.initValue = builder.initValue;
+		this.poolSize = builder.poolSize;
+		if (poolSize <= 0) {
+			throw new IllegalArgumentException("Bad poolSize: " + poolSize);
+		}
+		this.waitTimeoutNanos = builder.waitTimeout.toNanos();
+		if (waitTimeoutNanos <= 0L) {
+			throw new IllegalArgumentException("Bad waitTimeout: " + builder.waitTimeout);
+		}
+		if (builder.stripes <= 0 || Integer.bitCount(builder.stripes) != 1) {
+			throw new IllegalArgumentException("Stripes must be a power of 2: " + builder.stripes);
+		}
+		final int stripeCapacity = tableSizeFor(builder.initialCapacity / builder.stripes);
+		this.stripes = new Stripe[builder.stripes];
+		for (int i = 0; i < stripes.length; ++i) {
+			stripes[i] = new Stripe(stripeCapacity);
+		}
+	}
+
+	/**
+	 * 取值
+	 * @param name 名称
+	 * @param partition 分区
+	 * @return 序号值
+	 * @throws SeqException 无法获得序号抛出异常
+	 */
+	public long nextLong(String name, String partition) throws SeqException {
+		final int hash = hash(name, partition);
+		final Stripe stripe = stripeOf(hash);
+		while (true) {
+			final Pending pending;
+			final boolean leader;
+			stripe.lock();
+			try {
+				final int slot = stripe.find(hash, name, partition);
+				if (slot >= 0) {
+					final long next = stripe.ranges[slot << 1];
+					if (next < stripe.ranges[(slot << 1) + 1]) {
+						stripe.ranges[slot << 1] = next + 1;
+						return next;
+					}
+				}
+				final Pending existing = stripe.pendingOf(hash, name, partition);
+				leader = existing == null;
+				pending = leader ? stripe.addPending(hash, name, partition) : existing;
+			}
+			finally {
+				stripe.unlock();
+			}
+			if (leader) {
+				return refill(stripe, pending);
+			}
+			await(pending);
+		}
+	}
+
+	/**
+	 * 移除序号,剩余的序号被丢弃
+	 * @param name 名称
+	 * @param partition 分区
+	 * @return true 表示序号存在
+	 */
+	public boolean remove(String name, String partition) {
+		final int hash = hash(name, partition);
+		final Stripe stripe = stripeOf(hash);
+		stripe.lock();
+		try {
+			final int slot = stripe.find(hash, name, partition);
+			if (slot < 0) {
+				return false;
+			}
+			stripe.delete(slot);
+			return true;
+		}
+		finally {
+			stripe.unlock();
+		}
+	}
+
+	/**
+	 * 序号数量
+	 * @return
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			stripe.lock();
+			try {
+				size += stripe.size;
+			}
+			finally {
+				stripe.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 从后端拉取值的次数
+	 * @return
+	 */
+	public long getPullCount() {
+		return pullCount.get();
+	}
+
+	/**
+	 * 号段用完,在锁外访问后端. 新号段的第一个值留给当前线程,其余的写入哈希表
+	 */
+	private long refill(Stripe stripe, Pending pending) {
+		try {
+			final long[] range = fetch(pending.name, pending.partition);
+			stripe.lock();
+			try {
+				int slot = stripe.find(pending.hash, pending.name, pending.partition);
+				if (slot < 0) {
+					slot = stripe.insert(pending.hash, pending.name, pending.partition);
+				}
+				stripe.ranges[slot << 1] = range[0] + 1;
+				stripe.ranges[(slot << 1) + 1] = range[1];
+				stripe.pendings.remove(pending);
+			}
+			finally {
+				stripe.unlock();
+			}
+			pending.future.complete(null);
+			return range[0];
+		}
+		catch (Throwable e) {
+			// 包括 Error,否则等待的线程永远不会被唤醒
+			stripe.lock();
+			try {
+				stripe.pendings.remove(pending);
+			}
+			finally {
+				stripe.unlock();
+			}
+			pending.future.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * 限时等待其他线程补充号段
+	 */
+	private void await(Pending pending) {
+		try {
+			pending.future.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException e) {
+			throw new SeqException("Refill timeout: " + pending.name + "/" + pending.partition);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SeqException("Interrupted while waiting for refill: " + pending.name + "/" + pending.partition);
+		}
+		catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof SeqException) {
+				throw (SeqException) cause;
+			}
+			throw new SeqException("Refill failed: " + cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * 拉取号段
+	 * @return {@code [from, end)}
+	 */
+	private long[] fetch(String name, String partition) {
+		pullCount.incrementAndGet();
+		final AddState state = seqSynchronizer.tryAllocate(name, partition, poolSize, initValue);
+		if (!state.isSuccess()) {
+			throw new SeqException("Fetch failed: " + name + "/" + partition);
+		}
+		return new long[] { state.getPrevious(), state.getCurrent() };
+	}
+
+	private Stripe stripeOf(int hash) {
+		return stripes[hash & (stripes.length - 1)];
+	}
+
+	private static int hash(String name, String partition) {
+		final int h = name.hashCode() * 31 + partition.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int tableSizeFor(int expected) {
+		final int size = (int) Math.ceil(Math.max(expected, 2) / LOAD_FACTOR);
+		return Math.min(Integer.highestOneBit(size - 1) << 1, 1 << 30);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+
+		private SeqSynchronizer synchronizer;
+
+		private long initValue = 1;
+
+		private int poolSize = 1;
+
+		private int stripes = 64;
+
+		private int initialCapacity = 1024;
+
+		private Duration waitTimeout = Duration.ofSeconds(30L);
+
+		public Builder synchronizer(SeqSynchronizer synchronizer) {
+			this.synchronizer = synchronizer;
+			return this;
+		}
+
+		public Builder initValue(long initValue) {
+			this.initValue = initValue;
+			return this;
+		}
+
+		public Builder poolSize(int poolSize) {
+			this.poolSize = poolSize;
+			return this;
+		}
+
+		/**
+		 * 分段数量,必须是2的幂,默认64
+		 * @param stripes 分段数量
+		 * @return Builder
+		 */
+		public Builder stripes(int stripes) {
+			this.stripes = stripes;
+			return this;
+		}
+
+		/**
+		 * 预计的序号数量,默认1024
+		 * @param initialCapacity 数量
+		 * @return Builder
+		 */
+		public Builder initialCapacity(int initialCapacity) {
+			this.initialCapacity = initialCapacity;
+			return this;
+		}
+
+		/**
+		 * 等待其他线程补充号段的最长时间,超时抛出 {@link SeqException},默认30秒
+		 * @param waitTimeout 等待时间
+		 * @return Builder
+		 */
+		public Builder waitTimeout(Duration waitTimeout) {
+			this.waitTimeout = Objects.requireNonNull(waitTimeout);
+			return this;
+		}
+
+		public CompactSeqTable build() {
+			return new CompactSeqTable(this);
+		}
+
+	}
+
+	/**
+	 * 进行中的补充,等待的线程完成后重新从哈希表取号
+	 */
+	private static final class Pending {
+
+		private final int hash;
+
+		private final String name;
+
+		private final String partition;
+
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		Pending(int hash, String name, String partition) {
+			this.hash = hash;
+			this.name = name;
+			this.partition = partition;
+		}
+
+	}
+
+	/**
+	 * 线性探测的哈希表,槽位 {@code i} 的号段保存在 {@code ranges[2i]} 和 {@code ranges[2i+1]}
+	 */
+	@SuppressWarnings("serial")
+	private static final class Stripe extends ReentrantLock {
+
+		private String[] names;
+
+		private String[] partitions;
+
+		private int[] hashes;
+
+		private long[] ranges;
+
+		private int size;
+
+		private int shift;
+
+		/**
+		 * 正在补充号段的序号,数量不超过并发线程数
+		 */
+		private final List<Pending> pendings = new ArrayList<>(2);
+
+		Stripe(int capacity) {
+			allocate(capacity);
+		}
+
+		Pending pendingOf(int hash, String name, String partition) {
+			for (Pending pending : pendings) {
+				if (pending.hash == hash && pending.name.equals(name) && pending.partition.equals(partition)) {
+					return pending;
+				}
+			}
+			return null;
+		}
+
+		Pending addPending(int hash, String name, String partition) {
+			final Pending pending = new Pending(hash, name, partition);
+			pendings.add(pending);
+			return pending;
+		}
+
+		int find(int hash, String name, String partition) {
+			final int mask = names.length - 1;
+			int i = indexOf(hash);
+			String key;
+			while ((key = names[i]) != null) {
+				if (hashes[i] == hash && key.equals(name) && partitions[i].equals(partition)) {
+					return i;
+				}
+				i = (i + 1) & mask;
+			}
+			return -1;
+		}
+
+		int insert(int hash, String name, String partition) {
+			if (size + 1 > names.length * LOAD_FACTOR) {
+				resize();
+			}
+			final int mask = names.length - 1;
+			int i = indexOf(hash);
+			while (names[i] != null) {
+				i = (i + 1) & mask;
+			}
+			names[i] = name;
+			partitions[i] = partition;
+			hashes[i] = hash;
+			++size;
+			return i;
+		}
+
+		/**
+		 * 删除后把后续的元素前移,不使用墓碑标记
+		 */
+		void delete(int slot) {
+			final int mask = names.length - 1;
+			int hole = slot;
+			int i = slot;
+			while (true) {
+				i = (i + 1) & mask;
+				if (names[i] == null) {
+					break;
+				}
+				final int ideal = indexOf(hashes[i]);
+				// ideal 在 (hole, i] 之间时元素不能前移
+				final boolean stay = hole <= i ? (hole < ideal && ideal <= i) : (hole < ideal || ideal <= i);
+				if (!stay) {
+					move(i, hole);
+					hole = i;
+				}
+			}
+			names[hole] = null;
+			partitions[hole] = null;
+			ranges[hole << 1] = 0L;
+			ranges[(hole << 1) + 1] = 0L;
+			--size;
+		}
+
+		private void move(int from, int to) {
+			names[to] = names[from];
+			partitions[to] = partitions[from];
+			hashes[to] = hashes[from];
+			ranges[to << 1] = ranges[from << 1];
+			ranges[(to << 1) + 1] = ranges[(from << 1) + 1];
+		}
+
+		private int indexOf(int hash) {
+			// 低位用于选择分段,这里用乘法散列取高位
+			return (hash * 0x9E3779B9) >>> shift;
+		}
+
+		private void resize() {
+			final String[] oldNames = names;
+			final String[] oldPartitions = partitions;
+			final int[] oldHashes = hashes;
+			final long[] oldRanges = ranges;
+			allocate(oldNames.length << 1);
+			final int mask = names.length - 1;
+			for (int j = 0; j < oldNames.length; ++j) {
+				if (oldNames[j] == null) {
+					continue;
+				}
+				int i = indexOf(oldHashes[j]);
+				while (names[i] != null) {
+					i = (i + 1) & mask;
+				}
+				names[i] = oldNames[j];
+				partitions[i] = oldPartitions[j];
+				hashes[i] = oldHashes[j];
+				ranges[i << 1] = oldRanges[j << 1];
+				ranges[(i << 1) + 1] = oldRanges[(j << 1) + 1];
+			}
+		}
+
+		private void allocate(int capacity) {
+			names = new String[capacity];
+			partitions = new String[capacity];
+			hashes = new int[capacity];
+			ranges = new long[capacity << 1];
+			shift = Integer.numberOfLeadingZeros(capacity) + 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import java.time.Duration;
+
+/**
+ * 拉取数量策略,决定每次访问后端时申请的序号数量
+ * <p>
+ * 实现可以是有状态的,每个取号器应当使用独立的实例
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public interface FetchSizePolicy {
+
+	/**
+	 * 即将访问后端,返回本次拉取的数量
+	 * @return 大于0
+	 */
+	int nextFetchSize();
+
+	/**
+	 * 最近一次拉取使用的数量,还没有拉取过时返回初始数量
+	 * @return
+	 */
+	int currentFetchSize();
+
+	/**
+	 * 固定数量
+	 * @param size 数量
+	 * @return FetchSizePolicy
+	 * @throws IllegalArgumentException size 无效
+	 */
+	static FetchSizePolicy fixed(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Bad fetch size: " + size);
+		}
+		return new FetchSizePolicy() {
+			@Override
+			public int nextFetchSize() {
+				return size;
+			}
+
+			@Override
+			public int currentFetchSize() {
+				return size;
+			}
+
+			@Override
+			public String toString() {
+				return "fixed(" + size + ")";
+			}
+		};
+	}
+
+	/**
+	 * 根据消耗速度调整数量,使拉取间隔接近 {@code targetInterval}
+	 * @param targetInterval 期望的拉取间隔
+	 * @param minSize 最小数量,同时也是初始数量
+	 * @param maxSize 最大数量
+	 * @return FetchSizePolicy
+	 * @see AdaptiveFetchSizePolicy
+	 */
+	static FetchSizePolicy adaptive(Duration targetInterval, int minSize, int maxSize) {
+		return new AdaptiveFetchSizePolicy(targetInterval, minSize, maxSize, System::nanoTime);
+	}
+
+}
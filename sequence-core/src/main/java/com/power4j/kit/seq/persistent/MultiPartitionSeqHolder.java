@@ -0,0 +1,516 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.core.LongSequence;
+import com.power4j.kit.seq.core.SeqFormatter;
+import com.power4j.kit.seq.core.SeqTemplate;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.utils.ExecutorUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 多分区取号器
+ * <p>
+ * 适用于分区频繁交替的场景(比如按租户分区).{@link SeqHolder} 只保留一个号段,分区交替时每次切换都会访问后端并丢弃剩余的序号; 此类为每个分区保留独立的
+ * {@link SeqHolder},分区数量超过上限时淘汰最久未使用的分区,长时间未使用的分区也会被淘汰. 被淘汰的分区会在后台尝试归还剩余的序号,参考
+ * {@link SeqHolder#release()}
+ * </p>
+ * <p>
+ * 淘汰时可能仍有线程在使用该分区,这些调用仍然可以取号(必要时重新拉取),最后一个调用结束时归还,不会遗留号段. 淘汰的开销是分摊的: 超过上限时一次多淘汰
+ * {@code maxPartitions/16} 个,空闲检查最多每 {@code idleTimeout/2} 执行一次,其他线程正在淘汰时直接跳过
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class MultiPartitionSeqHolder implements LongSequence, AutoCloseable {
+
+	/**
+	 * 访问时间的精度,避免每次取号都写入共享变量
+	 */
+	private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * 超过上限时额外淘汰 {@code maxPartitions >> EVICT_BATCH_SHIFT} 个分区
+	 */
+	private static final int EVICT_BATCH_SHIFT = 4;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final ReentrantLock evictLock = new ReentrantLock();
+
+	private final AtomicLong evictedPullCount = new AtomicLong();
+
+	/**
+	 * 下一次自动检查空闲分区的时间
+	 */
+	private final AtomicLong nextIdleCheckNanos = new AtomicLong(System.nanoTime());
+
+	private final SeqSynchronizer seqSynchronizer;
+
+	private final String name;
+
+	private final Supplier<String> partitionFunc;
+
+	private final long initValue;
+
+	private final int poolSize;
+
+	private final SeqFormatter seqFormatter;
+
+	private final int maxPartitions;
+
+	private final long idleTimeoutNanos;
+
+	private MultiPartitionSeqHolder(Builder builder) {
+		this.seqSynchronizer = Objects.requireNonNull(builder.synchronizer);
+		this.name = Objects.requireNonNull(builder.name);
+		this.partitionFunc = Objects.requireNonNull(builder.partitionFunc);
+		this.initValue = builder.initValue;
+		this.poolSize = builder.poolSize;
+		this.seqFormatter = builder.seqFormatter;
+		this.maxPartitions = builder.maxPartitions;
+		this.idleTimeoutNanos = builder.idleTimeout == null ? 0L : TimeUnit.NANOSECONDS.convert(builder.idleTimeout);
+		if (maxPartitions <= 0) {
+			throw new IllegalArgumentException("Bad maxPartitions: " + maxPartitions);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Optional<Long> nextOpt() {
+		return apply(partitionFunc.get(), SeqHolder::nextOpt);
+	}
+
+	@Override
+	public Long next() throws SeqException {
+		return nextLong();
+	}
+
+	@Override
+	public long nextLong() throws SeqException {
+		final Entry entry = entryOf(partitionFunc.get());
+		try {
+			return entry.holder.nextLong();
+		}
+		finally {
+			entry.afterUse();
+		}
+	}
+
+	@Override
+	public long tryNextLong() {
+		final Entry entry = entryOf(partitionFunc.get());
+		try {
+			return entry.holder.tryNextLong();
+		}
+		finally {
+			entry.afterUse();
+		}
+	}
+
+	@Override
+	public Optional<String> nextStrOpt() {
+		return apply(partitionFunc.get(), SeqHolder::nextStrOpt);
+	}
+
+	@Override
+	public String nextStr() throws SeqException {
+		return apply(partitionFunc.get(), SeqHolder::nextStr);
+	}
+
+	@Override
+	public CompletableFuture<Long> nextAsync() {
+		return applyAsync(partitionFunc.get(), SeqHolder::nextAsync);
+	}
+
+	@Override
+	public CompletableFuture<String> nextStrAsync() {
+		return applyAsync(partitionFunc.get(), SeqHolder::nextStrAsync);
+	}
+
+	/**
+	 * 取值,同时返回序号所属的分区
+	 * @return
+	 * @throws SeqException 无法获得序号抛出异常
+	 */
+	public SeqValue nextWithPartition() throws SeqException {
+		final String partitionValue = partitionFunc.get();
+		final Entry entry = entryOf(partitionValue);
+		try {
+			return SeqValue.of(partitionValue, entry.holder.nextLong());
+		}
+		finally {
+			entry.afterUse();
+		}
+	}
+
+	/**
+	 * 当前保留的分区数量
+	 * @return
+	 */
+	public int getPartitionCount() {
+		return entries.size();
+	}
+
+	/**
+	 * 从后端拉取值的次数,包括已经被淘汰的分区
+	 * @return
+	 */
+	public long getPullCount() {
+		long count = evictedPullCount.get();
+		for (Entry entry : entries.values()) {
+			count += entry.holder.getPullCount();
+		}
+		return count;
+	}
+
+	/**
+	 * 归还所有分区中未使用的序号
+	 * @return 归还的序号数量
+	 * @see SeqHolder#release()
+	 */
+	public long release() {
+		long released = 0L;
+		for (Entry entry : entries.values()) {
+			released += entry.holder.release();
+		}
+		return released;
+	}
+
+	@Override
+	public void close() {
+		release();
+	}
+
+	/**
+	 * 淘汰长时间未使用的分区.创建新分区时会按间隔自动执行,也可以定期手动执行
+	 */
+	public void evictIdle() {
+		if (idleTimeoutNanos <= 0L) {
+			return;
+		}
+		evictLock.lock();
+		evictIdleLocked();
+	}
+
+	/**
+	 * 持有 {@link #evictLock} 时调用,返回前释放
+	 */
+	private void evictIdleLocked() {
+		try {
+			final long now = System.nanoTime();
+			entries.forEach((partition, entry) -> {
+				if (now - entry.lastAccessNanos > idleTimeoutNanos) {
+					remove(partition, entry);
+				}
+			});
+		}
+		finally {
+			evictLock.unlock();
+		}
+	}
+
+	private <T> T apply(String partitionValue, Function<SeqHolder, T> op) {
+		final Entry entry = entryOf(partitionValue);
+		try {
+			return op.apply(entry.holder);
+		}
+		finally {
+			entry.afterUse();
+		}
+	}
+
+	private <T> CompletableFuture<T> applyAsync(String partitionValue, Function<SeqHolder, CompletableFuture<T>> op) {
+		final Entry entry = entryOf(partitionValue);
+		final CompletableFuture<T> future;
+		try {
+			future = op.apply(entry.holder);
+		}
+		catch (RuntimeException e) {
+			entry.afterUse();
+			throw e;
+		}
+		if (future.isDone()) {
+			entry.afterUse();
+			return future;
+		}
+		return future.whenComplete((val, ex) -> entry.afterUse());
+	}
+
+	/**
+	 * 取得分区并登记使用,调用结束时必须执行 {@link Entry#afterUse()}
+	 */
+	private Entry entryOf(String partitionValue) {
+		while (true) {
+			Entry entry = entries.get(partitionValue);
+			if (entry == null) {
+				entry = entries.computeIfAbsent(partitionValue, this::newEntry);
+				evictIdleIfDue();
+				evictOverflow(entry);
+			}
+			if (entry.acquire()) {
+				entry.touch();
+				return entry;
+			}
+			// 刚刚被淘汰,重新创建
+		}
+	}
+
+	/**
+	 * 距离上次检查超过 {@code idleTimeout/2} 时淘汰空闲分区
+	 */
+	private void evictIdleIfDue() {
+		if (idleTimeoutNanos <= 0L) {
+			return;
+		}
+		final long now = System.nanoTime();
+		final long due = nextIdleCheckNanos.get();
+		if (now - due < 0L || !nextIdleCheckNanos.compareAndSet(due, now + idleTimeoutNanos / 2)
+				|| !evictLock.tryLock()) {
+			return;
+		}
+		evictIdleLocked();
+	}
+
+	/**
+	 * 分区数量超过上限时淘汰最久未使用的分区,一次多淘汰 {@code maxPartitions >> EVICT_BATCH_SHIFT} 个,分摊扫描的开销
+	 * @param keep 不会被淘汰的分区
+	 */
+	private void evictOverflow(Entry keep) {
+		final int size = entries.size();
+		if (size <= maxPartitions || !evictLock.tryLock()) {
+			return;
+		}
+		try {
+			final List<Map.Entry<String, Entry>> candidates = new ArrayList<>(size);
+			for (Map.Entry<String, Entry> item : entries.entrySet()) {
+				if (item.getValue() != keep) {
+					candidates.add(item);
+				}
+			}
+			candidates.sort((a, b) -> Long.signum(a.getValue().lastAccessNanos - b.getValue().lastAccessNanos));
+			final int target = maxPartitions - (maxPartitions >> EVICT_BATCH_SHIFT);
+			for (int i = 0; i < candidates.size() && entries.size() > target; ++i) {
+				remove(candidates.get(i).getKey(), candidates.get(i).getValue());
+			}
+		}
+		finally {
+			evictLock.unlock();
+		}
+	}
+
+	private void remove(String partition, Entry entry) {
+		if (entries.remove(partition, entry)) {
+			evictedPullCount.addAndGet(entry.holder.getPullCount());
+			// 仍在使用该分区的调用结束时由最后一个调用归还
+			if (entry.retire()) {
+				try {
+					ExecutorUtil.sharedPrefetchExecutor().execute(entry.holder::release);
+				}
+				catch (RejectedExecutionException e) {
+					// 线程池已满,放弃归还
+				}
+			}
+		}
+	}
+
+	private Entry newEntry(String partitionValue) {
+		// @formatter:off
+		final SeqHolder holder = SeqHolder.builder()
+				.synchronizer(seqSynchronizer)
+				.name(name)
+				.partitionFunc(() -> partitionValue)
+				.initValue(initValue)
+				.poolSize(poolSize)
+				.seqFormatter(copyOf(seqFormatter))
+				.build();
+		// @formatter:on
+		return new Entry(holder);
+	}
+
+	/**
+	 * 每个分区使用独立的模板实例,各自缓存前后缀
+	 */
+	private static SeqFormatter copyOf(SeqFormatter formatter) {
+		if (formatter instanceof SeqTemplate) {
+			return SeqTemplate.compile(((SeqTemplate) formatter).getTemplate());
+		}
+		return formatter;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+
+		private SeqSynchronizer synchronizer;
+
+		private String name;
+
+		private Supplier<String> partitionFunc;
+
+		private long initValue = 1;
+
+		private int poolSize = 1;
+
+		private SeqFormatter seqFormatter = SeqFormatter.compile("{name}.{partition}.{seq:08}");
+
+		private int maxPartitions = 1024;
+
+		private Duration idleTimeout;
+
+		public Builder synchronizer(SeqSynchronizer synchronizer) {
+			this.synchronizer = synchronizer;
+			return this;
+		}
+
+		public Builder name(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder partitionFunc(Supplier<String> partitionFunc) {
+			this.partitionFunc = partitionFunc;
+			return this;
+		}
+
+		public Builder initValue(long initValue) {
+			this.initValue = initValue;
+			return this;
+		}
+
+		public Builder poolSize(int poolSize) {
+			this.poolSize = poolSize;
+			return this;
+		}
+
+		public Builder seqFormatter(SeqFormatter seqFormatter) {
+			this.seqFormatter = seqFormatter;
+			return this;
+		}
+
+		/**
+		 * 最多保留的分区数量,默认1024
+		 * @param maxPartitions 分区数量
+		 * @return Builder
+		 */
+		public Builder maxPartitions(int maxPartitions) {
+			this.maxPartitions = maxPartitions;
+			return this;
+		}
+
+		/**
+		 * 分区超过 {@code idleTimeout} 未使用时淘汰,默认不按时间淘汰
+		 * @param idleTimeout 空闲时间
+		 * @return Builder
+		 */
+		public Builder idleTimeout(Duration idleTimeout) {
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+		public MultiPartitionSeqHolder build() {
+			return new MultiPartitionSeqHolder(this);
+		}
+
+	}
+
+	private static class Entry {
+
+		private final SeqHolder holder;
+
+		private volatile long lastAccessNanos;
+
+		private volatile boolean retired;
+
+		/**
+		 * 正在使用的调用数量
+		 */
+		private final AtomicInteger users = new AtomicInteger();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Entry(SeqHolder holder) {
+			this.holder = holder;
+			this.lastAccessNanos = System.nanoTime();
+		}
+
+		void touch() {
+			final long now = System.nanoTime();
+			if (now - lastAccessNanos > TOUCH_GRANULARITY_NANOS) {
+				lastAccessNanos = now;
+			}
+		}
+
+		/**
+		 * 登记使用
+		 * @return false 表示已被淘汰,不能再使用
+		 */
+		boolean acquire() {
+			users.incrementAndGet();
+			if (retired) {
+				afterUse();
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * 标记为已淘汰
+		 * @return true 表示没有调用在使用,需要由调用方归还
+		 */
+		boolean retire() {
+			retired = true;
+			return users.get() == 0 && released.compareAndSet(false, true);
+		}
+
+		/**
+		 * 调用结束时执行,分区已被淘汰时由最后一个调用归还,只归还一次
+		 */
+		void afterUse() {
+			if (users.decrementAndGet() == 0 && retired && released.compareAndSet(false, true)) {
+				holder.release();
+			}
+		}
+
+	}
+
+}
@@ -16,13 +16,16 @@
 
 package com.power4j.kit.seq.persistent;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Clock;
+import java.time.temporal.ChronoUnit;
 import java.util.function.Supplier;
 
 /**
  * 预置动态分区方法
+ * <p>
+ * 使用系统时钟和默认时区,分区值会被缓存,只有跨越分区边界时才重新计算,修改默认时区从下一个分区开始生效. 需要指定时钟或时区时使用
+ * {@link ClockPartitioner}
+ * </p>
  *
  * @author CJ (power4j@outlook.com)
  * @date 2020/7/5
@@ -33,16 +36,16 @@ public interface Partitions {
 	/**
 	 * 按年份分区
 	 */
-	Supplier<String> ANNUALLY = () -> LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy"));
+	Supplier<String> ANNUALLY = ClockPartitioner.ofSystemZone(Clock.systemUTC(), ChronoUnit.YEARS, "yyyy");
 
 	/**
 	 * 按月份分区
 	 */
-	Supplier<String> MONTHLY = () -> LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+	Supplier<String> MONTHLY = ClockPartitioner.ofSystemZone(Clock.systemUTC(), ChronoUnit.MONTHS, "yyyyMM");
 
 	/**
 	 * 按日期分区
 	 */
-	Supplier<String> DAILY = () -> LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+	Supplier<String> DAILY = ClockPartitioner.ofSystemZone(Clock.systemUTC(), ChronoUnit.DAYS, "yyyyMMdd");
 
 }
@@ -16,28 +16,68 @@
 
 package com.power4j.kit.seq.persistent;
 
+import com.power4j.kit.seq.core.LongRange;
 import com.power4j.kit.seq.core.LongSeqPool;
+import com.power4j.kit.seq.core.LongSequence;
 import com.power4j.kit.seq.core.SeqFormatter;
-import com.power4j.kit.seq.core.Sequence;
 import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.provider.ConcurrencyLimitedSynchronizer;
+import com.power4j.kit.seq.utils.ExecutorUtil;
 
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * 取号器
+ * <p>
+ * 默认所有线程共享同一个号段,取出的序号全局单调递增.通过 {@link Builder#threadLocalBlock(int)}
+ * 可以开启宽松模式:每个线程从号段中切出一小块私有序号,稳定状态下取号只访问线程本地的数据, 序号仍然唯一但不再全局单调递增(同一个线程内依然递增)
+ * </p>
+ * <p>
+ * 当前号段及其分区以不可变对象的形式通过 {@link AtomicReference} 发布,取号只需要一次 volatile 读和一次号池取值,不需要加锁.
+ * 发现号段用完或者分区切换时,同一时刻只有一个线程访问后端(不持有任何锁),其他线程等待它的结果, 使用 {@link #tryNextLong(Duration)}
+ * 等方法可以限制等待时间
+ * </p>
+ * <p>
+ * 通过 {@link Builder#prefetch(double)} 可以开启预取:号段剩余数量低于阈值时,在后台线程中提前拉取下一个号段作为备用,
+ * 当前号段用完时直接切换,取号线程不需要等待后端
+ * </p>
+ * <p>
+ * 不再使用时调用 {@link #close()} 归还未使用的序号,减少重启造成的序号浪费
+ * </p>
  *
  * @author CJ (power4j@outlook.com)
  * @date 2020/7/3
  * @since 1.0
  */
-public class SeqHolder implements Sequence<Long> {
+public class SeqHolder implements LongSequence, AutoCloseable {
 
-	private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+	/**
+	 * 进行中的拉取,为null表示当前没有线程在访问后端
+	 */
+	private final AtomicReference<CompletableFuture<Segment>> refillRef = new AtomicReference<>();
 
 	private final SeqSynchronizer seqSynchronizer;
 
@@ -47,15 +87,72 @@ public class SeqHolder implements Sequence<Long> {
 
 	private final long initValue;
 
-	private final int poolSize;
+	private final FetchSizePolicy fetchSizePolicy;
 
 	private final SeqFormatter seqFormatter;
 
+	/**
+	 * 宽松模式下每个线程私有的序号块,为null表示未开启
+	 */
+	private final ThreadLocal<LocalBlock> localBlock;
+
+	private final int localBlockSize;
+
 	private final AtomicLong pollCount = new AtomicLong();
 
-	private final AtomicReference<String> currentPartitionValueRef = new AtomicReference<>();
+	private final AtomicReference<Segment> segmentRef = new AtomicReference<>();
+
+	/**
+	 * 预取阈值,小于等于0表示不预取
+	 */
+	private final double prefetchThreshold;
+
+	private final Executor prefetchExecutor;
+
+	/**
+	 * 异步取号时执行拉取的线程池,为null时使用共享线程池
+	 */
+	private final Executor asyncExecutor;
+
+	/**
+	 * 异步取号时使用的同步器,可以为null
+	 */
+	private final AsyncSeqSynchronizer asyncSynchronizer;
+
+	/**
+	 * 备用号段(可能还在拉取中)
+	 */
+	private final AtomicReference<Prefetch> standbyRef = new AtomicReference<>();
+
+	/**
+	 * 提前准备的下一个分区的号段(可能还在拉取中)
+	 */
+	private final AtomicReference<Prefetch> rolloverRef = new AtomicReference<>();
+
+	/**
+	 * 分区切换前最后使用的号段,用于服务分区切换时仍在使用旧分区的调用
+	 */
+	private final AtomicReference<Segment> retiredRef = new AtomicReference<>();
+
+	/**
+	 * 提前准备下一个分区的时间,小于等于0表示关闭
+	 */
+	private final long rolloverLeadMillis;
 
-	private volatile LongSeqPool seqPool;
+	/**
+	 * 已经安排了提前准备的分区边界
+	 */
+	private final AtomicLong rolloverBoundary = new AtomicLong();
+
+	/**
+	 * 已经安排的提前准备任务
+	 */
+	private final AtomicReference<ScheduledFuture<?>> rolloverTask = new AtomicReference<>();
+
+	/**
+	 * 关闭后不再在后台预取和提前准备
+	 */
+	private volatile boolean closed;
 
 	/**
 	 * 构造方法
@@ -68,12 +165,8 @@ public class SeqHolder implements Sequence<Long> {
 	 */
 	public SeqHolder(SeqSynchronizer seqSynchronizer, String name, Supplier<String> partitionFunc, long initValue,
 			int poolSize, SeqFormatter seqFormatter) {
-		this.seqSynchronizer = Objects.requireNonNull(seqSynchronizer);
-		this.name = Objects.requireNonNull(name);
-		this.partitionFunc = Objects.requireNonNull(partitionFunc);
-		this.initValue = initValue;
-		this.poolSize = poolSize;
-		this.seqFormatter = seqFormatter == null ? SeqFormatter.DEFAULT_FORMAT : seqFormatter;
+		this(builder().synchronizer(seqSynchronizer).name(name).partitionFunc(partitionFunc).initValue(initValue)
+				.poolSize(poolSize).seqFormatter(seqFormatter));
 	}
 
 	/**
@@ -90,59 +183,349 @@ public class SeqHolder implements Sequence<Long> {
 		this(seqSynchronizer, name, () -> partition, initValue, poolSize, seqFormatter);
 	}
 
+	private SeqHolder(Builder builder) {
+		this.seqSynchronizer = Objects.requireNonNull(builder.synchronizer);
+		this.name = Objects.requireNonNull(builder.name);
+		this.partitionFunc = Objects.requireNonNull(builder.partitionFunc);
+		this.initValue = builder.initValue;
+		this.fetchSizePolicy = builder.fetchSizePolicy == null ? FetchSizePolicy.fixed(builder.poolSize)
+				: builder.fetchSizePolicy;
+		this.seqFormatter = builder.seqFormatter == null ? SeqFormatter.DEFAULT_FORMAT : builder.seqFormatter;
+		this.localBlockSize = builder.localBlockSize;
+		this.localBlock = builder.localBlockSize > 0 ? ThreadLocal.withInitial(LocalBlock::new) : null;
+		this.prefetchThreshold = builder.prefetchThreshold;
+		this.rolloverLeadMillis = builder.rolloverLead == null ? 0L : builder.rolloverLead.toMillis();
+		if (rolloverLeadMillis > 0 && !(partitionFunc instanceof ClockPartitioner)) {
+			throw new IllegalArgumentException("Rollover requires a ClockPartitioner");
+		}
+		final Executor defaultExecutor = builder.virtualThreads
+				? ExecutorUtil.virtualThreadExecutor().orElseGet(ExecutorUtil::sharedPrefetchExecutor)
+				: ExecutorUtil.sharedPrefetchExecutor();
+		this.asyncExecutor = builder.asyncExecutor != null || !builder.virtualThreads ? builder.asyncExecutor
+				: defaultExecutor;
+		this.asyncSynchronizer = builder.asyncSynchronizer;
+		this.prefetchExecutor = builder.prefetchExecutor != null
+				|| (builder.prefetchThreshold <= 0 && rolloverLeadMillis <= 0) ? builder.prefetchExecutor
+						: defaultExecutor;
+	}
+
 	@Override
 	public String getName() {
-		rwLock.readLock().lock();
-		try {
-			return seqPool == null ? name : seqPool.getName();
-		}
-		finally {
-			rwLock.readLock().unlock();
-		}
+		final Segment segment = segmentRef.get();
+		return segment == null ? name : segment.pool.getName();
 	}
 
 	@Override
 	public Optional<Long> nextOpt() {
-		final String nextPartitionValue = computePartitionValue();
-		Optional<Long> val;
-		rwLock.readLock().lock();
-		try {
-			if (nextPartitionValue.equals(currentPartitionValueRef.get())) {
-				val = (seqPool == null ? Optional.empty() : seqPool.nextOpt());
-				if (val.isPresent()) {
-					return val;
-				}
-			}
-		}
-		finally {
-			rwLock.readLock().unlock();
-		}
-		return pull(nextPartitionValue);
+		final long val = take(computePartitionValue());
+		return Optional.ofNullable(NO_VALUE == val ? null : val);
 	}
 
 	@Override
 	public Long next() {
-		return nextOpt().get();
+		return nextLong();
+	}
+
+	@Override
+	public long nextLong() throws SeqException {
+		return takeOrThrow(computePartitionValue());
+	}
+
+	@Override
+	public long tryNextLong() {
+		return take(computePartitionValue());
+	}
+
+	/**
+	 * 限时取值
+	 * <p>
+	 * 需要等待其他线程拉取号段时,最多等待 {@code timeout}. 如果由当前线程负责拉取,等待时间取决于后端自身的超时设置
+	 * </p>
+	 * @param timeout 超时时间
+	 * @return 超时或者无法获得序号返回 {@link #NO_VALUE}
+	 */
+	public long tryNextLong(Duration timeout) {
+		return take(computePartitionValue(), true, System.nanoTime() + TimeUnit.NANOSECONDS.convert(timeout));
+	}
+
+	/**
+	 * 限时取值
+	 * @param timeout 超时时间
+	 * @return 超时或者无法获得序号返回 {@code Optional.empty()}
+	 * @see #tryNextLong(Duration)
+	 */
+	public Optional<Long> nextOpt(Duration timeout) {
+		final long val = tryNextLong(timeout);
+		return Optional.ofNullable(NO_VALUE == val ? null : val);
+	}
+
+	/**
+	 * 异步取值
+	 * <p>
+	 * 号段中有可用的序号时直接返回已完成的结果,不切换线程; 否则通过 {@code asyncSynchronizer} 拉取号段,没有设置时在
+	 * {@code asyncExecutor} 中拉取, 调用线程不会被阻塞. 其他线程正在拉取或者备用号段还在准备中时,等待它完成后再取值,不占用线程池
+	 * </p>
+	 * @return 无法获得序号时以 {@link SeqException} 异常结束
+	 */
+	@Override
+	public CompletableFuture<Long> nextAsync() {
+		return takeAsync(computePartitionValue());
+	}
+
+	/**
+	 * 异步返回经过格式化后字符串
+	 * @return 无法获得序号时以 {@link SeqException} 异常结束
+	 * @see #nextAsync()
+	 */
+	@Override
+	public CompletableFuture<String> nextStrAsync() {
+		final String partitionValue = computePartitionValue();
+		final long val = poll(partitionValue);
+		if (NO_VALUE != val) {
+			return CompletableFuture.completedFuture(seqFormatter.format(name, partitionValue, val));
+		}
+		return takeAsync(partitionValue).thenApply(o -> seqFormatter.format(name, partitionValue, o));
+	}
+
+	/**
+	 * 取值,同时返回序号所属的分区.分区和序号是同一次取号的结果,不受分区切换影响
+	 * @return
+	 * @throws SeqException 无法获得序号抛出异常
+	 */
+	public SeqValue nextWithPartition() throws SeqException {
+		final String partitionValue = computePartitionValue();
+		return SeqValue.of(partitionValue, takeOrThrow(partitionValue));
 	}
 
 	@Override
 	public Optional<String> nextStrOpt() throws SeqException {
-		return nextOpt().map(n -> seqFormatter.format(name, currentPartitionValueRef.get(), n));
+		final String partitionValue = computePartitionValue();
+		final long val = take(partitionValue);
+		return NO_VALUE == val ? Optional.empty() : Optional.of(seqFormatter.format(name, partitionValue, val));
+	}
+
+	@Override
+	public String nextStr() throws SeqException {
+		final String partitionValue = computePartitionValue();
+		return seqFormatter.format(name, partitionValue, takeOrThrow(partitionValue));
+	}
+
+	/**
+	 * 取值并将格式化结果追加到 {@code builder},不创建中间字符串
+	 * @param builder
+	 * @throws SeqException 无法获得序号抛出异常
+	 * @see SeqFormatter#formatTo(String, String, long, StringBuilder)
+	 */
+	public void appendNext(StringBuilder builder) throws SeqException {
+		final String partitionValue = computePartitionValue();
+		seqFormatter.formatTo(name, partitionValue, takeOrThrow(partitionValue), builder);
+	}
+
+	/**
+	 * 取值并将格式化结果写入 {@code dst}
+	 * @param dst
+	 * @param offset 写入位置
+	 * @return 写入的字符数
+	 * @throws SeqException 无法获得序号抛出异常
+	 * @see SeqFormatter#formatTo(String, String, long, char[], int)
+	 */
+	public int writeNext(char[] dst, int offset) throws SeqException {
+		final String partitionValue = computePartitionValue();
+		return seqFormatter.formatTo(name, partitionValue, takeOrThrow(partitionValue), dst, offset);
+	}
+
+	/**
+	 * 取值并将格式化结果以 UTF-8 编码写入 {@code dst}
+	 * @param dst
+	 * @return 写入的字节数
+	 * @throws SeqException 无法获得序号抛出异常
+	 * @see SeqFormatter#formatTo(String, String, long, ByteBuffer)
+	 */
+	public int writeNext(ByteBuffer dst) throws SeqException {
+		final String partitionValue = computePartitionValue();
+		return seqFormatter.formatTo(name, partitionValue, takeOrThrow(partitionValue), dst);
+	}
+
+	/**
+	 * 是否开启了宽松模式
+	 * @return true 表示每个线程使用私有的序号块,序号不保证全局单调递增
+	 * @see Builder#threadLocalBlock(int)
+	 */
+	public boolean isRelaxedOrdering() {
+		return localBlock != null;
+	}
+
+	/**
+	 * 批量取值
+	 * <p>
+	 * 优先使用当前号段的剩余序号,不足的部分通过一次后端拉取补齐,因此没有竞争时整个批次最多访问一次后端
+	 * </p>
+	 * @param size 数量,必须大于0
+	 * @return 返回一个或多个连续区间(按取得的先后排列),所有区间的数量之和等于 {@code size}
+	 * @throws IllegalArgumentException size 无效
+	 */
+	public List<LongRange> nextBatch(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Bad size: " + size);
+		}
+		final String nextPartitionValue = computePartitionValue();
+		final List<LongRange> ranges = new ArrayList<>(2);
+		long taken = 0L;
+		final Segment segment = segmentRef.get();
+		if (segment != null && segment.matches(nextPartitionValue)) {
+			Optional<LongRange> range = segment.pool.nextBatch(size);
+			if (range.isPresent()) {
+				ranges.add(range.get());
+				taken = range.get().size();
+				checkPrefetch(segment, range.get());
+			}
+		}
+		if (taken < size) {
+			pullBatch(nextPartitionValue, (int) (size - taken), segment, ranges);
+		}
+		return ranges;
+	}
+
+	/**
+	 * 直接从后端拉取一个独立的号段
+	 * <p>
+	 * 号段不经过共享号段,数量也不受拉取策略影响,由调用方自行消费. 未使用的部分可以通过 {@link #release(SeqSegment, long)} 归还
+	 * </p>
+	 * @param size 数量,必须大于0
+	 * @return 当前分区的号段
+	 * @throws IllegalArgumentException size 无效
+	 */
+	public SeqSegment fetchSegment(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Bad size: " + size);
+		}
+		final String partitionValue = computePartitionValue();
+		pollCount.incrementAndGet();
+		final AddState state = seqSynchronizer.tryAllocate(name, partitionValue, size, initValue);
+		if (!state.isSuccess()) {
+			throw new SeqException("Fetch failed: " + name + "/" + partitionValue);
+		}
+		return SeqSegment.of(partitionValue,
+				LongRange.of(state.getPrevious(), state.getCurrent() - state.getPrevious()));
+	}
+
+	/**
+	 * 归还独立号段中未使用的部分 {@code [next, last]}.如果后端已经被其他调用推进,则放弃归还
+	 * @param segment 通过 {@link #fetchSegment(int)} 获得的号段
+	 * @param next 第一个未使用的序号
+	 * @return 归还的序号数量
+	 * @throws IllegalArgumentException next 小于号段的起始值
+	 */
+	public long release(SeqSegment segment, long next) {
+		if (next < segment.getRange().getFrom()) {
+			throw new IllegalArgumentException("Bad next: " + next);
+		}
+		final long last = segment.getRange().getLast();
+		if (next > last || last == Long.MAX_VALUE) {
+			return 0L;
+		}
+		return giveBack(segment.getPartition(), next, last);
+	}
+
+	/**
+	 * 按照当前的格式化设置输出
+	 * @param partitionValue 分区
+	 * @param value 序号
+	 * @return 格式化结果
+	 */
+	String format(String partitionValue, long value) {
+		return seqFormatter.format(name, partitionValue, value);
 	}
 
 	/**
 	 * 默认的初始化是懒加载,执行此方法可以手动初始化
 	 */
 	public void prepare() {
-		rwLock.writeLock().lock();
-		try {
-			if (seqPool == null) {
-				seqPool = fetch(computePartitionValue());
+		if (segmentRef.get() == null) {
+			refill(computePartitionValue(), 1, null, false, 0L, null);
+		}
+	}
+
+	/**
+	 * 批量初始化,效果与逐个执行 {@link #prepare()} 相同. 同步器和初始值都相同的取号器通过一次
+	 * {@link SeqSynchronizer#tryAllocateAll} 调用创建记录并拉取第一个号段
+	 * @param holders 取号器,已经初始化的会被跳过
+	 */
+	public static void prepareAll(Collection<SeqHolder> holders) {
+		final Map<SeqSynchronizer, Map<Long, List<SeqHolder>>> groups = new IdentityHashMap<>();
+		for (SeqHolder holder : holders) {
+			if (holder.segmentRef.get() == null) {
+				groups.computeIfAbsent(holder.seqSynchronizer, o -> new HashMap<>(4))
+						.computeIfAbsent(holder.initValue, o -> new ArrayList<>()).add(holder);
 			}
 		}
-		finally {
-			rwLock.writeLock().unlock();
+		groups.forEach((synchronizer, byInitValue) -> byInitValue.forEach((initValue, group) -> {
+			final List<AddRequest> requests = new ArrayList<>(group.size());
+			for (SeqHolder holder : group) {
+				requests.add(AddRequest.of(holder.name, holder.computePartitionValue(),
+						holder.fetchSizePolicy.nextFetchSize()));
+			}
+			final List<AddState> states = synchronizer.tryAllocateAll(requests, initValue);
+			for (int i = 0; i < group.size(); ++i) {
+				group.get(i).prepared(requests.get(i).getPartition(), states.get(i));
+			}
+		}));
+	}
+
+	/**
+	 * 发布批量初始化拉取的号段,其他线程已经拉取了号段时归还
+	 */
+	private void prepared(String partitionValue, AddState state) {
+		pollCount.incrementAndGet();
+		final Segment segment = newSegment(partitionValue, state.getPrevious(), state.getCurrent() - 1);
+		if (refillRef.get() == null && segmentRef.compareAndSet(null, segment)) {
+			if (rolloverLeadMillis > 0) {
+				scheduleRollover();
+			}
+			return;
 		}
+		giveBack(partitionValue, state.getPrevious(), state.getCurrent() - 1);
+	}
+
+	/**
+	 * 归还未使用的序号
+	 * <p>
+	 * 取出当前号段以及已经就绪的备用号段中剩余的序号,如果后端记录的值仍然等于号段的结束值(说明这期间没有其他实例拉取),则通过
+	 * {@link SeqSynchronizer#tryUpdate(String, String, long, long)}
+	 * 把它改回剩余部分的起始值,否则这些序号被丢弃. 宽松模式下线程私有序号块中的序号不会被归还
+	 * </p>
+	 * <p>
+	 * 归还后仍然可以继续取号,此时会重新拉取
+	 * </p>
+	 * @return 归还的序号数量
+	 */
+	public long release() {
+		long released = releaseStandby(rolloverRef);
+		// 备用号段在当前号段之后拉取,需要先归还
+		released += releaseStandby(standbyRef);
+		released += releaseSegment(segmentRef.getAndSet(null));
+		released += releaseSegment(retiredRef.getAndSet(null));
+		return released;
+	}
+
+	/**
+	 * 取消后台的预取和提前准备,然后归还未使用的序号. 关闭后仍然可以取号,此时只会同步拉取
+	 * @see #release()
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		cancelRollover();
+		release();
+	}
+
+	/**
+	 * 当前的拉取数量
+	 * @return
+	 * @see FetchSizePolicy#currentFetchSize()
+	 */
+	public int getFetchSize() {
+		return fetchSizePolicy.currentFetchSize();
 	}
 
 	/**
@@ -153,41 +536,660 @@ public class SeqHolder implements Sequence<Long> {
 		return pollCount.get();
 	}
 
-	private Optional<Long> pull(String partitionValue) {
-		Optional<Long> val;
-		rwLock.writeLock().lock();
+	private long takeOrThrow(String partitionValue) throws SeqException {
+		final long val = take(partitionValue);
+		if (NO_VALUE == val) {
+			throw new SeqException("Nothing to offer");
+		}
+		return val;
+	}
+
+	private long take(String partitionValue) {
+		return take(partitionValue, false, 0L);
+	}
+
+	/**
+	 * 只从已有的序号中取值,不访问后端
+	 * @param partitionValue 分区
+	 * @return 没有可用的序号返回 {@link #NO_VALUE}
+	 */
+	private long poll(String partitionValue) {
+		if (localBlock != null) {
+			final LocalBlock block = localBlock.get();
+			if (block.remaining > 0L && partitionValue.equals(block.partition)) {
+				--block.remaining;
+				return block.next++;
+			}
+		}
+		final Segment segment = segmentRef.get();
+		if (segment != null && segment.matches(partitionValue)) {
+			final long val = segment.pool.take(NO_VALUE);
+			// 未开启预取时 prefetchAt 也是 NO_VALUE
+			if (NO_VALUE != val && val == segment.prefetchAt) {
+				prefetch(segment);
+			}
+			return val;
+		}
+		final Segment retired = retiredRef.get();
+		if (segment != null && retired != null && retired.matches(partitionValue)) {
+			return retired.pool.take(NO_VALUE);
+		}
+		return NO_VALUE;
+	}
+
+	private CompletableFuture<Long> takeAsync(String partitionValue) {
+		final long val = poll(partitionValue);
+		if (NO_VALUE != val) {
+			return CompletableFuture.completedFuture(val);
+		}
+		final CompletableFuture<Segment> inflight = refillRef.get();
+		if (inflight == null) {
+			return refillAsync(partitionValue);
+		}
+		if (inflight.isDone() && !inflight.isCompletedExceptionally()) {
+			// 拉取已经结束但还未清除,经过线程池重试,避免在调用线程中空转
+			return retryAsync(partitionValue);
+		}
+		return inflight.handle((segment, e) -> e).thenCompose(e -> {
+			if (e != null) {
+				final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+				return failed(new SeqException("Refill failed: " + cause.getMessage(), cause));
+			}
+			return takeAsync(partitionValue);
+		});
+	}
+
+	private CompletableFuture<Long> retryAsync(String partitionValue) {
+		try {
+			return CompletableFuture.runAsync(() -> {
+			}, resolveAsyncExecutor()).thenCompose(o -> takeAsync(partitionValue));
+		}
+		catch (RejectedExecutionException e) {
+			return failed(new SeqException("Async refill rejected", e));
+		}
+	}
+
+	private Executor resolveAsyncExecutor() {
+		return asyncExecutor != null ? asyncExecutor : ExecutorUtil.sharedPrefetchExecutor();
+	}
+
+	/**
+	 * 异步拉取号段,与 {@link #refill} 共用同一个进行中的拉取,因此同步取号的线程也会等待它的结果. 整个过程不会在线程池中阻塞等待其他任务,
+	 * 与预取共用有界线程池时也不会死锁
+	 */
+	private CompletableFuture<Long> refillAsync(String partitionValue) {
+		final Segment seen = segmentRef.get();
+		final CompletableFuture<Segment> mine = new CompletableFuture<>();
+		if (!refillRef.compareAndSet(null, mine)) {
+			// 其他拉取刚刚开始,等待它的结果
+			return takeAsync(partitionValue);
+		}
+		if (segmentRef.get() != seen) {
+			mine.complete(segmentRef.get());
+			refillRef.compareAndSet(mine, null);
+			return takeAsync(partitionValue);
+		}
+		final long[] reserved = { NO_VALUE };
+		final CompletableFuture<Segment> fetched;
+		try {
+			fetched = nextSegmentAsync(partitionValue);
+		}
+		catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			refillRef.compareAndSet(mine, null);
+			return failed(e);
+		}
+		fetched.whenComplete((segment, e) -> {
+			if (e != null) {
+				mine.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+			}
+			else {
+				reserved[0] = segment.pool.take(NO_VALUE);
+				publish(segment);
+				mine.complete(segment);
+			}
+			refillRef.compareAndSet(mine, null);
+		});
+		return mine.thenCompose(segment -> {
+			if (NO_VALUE == reserved[0]) {
+				return takeAsync(partitionValue);
+			}
+			if (reserved[0] == segment.prefetchAt) {
+				prefetch(segment);
+			}
+			return CompletableFuture.completedFuture(reserved[0]);
+		});
+	}
+
+	/**
+	 * 取得下一个号段,与 {@link #refill} 的顺序相同:先取备用号段,再取提前准备的号段,都没有时拉取. 备用号段还在准备中时组合它的结果,不阻塞线程
+	 */
+	private CompletableFuture<Segment> nextSegmentAsync(String partitionValue) {
+		return standbyAsync(standbyRef, partitionValue)
+				.thenCompose(segment -> segment != null ? CompletableFuture.completedFuture(segment)
+						: standbyAsync(rolloverRef, partitionValue))
+				.thenCompose(segment -> segment != null ? CompletableFuture.completedFuture(segment)
+						: fetchAsync(partitionValue));
+	}
+
+	/**
+	 * 取出备用号段,参考 {@link #takeStandby}
+	 * @return 没有可用的号段(包括准备失败)时以null结束
+	 */
+	private static CompletableFuture<Segment> standbyAsync(AtomicReference<Prefetch> ref, String partitionValue) {
+		final Prefetch standby = ref.get();
+		if (standby == null || !standby.partition.equals(partitionValue) || !ref.compareAndSet(standby, null)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return standby.future.handle((segment, e) -> e == null ? segment : null);
+	}
+
+	/**
+	 * 通过 {@code asyncSynchronizer} 拉取号段,没有设置时在 {@code asyncExecutor} 中同步拉取
+	 */
+	private CompletableFuture<Segment> fetchAsync(String partitionValue) {
+		if (asyncSynchronizer == null) {
+			try {
+				return CompletableFuture.supplyAsync(() -> fetch(partitionValue, 1), resolveAsyncExecutor());
+			}
+			catch (RejectedExecutionException e) {
+				return failed(new SeqException("Async refill rejected", e));
+			}
+		}
+		final int size = fetchSizePolicy.nextFetchSize();
+		pollCount.incrementAndGet();
+		return asyncSynchronizer.tryAllocate(name, partitionValue, size, initValue).thenApply(state -> {
+			if (!state.isSuccess()) {
+				throw new SeqException("Fetch failed: " + name + "/" + partitionValue);
+			}
+			return newSegment(partitionValue, state.getPrevious(), state.getCurrent() - 1);
+		}).toCompletableFuture();
+	}
+
+	private static <T> CompletableFuture<T> failed(Throwable e) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(e);
+		return future;
+	}
+
+	/**
+	 * 取值
+	 * @param partitionValue 分区,返回的序号一定属于这个分区
+	 * @param timed 是否限时等待
+	 * @param deadline 等待截止时间,参考 {@link System#nanoTime()}
+	 * @return 无法获得序号或者等待超时返回 {@link #NO_VALUE}
+	 */
+	private long take(String partitionValue, boolean timed, long deadline) {
+		if (localBlock != null) {
+			return takeLocal(localBlock.get(), partitionValue, timed, deadline);
+		}
+		final long[] reserved = { NO_VALUE };
+		Segment segment = segmentRef.get();
+		while (true) {
+			if (segment != null && segment.matches(partitionValue)) {
+				final long val = segment.pool.take(NO_VALUE);
+				if (NO_VALUE != val) {
+					if (val == segment.prefetchAt) {
+						prefetch(segment);
+					}
+					return val;
+				}
+			}
+			else if (segment != null) {
+				final Segment retired = retiredRef.get();
+				if (retired != null && retired.matches(partitionValue)) {
+					final long val = retired.pool.take(NO_VALUE);
+					if (NO_VALUE != val) {
+						return val;
+					}
+				}
+			}
+			segment = refill(partitionValue, 1, segment, timed, deadline,
+					fetched -> reserved[0] = fetched.pool.take(NO_VALUE));
+			if (segment == null) {
+				return NO_VALUE;
+			}
+			if (NO_VALUE != reserved[0]) {
+				if (reserved[0] == segment.prefetchAt) {
+					prefetch(segment);
+				}
+				return reserved[0];
+			}
+		}
+	}
+
+	/**
+	 * 从线程私有的序号块取值,序号块用完后从共享号段中切出新的一块
+	 * @param block 当前线程的序号块
+	 * @param partitionValue 分区
+	 * @param timed 是否限时等待
+	 * @param deadline 等待截止时间
+	 * @return 序号,等待超时返回 {@link #NO_VALUE}
+	 */
+	private long takeLocal(LocalBlock block, String partitionValue, boolean timed, long deadline) {
+		if (block.remaining <= 0L || !partitionValue.equals(block.partition)) {
+			LongRange range = nextBlock(partitionValue, localBlockSize, timed, deadline);
+			if (range == null) {
+				return NO_VALUE;
+			}
+			block.partition = partitionValue;
+			block.next = range.getFrom();
+			block.remaining = range.size();
+		}
+		--block.remaining;
+		return block.next++;
+	}
+
+	/**
+	 * 从共享号段中切出一块,号段剩余数量不足时只返回剩余部分
+	 * @param partitionValue 分区
+	 * @param size 期望数量
+	 * @param timed 是否限时等待
+	 * @param deadline 等待截止时间
+	 * @return 序号区间,等待超时返回null
+	 */
+	private LongRange nextBlock(String partitionValue, int size, boolean timed, long deadline) {
+		final LongRange[] reserved = new LongRange[1];
+		Segment segment = segmentRef.get();
+		while (true) {
+			if (segment != null && segment.matches(partitionValue)) {
+				Optional<LongRange> range = segment.pool.nextBatch(size);
+				if (range.isPresent()) {
+					checkPrefetch(segment, range.get());
+					return range.get();
+				}
+			}
+			else if (segment != null) {
+				final Segment retired = retiredRef.get();
+				if (retired != null && retired.matches(partitionValue)) {
+					Optional<LongRange> range = retired.pool.nextBatch(size);
+					if (range.isPresent()) {
+						return range.get();
+					}
+				}
+			}
+			segment = refill(partitionValue, size, segment, timed, deadline,
+					fetched -> reserved[0] = fetched.pool.nextBatch(size).orElse(null));
+			if (segment == null) {
+				return null;
+			}
+			if (reserved[0] != null) {
+				checkPrefetch(segment, reserved[0]);
+				return reserved[0];
+			}
+		}
+	}
+
+	private void pullBatch(String partitionValue, int size, Segment seen, List<LongRange> ranges) {
+		final LongRange[] reserved = new LongRange[1];
+		long remaining = size;
+		Segment segment = seen;
+		while (remaining > 0) {
+			// 一次拉取足够的数量,多出的部分留给后续取号
+			final int need = (int) remaining;
+			reserved[0] = null;
+			segment = refill(partitionValue, need, segment, false, 0L,
+					fetched -> reserved[0] = fetched.pool.nextBatch(need).orElse(null));
+			Optional<LongRange> range = Optional.ofNullable(reserved[0]);
+			if (!range.isPresent() && segment.matches(partitionValue)) {
+				range = segment.pool.nextBatch(need);
+			}
+			if (range.isPresent()) {
+				ranges.add(range.get());
+				remaining -= range.get().size();
+				checkPrefetch(segment, range.get());
+			}
+		}
+	}
+
+	/**
+	 * 拉取新号段
+	 * <p>
+	 * 同一时刻只有一个线程访问后端,访问期间不持有任何锁,其他线程等待它的结果. 访问后端失败时,等待的线程会收到包装了原始异常的 {@link SeqException}
+	 * </p>
+	 * @param partitionValue 分区
+	 * @param required 至少需要拉取的数量
+	 * @param seen 调用方看到的号段.如果当前号段已经不是它,说明其他线程刚刚完成了拉取,直接返回当前号段
+	 * @param timed 是否限时等待
+	 * @param deadline 等待截止时间
+	 * @param beforePublish 由执行拉取的线程在发布新号段之前调用,用于优先满足自身的需求,可以为null
+	 * @return 当前号段,等待超时返回null.不限时等待时不会返回null
+	 */
+	private Segment refill(String partitionValue, int required, Segment seen, boolean timed, long deadline,
+			Consumer<Segment> beforePublish) {
+		while (true) {
+			final Segment current = segmentRef.get();
+			if (current != seen) {
+				if (current != null) {
+					return current;
+				}
+				// 号段已经被 release() 取走,重新拉取
+				seen = null;
+				continue;
+			}
+			final CompletableFuture<Segment> inflight = refillRef.get();
+			if (inflight != null) {
+				if (!await(inflight, timed, deadline)) {
+					return null;
+				}
+				// 旧分区的号段不会成为当前号段,直接交给调用方
+				final Segment done = inflight.join();
+				if (done != null && done != seen && done.matches(partitionValue)) {
+					return done;
+				}
+				continue;
+			}
+			if (timed && deadline - System.nanoTime() <= 0L) {
+				return null;
+			}
+			final CompletableFuture<Segment> mine = new CompletableFuture<>();
+			if (!refillRef.compareAndSet(null, mine)) {
+				continue;
+			}
+			try {
+				// 检查与抢占之间,上一次拉取可能刚好完成,号段也可能刚好被归还
+				Segment segment = segmentRef.get();
+				if (segment == seen || segment == null) {
+					try {
+						segment = takeStandby(standbyRef, partitionValue, timed, deadline);
+						if (segment == null) {
+							segment = takeStandby(rolloverRef, partitionValue, timed, deadline);
+						}
+					}
+					catch (TimeoutException e) {
+						mine.complete(seen);
+						return null;
+					}
+					if (segment == null) {
+						segment = fetch(partitionValue, required);
+					}
+					if (beforePublish != null) {
+						beforePublish.accept(segment);
+					}
+					publish(segment);
+				}
+				mine.complete(segment);
+				return segment;
+			}
+			catch (Throwable e) {
+				mine.completeExceptionally(e);
+				throw e;
+			}
+			finally {
+				refillRef.compareAndSet(mine, null);
+			}
+		}
+	}
+
+	/**
+	 * 取出已经准备好的号段
+	 * @param ref 备用号段
+	 * @param partitionValue 分区,只会取出这个分区的号段
+	 * @param timed 是否限时等待
+	 * @param deadline 等待截止时间
+	 * @return 没有可用的号段(包括准备失败)返回null
+	 * @throws TimeoutException 号段还在拉取中,等待超时.此时号段会被放回,留给后续的拉取
+	 */
+	private static Segment takeStandby(AtomicReference<Prefetch> ref, String partitionValue, boolean timed,
+			long deadline) throws TimeoutException {
+		final Prefetch standby = ref.get();
+		if (standby == null || !standby.partition.equals(partitionValue) || !ref.compareAndSet(standby, null)) {
+			return null;
+		}
+		if (!awaitDone(standby.future, timed, deadline)) {
+			ref.compareAndSet(null, standby);
+			throw new TimeoutException();
+		}
+		// 准备失败时由调用方同步拉取
+		return standby.future.isCompletedExceptionally() ? null : standby.future.join();
+	}
+
+	private long releaseStandby(AtomicReference<Prefetch> ref) {
+		final Prefetch standby = ref.getAndSet(null);
+		if (standby == null || !standby.future.isDone() || standby.future.isCompletedExceptionally()) {
+			return 0L;
+		}
+		return releaseSegment(standby.future.join());
+	}
+
+	private long releaseSegment(Segment segment) {
+		if (segment == null) {
+			return 0L;
+		}
+		final long end = segment.pool.maxValue();
+		final long remaining = segment.pool.remaining();
+		if (remaining <= 0L || end == Long.MAX_VALUE) {
+			return 0L;
+		}
+		final Optional<LongRange> tail = segment.pool.nextBatch((int) Math.min(Integer.MAX_VALUE, remaining));
+		if (!tail.isPresent() || tail.get().getLast() != end) {
+			return 0L;
+		}
+		return giveBack(segment.partition, tail.get().getFrom(), end);
+	}
+
+	/**
+	 * 把 {@code [from, end]} 还给后端,只有后端记录仍然是 {@code end + 1} 时才会成功
+	 * @return 归还的序号数量
+	 */
+	private long giveBack(String partitionValue, long from, long end) {
+		try {
+			if (seqSynchronizer.tryUpdate(name, partitionValue, end + 1, from)) {
+				return end - from + 1;
+			}
+		}
+		catch (UnsupportedOperationException e) {
+			// 后端不支持,直接丢弃
+		}
+		return 0L;
+	}
+
+	/**
+	 * 发布新号段
+	 * @param segment 号段
+	 */
+	private void publish(Segment segment) {
+		final Segment current = segmentRef.get();
+		final Segment retired = retiredRef.get();
+		if (partitionFunc instanceof ClockPartitioner && current != null && retired != null
+				&& !current.matches(segment.partition) && retired.matches(segment.partition)) {
+			// 时钟分区只会前进,仍在使用旧分区的调用只替换旧号段,避免当前分区被切换回去
+			retiredRef.set(segment);
+			return;
+		}
+		final Segment previous = segmentRef.getAndSet(segment);
+		if (previous != null && !previous.matches(segment.partition)) {
+			retiredRef.set(previous);
+		}
+		if (rolloverLeadMillis > 0) {
+			scheduleRollover();
+		}
+	}
+
+	/**
+	 * 安排在下一个分区边界之前准备号段.为避免所有节点同时访问后端,实际时间在 {@code [边界 - lead, 边界 - lead/2]} 之间随机选择
+	 */
+	private void scheduleRollover() {
+		if (closed) {
+			return;
+		}
+		final ClockPartitioner partitioner = (ClockPartitioner) partitionFunc;
+		final long boundary = partitioner.nextBoundaryMillis();
+		final long scheduled = rolloverBoundary.get();
+		if (scheduled >= boundary || !rolloverBoundary.compareAndSet(scheduled, boundary)) {
+			return;
+		}
+		final long jitter = ThreadLocalRandom.current().nextLong(rolloverLeadMillis / 2 + 1);
+		final long delay = Math.max(0L, boundary - rolloverLeadMillis + jitter - partitioner.getClock().millis());
+		// 不阻止取号器被回收
+		final WeakReference<SeqHolder> holderRef = new WeakReference<>(this);
+		final ScheduledFuture<?> task = ExecutorUtil.sharedScheduler().schedule(() -> {
+			SeqHolder holder = holderRef.get();
+			if (holder != null) {
+				holder.rollover(partitioner.partitionAt(boundary));
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+		final ScheduledFuture<?> previous = rolloverTask.getAndSet(task);
+		if (previous != null) {
+			previous.cancel(false);
+		}
+		if (closed) {
+			// 与 close() 并发
+			cancelRollover();
+		}
+	}
+
+	private void cancelRollover() {
+		final ScheduledFuture<?> task = rolloverTask.getAndSet(null);
+		if (task != null) {
+			task.cancel(false);
+		}
+	}
+
+	/**
+	 * 创建下一个分区的记录并拉取第一个号段
+	 * @param nextPartition 下一个分区
+	 */
+	private void rollover(String nextPartition) {
+		if (closed) {
+			return;
+		}
+		final Segment current = segmentRef.get();
+		final Prefetch existing = rolloverRef.get();
+		if ((current != null && current.matches(nextPartition))
+				|| (existing != null && existing.partition.equals(nextPartition))) {
+			return;
+		}
+		final Prefetch prefetch = new Prefetch(nextPartition);
+		if (!rolloverRef.compareAndSet(existing, prefetch)) {
+			return;
+		}
 		try {
-			if (seqPool == null || !partitionValue.equals(currentPartitionValueRef.get())) {
-				seqPool = fetch(partitionValue);
-			}
-			val = seqPool.nextOpt();
-			if (!val.isPresent()) {
-				val = (seqPool = fetch(partitionValue)).nextOpt();
-				if (!val.isPresent()) {
-					throw new IllegalStateException("Bug detected : " + seqPool.toString());
+			prefetchExecutor.execute(() -> {
+				try {
+					// 提前准备不是消耗引起的拉取,不计入拉取数量的调整
+					prefetch.future.complete(allocate(nextPartition, fetchSizePolicy.currentFetchSize()));
+				}
+				catch (Throwable e) {
+					prefetch.future.completeExceptionally(e);
 				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			// 线程池已满,放弃提前准备,到达边界时同步拉取
+			rolloverRef.compareAndSet(prefetch, null);
+			prefetch.future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * 等待其他线程的拉取结果
+	 * @return false 表示超时或者被中断
+	 */
+	private static boolean await(CompletableFuture<Segment> future, boolean timed, long deadline) {
+		if (!awaitDone(future, timed, deadline)) {
+			return false;
+		}
+		try {
+			future.join();
+			return true;
+		}
+		catch (CompletionException e) {
+			throw new SeqException("Refill failed: " + e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	/**
+	 * 等待任务结束,不关心结果
+	 * @return false 表示超时或者被中断
+	 */
+	private static boolean awaitDone(CompletableFuture<Segment> future, boolean timed, long deadline) {
+		try {
+			if (timed) {
+				future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
 			}
-			return val;
+			else {
+				future.join();
+			}
+		}
+		catch (TimeoutException e) {
+			return false;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch (ExecutionException | CompletionException e) {
+			// 由调用方处理
+		}
+		return true;
+	}
+
+	private void checkPrefetch(Segment segment, LongRange range) {
+		if (NO_VALUE != segment.prefetchAt && range.contains(segment.prefetchAt)) {
+			prefetch(segment);
+		}
+	}
+
+	/**
+	 * 在后台拉取 {@code segment} 所属分区的下一个号段,已有同一分区的备用号段时忽略
+	 * @param segment 当前号段
+	 */
+	private void prefetch(Segment segment) {
+		if (closed) {
+			return;
+		}
+		final Prefetch existing = standbyRef.get();
+		if (existing != null && existing.partition.equals(segment.partition)) {
+			return;
+		}
+		final Prefetch prefetch = new Prefetch(segment.partition);
+		if (!standbyRef.compareAndSet(existing, prefetch)) {
+			return;
 		}
-		finally {
-			rwLock.writeLock().unlock();
+		try {
+			prefetchExecutor.execute(() -> {
+				try {
+					prefetch.future.complete(allocate(segment.partition, fetchSizePolicy.nextFetchSize()));
+				}
+				catch (Throwable e) {
+					prefetch.future.completeExceptionally(e);
+				}
+			});
 		}
+		catch (RejectedExecutionException e) {
+			// 线程池已满,放弃预取,号段用完时同步拉取
+			standbyRef.compareAndSet(prefetch, null);
+			prefetch.future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * 拉取号段,记录不存在时创建
+	 */
+	private Segment fetch(String partitionValue, int required) {
+		return allocate(partitionValue, Math.max(required, fetchSizePolicy.nextFetchSize()));
 	}
 
-	private LongSeqPool fetch(String partitionValue) {
+	/**
+	 * 按指定数量拉取号段,记录不存在时创建,不经过 {@link FetchSizePolicy}
+	 */
+	private Segment allocate(String partitionValue, int size) {
 		pollCount.incrementAndGet();
-		LongSeqPool seqPool;
-		if (seqSynchronizer.tryCreate(name, partitionValue, initValue + poolSize)) {
-			seqPool = LongSeqPool.forRange(makePoolName(name, partitionValue), initValue, initValue + poolSize - 1,
-					false);
+		AddState state = seqSynchronizer.tryAllocate(name, partitionValue, size, initValue);
+		if (!state.isSuccess()) {
+			throw new SeqException("Fetch failed: " + name + "/" + partitionValue);
 		}
-		else {
-			AddState state = seqSynchronizer.tryAddAndGet(name, partitionValue, poolSize, -1);
-			seqPool = LongSeqPool.forRange(makePoolName(name, partitionValue), state.getPrevious(),
-					state.getCurrent() - 1, false);
+		return newSegment(partitionValue, state.getPrevious(), state.getCurrent() - 1);
+	}
+
+	private Segment newSegment(String partitionValue, long min, long max) {
+		final LongSeqPool seqPool = LongSeqPool.padded(makePoolName(name, partitionValue), min, max, false);
+		long prefetchAt = NO_VALUE;
+		if (prefetchThreshold > 0) {
+			prefetchAt = Math.max(min, max - (long) ((max - min + 1) * prefetchThreshold));
 		}
-		currentPartitionValueRef.set(partitionValue);
-		return seqPool;
+		return new Segment(partitionValue, seqPool, prefetchAt);
 	}
 
 	private String makePoolName(String seqName, String window) {
@@ -214,8 +1216,23 @@ public class SeqHolder implements Sequence<Long> {
 
 		private int poolSize = 1;
 
-		private SeqFormatter seqFormatter = ((seqName, partition, value) -> String.format("%s.%s.%08d", seqName,
-				partition, value));
+		private SeqFormatter seqFormatter = SeqFormatter.compile("{name}.{partition}.{seq:08}");
+
+		private int localBlockSize = 0;
+
+		private FetchSizePolicy fetchSizePolicy;
+
+		private double prefetchThreshold = 0;
+
+		private Executor prefetchExecutor;
+
+		private Duration rolloverLead;
+
+		private Executor asyncExecutor;
+
+		private AsyncSeqSynchronizer asyncSynchronizer;
+
+		private boolean virtualThreads;
 
 		public Builder synchronizer(SeqSynchronizer synchronizer) {
 			this.synchronizer = synchronizer;
@@ -242,15 +1259,177 @@ public class SeqHolder implements Sequence<Long> {
 			return this;
 		}
 
+		/**
+		 * 拉取数量策略,设置后 {@link #poolSize(int)} 无效
+		 * @param fetchSizePolicy 策略,每个取号器使用独立的实例
+		 * @return Builder
+		 * @see FetchSizePolicy#adaptive(java.time.Duration, int, int)
+		 */
+		public Builder fetchSizePolicy(FetchSizePolicy fetchSizePolicy) {
+			this.fetchSizePolicy = fetchSizePolicy;
+			return this;
+		}
+
 		public Builder seqFormatter(SeqFormatter seqFormatter) {
 			this.seqFormatter = seqFormatter;
 			return this;
 		}
 
+		/**
+		 * 开启宽松模式:每个线程每次从共享号段中切出 {@code blockSize} 个序号私有使用
+		 * <ul>
+		 * <li>序号依然唯一,但不同线程之间不再保证单调递增</li>
+		 * <li>线程结束或者分区切换时,私有块中未用完的序号会被丢弃</li>
+		 * <li>{@code blockSize} 应远小于 {@code poolSize},否则会频繁访问后端</li>
+		 * <li>不适合虚拟线程:每个虚拟线程都会持有一个私有块,线程结束时丢弃</li>
+		 * </ul>
+		 * @param blockSize 序号块的大小,小于等于0表示关闭(默认)
+		 * @return Builder
+		 */
+		public Builder threadLocalBlock(int blockSize) {
+			this.localBlockSize = blockSize;
+			return this;
+		}
+
+		/**
+		 * 开启预取:号段剩余数量低于 {@code 号段大小 * threshold} 时,在后台线程中拉取下一个号段
+		 * <ul>
+		 * <li>预取的号段会在当前号段用完时启用,取号顺序不受影响</li>
+		 * <li>每个取号器同一时刻最多只有一个备用号段,分区切换时未使用的备用号段会被丢弃</li>
+		 * </ul>
+		 * @param threshold 剩余比例,取值范围 {@code [0,1)},0表示关闭(默认)
+		 * @return Builder
+		 * @throws IllegalArgumentException threshold 无效
+		 */
+		public Builder prefetch(double threshold) {
+			if (threshold < 0 || threshold >= 1) {
+				throw new IllegalArgumentException("Bad prefetch threshold: " + threshold);
+			}
+			this.prefetchThreshold = threshold;
+			return this;
+		}
+
+		/**
+		 * 预取使用的线程池,默认使用所有取号器共享的 {@link ExecutorUtil#sharedPrefetchExecutor()}
+		 * @param executor 线程池,应当是有界的
+		 * @return Builder
+		 */
+		public Builder prefetchExecutor(Executor executor) {
+			this.prefetchExecutor = executor;
+			return this;
+		}
+
+		/**
+		 * 开启分区切换准备:在分区边界之前 {@code lead} 时间内(随机选择时间点),提前创建下一个分区的记录并拉取第一个号段,
+		 * 到达边界时直接使用,避免所有节点在边界时刻同时访问后端
+		 * <ul>
+		 * <li>分区函数必须是 {@link ClockPartitioner},比如 {@link Partitions#MONTHLY}</li>
+		 * <li>准备工作在预取线程池中执行,参考 {@link #prefetchExecutor(Executor)}</li>
+		 * <li>分区切换后,仍在使用旧分区的调用优先从旧分区剩余的号段中取号</li>
+		 * </ul>
+		 * @param lead 提前量,为null或者0表示关闭(默认)
+		 * @return Builder
+		 */
+		public Builder rollover(Duration lead) {
+			this.rolloverLead = lead;
+			return this;
+		}
+
+		/**
+		 * 异步取号需要拉取号段时使用的线程池,默认使用有界的共享线程池
+		 * @param executor 线程池
+		 * @return Builder
+		 * @see SeqHolder#nextAsync()
+		 */
+		public Builder asyncExecutor(Executor executor) {
+			this.asyncExecutor = executor;
+			return this;
+		}
+
+		/**
+		 * 异步取号使用的同步器,必须与 {@link #synchronizer} 访问同一份数据. 设置后异步取号直接通过它拉取号段,不占用线程池
+		 * @param asyncSynchronizer 异步同步器
+		 * @return Builder
+		 * @see SeqHolder#nextAsync()
+		 */
+		public Builder asyncSynchronizer(AsyncSeqSynchronizer asyncSynchronizer) {
+			this.asyncSynchronizer = asyncSynchronizer;
+			return this;
+		}
+
+		/**
+		 * 预取、分区切换准备以及异步取号在虚拟线程中访问后端,只对没有单独设置线程池的任务生效
+		 * <ul>
+		 * <li>需要 JDK 21 及以上版本,低版本继续使用共享线程池</li>
+		 * <li>虚拟线程的数量不受限制,建议使用 {@link ConcurrencyLimitedSynchronizer} 限制同时访问后端的数量</li>
+		 * </ul>
+		 * @param enabled 是否开启,默认关闭
+		 * @return Builder
+		 * @see ExecutorUtil#virtualThreadExecutor()
+		 */
+		public Builder virtualThreads(boolean enabled) {
+			this.virtualThreads = enabled;
+			return this;
+		}
+
 		public SeqHolder build() {
-			return new SeqHolder(synchronizer, name, partitionFunc, initValue, poolSize, seqFormatter);
+			return new SeqHolder(this);
+		}
+
+	}
+
+	/**
+	 * 号段:分区及其号池,发布后不再改变
+	 */
+	private static final class Segment {
+
+		private final String partition;
+
+		private final LongSeqPool pool;
+
+		/**
+		 * 取到这个序号时开始预取,{@link #NO_VALUE} 表示不预取
+		 */
+		private final long prefetchAt;
+
+		Segment(String partition, LongSeqPool pool, long prefetchAt) {
+			this.partition = partition;
+			this.pool = pool;
+			this.prefetchAt = prefetchAt;
+		}
+
+		boolean matches(String partitionValue) {
+			return partition.equals(partitionValue);
+		}
+
+	}
+
+	/**
+	 * 预取的备用号段
+	 */
+	private static final class Prefetch {
+
+		private final String partition;
+
+		private final CompletableFuture<Segment> future = new CompletableFuture<>();
+
+		Prefetch(String partition) {
+			this.partition = partition;
 		}
 
 	}
 
+	/**
+	 * 线程私有的序号块,只会被所属线程访问
+	 */
+	private static class LocalBlock {
+
+		private String partition;
+
+		private long next;
+
+		private long remaining;
+
+	}
+
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.core.LongRange;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 支持背压的序号流
+ * <p>
+ * 订阅者通过 {@code request(n)} 控制取号速度,发布者按未满足的需求量直接向后端拉取独立号段,比如 {@code request(10000)}
+ * 只执行一次拉取. 单次拉取的数量不少于取号器的拉取数量,不超过 {@code maxFetchSize}. 订阅取消或者出错时,未发出的序号尝试归还给后端,参考
+ * {@link SeqHolder#release(SeqSegment, long)}. 序号不会耗尽,因此不会调用 {@code onComplete}
+ * </p>
+ * <p>
+ * 发出数据和访问后端都在 {@code executor} 中执行,不会阻塞调用 {@code request} 的线程. 每个订阅使用独立的号段,
+ * 分区切换后,已经拉取的号段仍然会发完
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ * @param <T> 数据类型
+ */
+public final class SeqPublisher<T> implements Flow.Publisher<T> {
+
+	/**
+	 * 默认的单次拉取上限
+	 */
+	public static final int DEFAULT_MAX_FETCH_SIZE = 100_000;
+
+	private final SeqHolder holder;
+
+	private final Executor executor;
+
+	private final int idsPerItem;
+
+	private final int maxFetchSize;
+
+	private final ItemMapper<T> mapper;
+
+	private SeqPublisher(SeqHolder holder, Executor executor, int idsPerItem, int maxFetchSize, ItemMapper<T> mapper) {
+		this.holder = Objects.requireNonNull(holder);
+		this.executor = Objects.requireNonNull(executor);
+		this.idsPerItem = idsPerItem;
+		this.maxFetchSize = maxFetchSize;
+		this.mapper = mapper;
+		if (idsPerItem <= 0) {
+			throw new IllegalArgumentException("Bad range size: " + idsPerItem);
+		}
+		if (maxFetchSize < idsPerItem) {
+			throw new IllegalArgumentException("Bad maxFetchSize: " + maxFetchSize);
+		}
+	}
+
+	/**
+	 * 发出序号区间,每个区间最多 {@code rangeSize} 个序号. 区间不跨越号段,因此可能小于 {@code rangeSize}
+	 * @param holder 取号器
+	 * @param rangeSize 每个区间的最大数量
+	 * @param executor 执行拉取和发出数据的线程池
+	 * @return Publisher
+	 */
+	public static SeqPublisher<LongRange> ranges(SeqHolder holder, int rangeSize, Executor executor) {
+		return new SeqPublisher<>(holder, executor, rangeSize, Math.max(rangeSize, DEFAULT_MAX_FETCH_SIZE),
+				(partition, from, size) -> LongRange.of(from, size));
+	}
+
+	/**
+	 * 发出格式化后的字符串,格式与 {@link SeqHolder#nextStr()} 相同
+	 * @param holder 取号器
+	 * @param executor 执行拉取和发出数据的线程池
+	 * @return Publisher
+	 */
+	public static SeqPublisher<String> strings(SeqHolder holder, Executor executor) {
+		return new SeqPublisher<>(holder, executor, 1, DEFAULT_MAX_FETCH_SIZE,
+				(partition, from, size) -> holder.format(partition, from));
+	}
+
+	/**
+	 * 修改单次拉取的上限
+	 * @param maxFetchSize 数量
+	 * @return 新的 Publisher
+	 */
+	public SeqPublisher<T> maxFetchSize(int maxFetchSize) {
+		return new SeqPublisher<>(holder, executor, idsPerItem, maxFetchSize, mapper);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber);
+		final SeqSubscription<T> subscription = new SeqSubscription<>(this, subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	@FunctionalInterface
+	private interface ItemMapper<T> {
+
+		T map(String partition, long from, int size);
+
+	}
+
+	private static final class SeqSubscription<T> implements Flow.Subscription, Runnable {
+
+		private final SeqPublisher<T> publisher;
+
+		private final Flow.Subscriber<? super T> subscriber;
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		private volatile Throwable badRequest;
+
+		/**
+		 * 以下字段只在 {@link #run()} 中访问
+		 */
+		private boolean done;
+
+		private SeqSegment segment;
+
+		private long next;
+
+		SeqSubscription(SeqPublisher<T> publisher, Flow.Subscriber<? super T> subscriber) {
+			this.publisher = publisher;
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0L) {
+				badRequest = new IllegalArgumentException("Non-positive request: " + n);
+			}
+			else {
+				demand.getAndUpdate(d -> d + n < 0L ? Long.MAX_VALUE : d + n);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			try {
+				publisher.executor.execute(this);
+			}
+			catch (RejectedExecutionException e) {
+				wip.set(0);
+				cancelled = true;
+				subscriber.onError(e);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			while (true) {
+				drain();
+				missed = wip.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		private void drain() {
+			if (done) {
+				return;
+			}
+			if (badRequest != null) {
+				terminate(badRequest);
+				return;
+			}
+			long emitted = 0L;
+			final long requested = demand.get();
+			while (emitted != requested) {
+				if (cancelled) {
+					terminate(null);
+					return;
+				}
+				if (segment == null || next > segment.getRange().getLast()) {
+					// 按未满足的需求拉取,避免多次小批量访问后端. 需求较小时至少拉取取号器的常规数量
+					final long items = Math.min(requested - emitted, publisher.maxFetchSize / publisher.idsPerItem);
+					final int size = Math.min(publisher.maxFetchSize,
+							(int) Math.max(items * publisher.idsPerItem, publisher.holder.getFetchSize()));
+					try {
+						segment = publisher.holder.fetchSegment(size);
+					}
+					catch (Throwable e) {
+						segment = null;
+						terminate(e);
+						return;
+					}
+					next = segment.getRange().getFrom();
+				}
+				final int size = (int) Math.min(publisher.idsPerItem, segment.getRange().getLast() - next + 1);
+				final T item = publisher.mapper.map(segment.getPartition(), next, size);
+				next += size;
+				try {
+					subscriber.onNext(item);
+				}
+				catch (Throwable e) {
+					terminate(null);
+					return;
+				}
+				++emitted;
+			}
+			if (requested != Long.MAX_VALUE) {
+				demand.addAndGet(-emitted);
+			}
+			if (cancelled) {
+				terminate(null);
+			}
+		}
+
+		/**
+		 * 结束订阅,归还未发出的序号
+		 * @param error 不为null时通知订阅者
+		 */
+		private void terminate(Throwable error) {
+			done = true;
+			cancelled = true;
+			if (segment != null) {
+				try {
+					publisher.holder.release(segment, next);
+				}
+				catch (RuntimeException e) {
+					// 归还失败只会造成跳号
+				}
+				segment = null;
+			}
+			if (error != null) {
+				subscriber.onError(error);
+			}
+		}
+
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package com.power4j.kit.seq.persistent;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -54,6 +56,11 @@ public interface SeqSynchronizer {
 	 */
 	boolean tryUpdate(String name, String partition, long nextValueOld, long nextValueNew);
 
+	/**
+	 * {@link #tryAllocate} 默认的最大重试次数
+	 */
+	int DEFAULT_MAX_RETRY = 16;
+
 	/**
 	 * 尝试加法操作
 	 * @param name
@@ -64,6 +71,62 @@ public interface SeqSynchronizer {
 	 */
 	AddState tryAddAndGet(String name, String partition, int delta, int maxReTry);
 
+	/**
+	 * 批量执行加法操作,默认逐个执行 {@link #tryAddAndGet}. 实现层可以合并为更少的后端调用
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param maxReTry 每个请求的最大重试次数,参考 {@link #tryAddAndGet}
+	 * @return 执行结果,顺序与请求列表相同
+	 */
+	default List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+		final List<AddState> states = new ArrayList<>(requests.size());
+		for (AddRequest request : requests) {
+			states.add(tryAddAndGet(request.getName(), request.getPartition(), request.getDelta(), maxReTry));
+		}
+		return states;
+	}
+
+	/**
+	 * 分配号段:记录不存在时以 {@code initValue + delta} 创建并分配
+	 * {@code [initValue, initValue + delta)}, 否则执行加法. 默认依次执行 {@link #tryCreate} 和
+	 * {@link #tryAddAndGet},实现层可以合并为一次后端调用. 重试次数超过 {@link #getMaxReTry()} 时返回失败
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param initValue 记录不存在时的初始值
+	 * @return 执行结果
+	 * @throws com.power4j.kit.seq.core.exceptions.SeqException 后端异常
+	 */
+	default AddState tryAllocate(String name, String partition, int delta, long initValue) {
+		final long created = initValue + delta;
+		if (tryCreate(name, partition, created)) {
+			return AddState.success(initValue, created, 1);
+		}
+		return tryAddAndGet(name, partition, delta, getMaxReTry());
+	}
+
+	/**
+	 * {@link #tryAllocate} 使用的最大重试次数,参考 {@link #tryAddAndGet}
+	 * @return 默认 {@link #DEFAULT_MAX_RETRY}
+	 */
+	default int getMaxReTry() {
+		return DEFAULT_MAX_RETRY;
+	}
+
+	/**
+	 * 批量分配,参考 {@link #tryAllocate}. 默认逐个执行 {@link #tryAllocate},实现层可以合并为更少的后端调用
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param initValue 记录不存在时的初始值
+	 * @return 执行结果,顺序与请求列表相同,全部成功
+	 * @throws com.power4j.kit.seq.core.exceptions.SeqException 后端异常
+	 */
+	default List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		final List<AddState> states = new ArrayList<>(requests.size());
+		for (AddRequest request : requests) {
+			states.add(tryAllocate(request.getName(), request.getPartition(), request.getDelta(), initValue));
+		}
+		return states;
+	}
+
 	/**
 	 * 查询当前值
 	 * @param name
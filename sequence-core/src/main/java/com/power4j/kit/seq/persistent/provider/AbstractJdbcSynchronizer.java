@@ -17,6 +17,7 @@
 package com.power4j.kit.seq.persistent.provider;
 
 import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
 import com.power4j.kit.seq.persistent.AddState;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
 import lombok.extern.slf4j.Slf4j;
@@ -25,11 +26,21 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 基于JDBC的同步抽象
+ * <p>
+ * 加法操作默认使用乐观锁(先查询再比较更新),更新冲突时按指数退避(带随机抖动)后重试. 最近若干次加法的平均重试次数超过阈值时,
+ * 在一段时间内改用悲观锁({@code SELECT ... FOR UPDATE})在事务中执行,不再重试
+ * </p>
  *
  * @author CJ (power4j@outlook.com)
  * @date 2020/7/6
@@ -42,6 +53,35 @@ public abstract class AbstractJdbcSynchronizer implements SeqSynchronizer {
 
 	protected final AtomicLong updateCount = new AtomicLong();
 
+	/**
+	 * 统计重试率的窗口大小(加法次数)
+	 */
+	private static final int CONTENTION_WINDOW = 16;
+
+	private static final int MAX_BACKOFF_SHIFT = 20;
+
+	private final AtomicLong retryCount = new AtomicLong();
+
+	private final AtomicLong lockedAddCount = new AtomicLong();
+
+	private final AtomicLong windowCalls = new AtomicLong();
+
+	private final AtomicLong windowRetries = new AtomicLong();
+
+	private volatile long lockUntilNanos;
+
+	private volatile boolean lockMode;
+
+	private volatile long backoffBaseNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private volatile long backoffMaxNanos = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private volatile double lockThreshold = 1.0;
+
+	private volatile long lockHoldNanos = TimeUnit.SECONDS.toNanos(30);
+
+	private volatile int maxReTry = DEFAULT_MAX_RETRY;
+
 	/**
 	 * 获取数据库连接
 	 * @return
@@ -101,6 +141,86 @@ public abstract class AbstractJdbcSynchronizer implements SeqSynchronizer {
 	protected abstract PreparedStatement getUpdateSeqStatement(Connection connection, String name, String partition,
 			long nextValueOld, long nextValueNew) throws SQLException;
 
+	/**
+	 * 查询 value 并锁定记录,需要在事务中执行
+	 * @param connection
+	 * @param name
+	 * @param partition
+	 * @return 返回null表示不支持悲观锁模式
+	 * @throws SQLException
+	 */
+	protected PreparedStatement getSelectSeqForUpdateStatement(Connection connection, String name, String partition)
+			throws SQLException {
+		return null;
+	}
+
+	/**
+	 * 设置更新冲突时的退避时间,第N次重试前等待 {@code [0, min(max, base * 2^(N-1)))} 内的随机时间
+	 * @param base 基础时间,为0时不等待
+	 * @param max 最大时间
+	 */
+	public void setRetryBackoff(Duration base, Duration max) {
+		if (base.isNegative() || max.compareTo(base) < 0) {
+			throw new IllegalArgumentException(String.format("Bad backoff: %s %s", base, max));
+		}
+		this.backoffBaseNanos = base.toNanos();
+		this.backoffMaxNanos = max.toNanos();
+	}
+
+	/**
+	 * 设置切换到悲观锁模式的条件
+	 * @param threshold 平均每次加法的重试次数超过此值时切换,为0时总是使用悲观锁, 为 {@link Double#POSITIVE_INFINITY}
+	 * 时不切换. 默认1
+	 * @param hold 切换后保持的时间,之后恢复乐观锁. 默认30秒
+	 */
+	public void setLockThreshold(double threshold, Duration hold) {
+		if (Double.isNaN(threshold) || threshold < 0 || hold.isNegative()) {
+			throw new IllegalArgumentException(String.format("Bad lock threshold: %s %s", threshold, hold));
+		}
+		this.lockThreshold = threshold;
+		this.lockHoldNanos = hold.toNanos();
+	}
+
+	/**
+	 * 设置 {@link #tryAllocate} 的最大重试次数
+	 * @param maxReTry 不能小于0. 默认 {@link #DEFAULT_MAX_RETRY}
+	 */
+	public void setMaxReTry(int maxReTry) {
+		if (maxReTry < 0) {
+			throw new IllegalArgumentException("Bad max retry: " + maxReTry);
+		}
+		this.maxReTry = maxReTry;
+	}
+
+	@Override
+	public int getMaxReTry() {
+		return maxReTry;
+	}
+
+	/**
+	 * 乐观锁加法的累计重试次数,每次加法的重试次数为 {@link AddState#getTotalOps()} 减1
+	 * @return
+	 */
+	public long getRetryCount() {
+		return retryCount.get();
+	}
+
+	/**
+	 * 使用悲观锁执行的加法次数
+	 * @return
+	 */
+	public long getLockedAddCount() {
+		return lockedAddCount.get();
+	}
+
+	/**
+	 * 当前是否处于悲观锁模式
+	 * @return
+	 */
+	public boolean isLockMode() {
+		return lockThreshold == 0 || (lockMode && System.nanoTime() - lockUntilNanos < 0L);
+	}
+
 	/**
 	 * 建表,表已经存在则忽略
 	 * @throws SQLException
@@ -140,15 +260,19 @@ public abstract class AbstractJdbcSynchronizer implements SeqSynchronizer {
 	 */
 	protected Optional<Long> selectSeqValue(Connection connection, String name, String partition) throws SQLException {
 		try (PreparedStatement statement = getSelectSeqStatement(connection, name, partition)) {
-			try (ResultSet resultSet = statement.executeQuery()) {
-				if (resultSet.next()) {
-					if (resultSet.getObject(1) == null) {
-						throw new IllegalStateException("Bad seq value");
-					}
-					return Optional.of(resultSet.getLong(1));
+			return readValue(statement);
+		}
+	}
+
+	private static Optional<Long> readValue(PreparedStatement statement) throws SQLException {
+		try (ResultSet resultSet = statement.executeQuery()) {
+			if (resultSet.next()) {
+				if (resultSet.getObject(1) == null) {
+					throw new IllegalStateException("Bad seq value");
 				}
-				return Optional.empty();
+				return Optional.of(resultSet.getLong(1));
 			}
+			return Optional.empty();
 		}
 	}
 
@@ -224,24 +348,160 @@ public abstract class AbstractJdbcSynchronizer implements SeqSynchronizer {
 		}
 	}
 
+	/**
+	 * 在指定的连接上执行加法操作
+	 * @param connection
+	 * @param name
+	 * @param partition
+	 * @param delta
+	 * @param maxReTry
+	 * @param backoff 重试前是否等待. 多个请求共用连接时不应等待,避免长时间占用连接
+	 * @return
+	 * @throws SQLException 数据库异常
+	 * @throws SeqException 记录不存在
+	 */
+	protected AddState tryAddAndGet(Connection connection, String name, String partition, int delta, int maxReTry,
+			boolean backoff) throws SQLException {
+		if (isLockMode()) {
+			final AddState state = lockAndAdd(connection, name, partition, delta);
+			if (state != null) {
+				return state;
+			}
+		}
+		int totalOps = 0;
+		do {
+			if (totalOps > 0 && backoff) {
+				backoff(totalOps);
+			}
+			++totalOps;
+			final long lastValue = selectSeqValue(connection, name, partition)
+					.orElseThrow(() -> new SeqException(String.format("Not exist: %s %s", name, partition)));
+			queryCount.incrementAndGet();
+			final long target = lastValue + delta;
+			boolean updateDone = updateSeqValue(connection, name, partition, lastValue, target);
+			updateCount.incrementAndGet();
+			if (updateDone) {
+				recordRetries(name, partition, totalOps - 1);
+				// 需要抢占成功,返回号段的起止区间(前闭后开)
+				return AddState.success(lastValue, target, totalOps);
+			}
+		}
+		// 与之前的版本保持一致: 最多执行 maxReTry + 2 次
+		while (maxReTry < 0 || totalOps <= maxReTry + 1);
+		recordRetries(name, partition, totalOps - 1);
+		return AddState.fail(totalOps);
+	}
+
+	/**
+	 * 在事务中锁定记录后执行加法操作
+	 * @param connection
+	 * @param name
+	 * @param partition
+	 * @param delta
+	 * @return 不支持悲观锁模式返回null
+	 * @throws SQLException 数据库异常
+	 */
+	protected AddState lockAndAdd(Connection connection, String name, String partition, int delta) throws SQLException {
+		final boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			final Optional<Long> lastValue;
+			try (PreparedStatement statement = getSelectSeqForUpdateStatement(connection, name, partition)) {
+				if (statement == null) {
+					connection.rollback();
+					return null;
+				}
+				lastValue = readValue(statement);
+			}
+			queryCount.incrementAndGet();
+			if (!lastValue.isPresent()) {
+				throw new SeqException(String.format("Not exist: %s %s", name, partition));
+			}
+			final long target = lastValue.get() + delta;
+			final boolean updateDone = updateSeqValue(connection, name, partition, lastValue.get(), target);
+			updateCount.incrementAndGet();
+			if (!updateDone) {
+				throw new SeqException(String.format("Update failed while locked: %s %s", name, partition));
+			}
+			connection.commit();
+			lockedAddCount.incrementAndGet();
+			return AddState.success(lastValue.get(), target, 1);
+		}
+		catch (SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		}
+		finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * 第N次重试前等待随机时间(full jitter)
+	 * @param retries 已经执行的次数
+	 */
+	private void backoff(int retries) {
+		final long base = backoffBaseNanos;
+		if (base <= 0L) {
+			return;
+		}
+		final long ceiling = Math.min(backoffMaxNanos, base << Math.min(retries - 1, MAX_BACKOFF_SHIFT));
+		LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+		if (Thread.currentThread().isInterrupted()) {
+			throw new SeqException("Interrupted while retrying");
+		}
+	}
+
+	/**
+	 * 记录一次加法的重试次数,窗口内的平均重试次数超过阈值时切换到悲观锁模式
+	 * @param name
+	 * @param partition
+	 * @param retries 重试次数
+	 */
+	private void recordRetries(String name, String partition, int retries) {
+		if (retries > 0) {
+			retryCount.addAndGet(retries);
+			windowRetries.addAndGet(retries);
+			log.debug("Add retried {} times: {} {}", retries, name, partition);
+		}
+		final long calls = windowCalls.incrementAndGet();
+		if (calls < CONTENTION_WINDOW || !windowCalls.compareAndSet(calls, 0L)) {
+			return;
+		}
+		final long totalRetries = windowRetries.getAndSet(0L);
+		if ((double) totalRetries / calls > lockThreshold) {
+			lockUntilNanos = System.nanoTime() + lockHoldNanos;
+			lockMode = true;
+			log.info("Switch to lock mode, average retries {}", (double) totalRetries / calls);
+		}
+	}
+
 	@Override
 	public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
-		int totalOps = 0;
 		try (Connection connection = getConnection()) {
-			do {
-				++totalOps;
-				long lastValue = selectSeqValue(connection, name, partition).get();
-				queryCount.incrementAndGet();
-				final long target = lastValue + delta;
-				boolean updateDone = updateSeqValue(connection, name, partition, lastValue, target);
-				updateCount.incrementAndGet();
-				if (updateDone) {
-					// 需要抢占成功,返回号段的起止区间(前闭后开)
-					return AddState.success(lastValue, target, totalOps);
-				}
+			return tryAddAndGet(connection, name, partition, delta, maxReTry, true);
+		}
+		catch (SQLException e) {
+			log.warn(e.getMessage(), e);
+			throw new SeqException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 所有请求共用一个连接,依次执行. 更新冲突时立即重试,不等待
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param maxReTry 每个请求的最大重试次数,参考 {@link #tryAddAndGet}
+	 * @return
+	 */
+	@Override
+	public List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+		final List<AddState> states = new ArrayList<>(requests.size());
+		try (Connection connection = getConnection()) {
+			for (AddRequest request : requests) {
+				states.add(tryAddAndGet(connection, request.getName(), request.getPartition(), request.getDelta(),
+						maxReTry, false));
 			}
-			while (maxReTry < 0 || totalOps <= maxReTry + 1);
-			return AddState.fail(totalOps);
+			return states;
 		}
 		catch (SQLException e) {
 			log.warn(e.getMessage(), e);
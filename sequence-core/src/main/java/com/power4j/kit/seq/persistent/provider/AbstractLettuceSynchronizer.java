@@ -17,6 +17,7 @@
 package com.power4j.kit.seq.persistent.provider;
 
 import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
 import com.power4j.kit.seq.persistent.AddState;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
 import io.lettuce.core.KeyScanCursor;
@@ -28,6 +29,9 @@ import io.lettuce.core.api.sync.RedisScriptingCommands;
 import io.lettuce.core.api.sync.RedisStringCommands;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -48,8 +52,15 @@ public abstract class AbstractLettuceSynchronizer implements SeqSynchronizer {
 
 	private final AtomicLong updateCounter = new AtomicLong();
 
+	/**
+	 * 批量分配时每次脚本调用的 key 数量
+	 */
+	protected static final int ALLOCATE_BATCH_SIZE = 500;
+
 	private final AtomicReference<String> serverScript = new AtomicReference<>();
 
+	private final AtomicReference<String> allocateScript = new AtomicReference<>();
+
 	private final String cacheName;
 
 	public AbstractLettuceSynchronizer(String cacheName) {
@@ -100,6 +111,60 @@ public abstract class AbstractLettuceSynchronizer implements SeqSynchronizer {
 		return AddState.success(current - delta, current, 1);
 	}
 
+	/**
+	 * 批量分配脚本的ID,首次使用时加载
+	 * @param redisCommands
+	 * @return
+	 */
+	protected String allocateScriptId(RedisScriptingCommands<String, String> redisCommands) {
+		return allocateScript
+				.updateAndGet(s -> s != null ? s : loadScript(redisCommands, RedisConstants.ALLOCATE_SCRIPT));
+	}
+
+	/**
+	 * 批量分配脚本的 key
+	 * @param requests
+	 * @return
+	 */
+	protected String[] allocateKeys(List<AddRequest> requests) {
+		final String[] keys = new String[requests.size()];
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = makeKey(requests.get(i).getName(), requests.get(i).getPartition());
+		}
+		return keys;
+	}
+
+	/**
+	 * 批量分配脚本的参数
+	 * @param requests
+	 * @param initValue
+	 * @return
+	 */
+	protected String[] allocateArgs(List<AddRequest> requests, long initValue) {
+		final String[] args = new String[requests.size() + 1];
+		args[0] = Long.toString(initValue);
+		for (int i = 0; i < requests.size(); ++i) {
+			args[i + 1] = Integer.toString(requests.get(i).getDelta());
+		}
+		return args;
+	}
+
+	/**
+	 * 把脚本返回的值转换为分配结果
+	 * @param requests
+	 * @param values 每个 key 加法后的值
+	 * @return
+	 */
+	protected List<AddState> allocateStates(List<AddRequest> requests, List<Long> values) {
+		updateCounter.incrementAndGet();
+		final List<AddState> states = new ArrayList<>(requests.size());
+		for (int i = 0; i < requests.size(); ++i) {
+			final long current = values.get(i);
+			states.add(AddState.success(current - requests.get(i).getDelta(), current, 1));
+		}
+		return states;
+	}
+
 	public int removeCache() {
 		return execKeyCommand((cmd -> {
 			int keys = 0;
@@ -161,6 +226,38 @@ public abstract class AbstractLettuceSynchronizer implements SeqSynchronizer {
 		return execStringCommand((cmd) -> doInc(cmd, name, partition, delta));
 	}
 
+	/**
+	 * 通过分配脚本在一次调用中创建或累加
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+		return tryAllocateAll(Collections.singletonList(AddRequest.of(name, partition, delta)), initValue).get(0);
+	}
+
+	/**
+	 * 通过脚本批量分配,每 {@link #ALLOCATE_BATCH_SIZE} 个 key 一次调用. 脚本按顺序执行,同一个 key 可以出现多次
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		final List<AddState> states = new ArrayList<>(requests.size());
+		for (int from = 0; from < requests.size(); from += ALLOCATE_BATCH_SIZE) {
+			final List<AddRequest> chunk = requests.subList(from,
+					Math.min(requests.size(), from + ALLOCATE_BATCH_SIZE));
+			final List<Long> values = execScriptingCommand(cmd -> cmd.evalsha(allocateScriptId(cmd),
+					ScriptOutputType.MULTI, allocateKeys(chunk), allocateArgs(chunk, initValue)));
+			states.addAll(allocateStates(chunk, values));
+		}
+		return states;
+	}
+
 	@Override
 	public Optional<Long> getNextValue(String name, String partition) {
 		return execStringCommand((cmd) -> doGet(cmd, name, partition));
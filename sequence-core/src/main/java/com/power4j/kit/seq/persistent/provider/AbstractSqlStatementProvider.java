@@ -16,13 +16,23 @@
 
 package com.power4j.kit.seq.persistent.provider;
 
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
 import lombok.extern.slf4j.Slf4j;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 描述信息
@@ -34,6 +44,11 @@ import java.time.LocalDateTime;
 @Slf4j
 public abstract class AbstractSqlStatementProvider extends AbstractJdbcSynchronizer {
 
+	/**
+	 * 批量查询时每条语句的记录数量
+	 */
+	private static final int SELECT_BATCH_SIZE = 100;
+
 	/**
 	 * 建表SQL
 	 * @return
@@ -64,6 +79,215 @@ public abstract class AbstractSqlStatementProvider extends AbstractJdbcSynchroni
 	 */
 	protected abstract String getUpdateSeqSql();
 
+	/**
+	 * 查询并锁定记录的SQL,参考 {@link SqlDialect#selectForUpdateSql(String)}
+	 * @return 返回null表示不支持悲观锁模式
+	 */
+	protected String getSelectSeqForUpdateSql() {
+		return null;
+	}
+
+	/**
+	 * 分配号段SQL,参考 {@link SqlDialect#allocateSql(String)}
+	 * @return 返回null表示不支持,分别执行创建和加法
+	 */
+	protected String getAllocateSeqSql() {
+		return null;
+	}
+
+	/**
+	 * 无条件累加SQL,参考 {@link SqlDialect#incrementSql(String)}
+	 * @return 返回null表示不支持批量分配
+	 */
+	protected String getIncrementSeqSql() {
+		return null;
+	}
+
+	/**
+	 * 批量查询SQL,参考 {@link SqlDialect#selectManySql(String, int)}
+	 * @param count 记录数量
+	 * @return 返回null表示不支持批量分配
+	 */
+	protected String getSelectSeqsSql(int count) {
+		return null;
+	}
+
+	/**
+	 * 使用 {@link #getAllocateSeqSql()} 在一条语句中创建或累加记录,不需要重试
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+		if (getAllocateSeqSql() == null) {
+			return super.tryAllocate(name, partition, delta, initValue);
+		}
+		try (Connection connection = getConnection()) {
+			long current;
+			try {
+				current = allocateSeqValue(connection, name, partition, delta, initValue);
+			}
+			catch (SQLIntegrityConstraintViolationException e) {
+				// 部分数据库的 MERGE 在并发创建同一条记录时违反主键约束,此时记录已经存在
+				log.debug(e.getMessage());
+				current = allocateSeqValue(connection, name, partition, delta, initValue);
+			}
+			updateCount.incrementAndGet();
+			return AddState.success(current - delta, current, 1);
+		}
+		catch (SQLException e) {
+			log.warn(e.getMessage(), e);
+			throw new SeqException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 执行分配语句
+	 * @param connection
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param initValue 记录不存在时的初始值
+	 * @return 加法后的值
+	 * @throws SQLException 数据库异常
+	 */
+	protected long allocateSeqValue(Connection connection, String name, String partition, int delta, long initValue)
+			throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(getAllocateSeqSql())) {
+			setAllocateParameters(statement, name, partition, delta, initValue);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (!resultSet.next()) {
+					throw new SeqException(String.format("No value returned: %s %s", name, partition));
+				}
+				return resultSet.getLong(1);
+			}
+		}
+	}
+
+	/**
+	 * 设置分配语句的参数,参考 {@link SqlDialect#allocateSql(String)}
+	 * @param statement
+	 * @param name
+	 * @param partition
+	 * @param delta
+	 * @param initValue
+	 * @throws SQLException
+	 */
+	protected void setAllocateParameters(PreparedStatement statement, String name, String partition, int delta,
+			long initValue) throws SQLException {
+		final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		if (log.isDebugEnabled()) {
+			log.debug("Allocate Seq Sql:[{}]", getAllocateSeqSql());
+		}
+		statement.setString(1, name);
+		statement.setString(2, partition);
+		statement.setLong(3, initValue + delta);
+		statement.setTimestamp(4, now);
+		statement.setInt(5, delta);
+		statement.setTimestamp(6, now);
+	}
+
+	/**
+	 * 在一个事务中执行: 批量插入缺失的记录, 批量累加, 分批查询累加后的值. 累加持有行锁直到提交,不需要重试
+	 * <p>
+	 * 为避免多个实例互相死锁,按名称和分区排序后加锁
+	 * </p>
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		if (requests.isEmpty() || getIncrementSeqSql() == null) {
+			return super.tryAllocateAll(requests, initValue);
+		}
+		final MergedRequests merged = MergedRequests.of(requests);
+		final List<AddRequest> sorted = new ArrayList<>(merged.getMerged());
+		sorted.sort(Comparator.comparing(AddRequest::getName).thenComparing(AddRequest::getPartition));
+		try (Connection connection = getConnection()) {
+			final boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				final Map<AddRequest, Long> values = allocate(connection, sorted, initValue);
+				connection.commit();
+				final List<AddState> states = new ArrayList<>(sorted.size());
+				for (AddRequest request : merged.getMerged()) {
+					final long current = values.get(keyOf(request));
+					states.add(AddState.success(current - request.getDelta(), current, 1));
+				}
+				return merged.split(states);
+			}
+			catch (SQLException | RuntimeException e) {
+				connection.rollback();
+				throw e;
+			}
+			finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+		catch (SQLException e) {
+			log.warn(e.getMessage(), e);
+			throw new SeqException(e.getMessage(), e);
+		}
+	}
+
+	private Map<AddRequest, Long> allocate(Connection connection, List<AddRequest> requests, long initValue)
+			throws SQLException {
+		final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		try (PreparedStatement statement = connection.prepareStatement(getCreateSeqSql())) {
+			for (AddRequest request : requests) {
+				statement.setString(1, request.getName());
+				statement.setString(2, request.getPartition());
+				statement.setLong(3, initValue);
+				statement.setTimestamp(4, now);
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+		try (PreparedStatement statement = connection.prepareStatement(getIncrementSeqSql())) {
+			for (AddRequest request : requests) {
+				statement.setInt(1, request.getDelta());
+				statement.setTimestamp(2, now);
+				statement.setString(3, request.getName());
+				statement.setString(4, request.getPartition());
+				statement.addBatch();
+			}
+			statement.executeBatch();
+			updateCount.addAndGet(requests.size());
+		}
+		final Map<AddRequest, Long> values = new HashMap<>(requests.size());
+		for (int from = 0; from < requests.size(); from += SELECT_BATCH_SIZE) {
+			final List<AddRequest> chunk = requests.subList(from, Math.min(requests.size(), from + SELECT_BATCH_SIZE));
+			try (PreparedStatement statement = connection.prepareStatement(getSelectSeqsSql(chunk.size()))) {
+				int index = 0;
+				for (AddRequest request : chunk) {
+					statement.setString(++index, request.getName());
+					statement.setString(++index, request.getPartition());
+				}
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while (resultSet.next()) {
+						values.put(AddRequest.of(resultSet.getString(1), resultSet.getString(2), 0),
+								resultSet.getLong(3));
+					}
+				}
+			}
+			queryCount.incrementAndGet();
+		}
+		for (AddRequest request : requests) {
+			if (!values.containsKey(keyOf(request))) {
+				throw new SeqException(String.format("Not exist: %s %s", request.getName(), request.getPartition()));
+			}
+		}
+		return values;
+	}
+
+	private static AddRequest keyOf(AddRequest request) {
+		return AddRequest.of(request.getName(), request.getPartition(), 0);
+	}
+
 	@Override
 	protected PreparedStatement getCreateTableStatement(Connection connection) throws SQLException {
 		final String sql = getCreateTableSql();
@@ -113,6 +337,22 @@ public abstract class AbstractSqlStatementProvider extends AbstractJdbcSynchroni
 		return statement;
 	}
 
+	@Override
+	protected PreparedStatement getSelectSeqForUpdateStatement(Connection connection, String name, String partition)
+			throws SQLException {
+		final String sql = getSelectSeqForUpdateSql();
+		if (sql == null) {
+			return null;
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Select Seq For Update Sql:[{}]", sql);
+		}
+		PreparedStatement statement = connection.prepareStatement(sql);
+		statement.setString(1, name);
+		statement.setString(2, partition);
+		return statement;
+	}
+
 	@Override
 	protected PreparedStatement getUpdateSeqStatement(Connection connection, String name, String partition,
 			long nextValueOld, long nextValueNew) throws SQLException {
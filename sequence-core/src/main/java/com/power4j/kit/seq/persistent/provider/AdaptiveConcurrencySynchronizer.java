@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.SeqSynchronizer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 根据后端延迟自动调整并发上限(AIMD)
+ * <p>
+ * 后端变慢时,大量取号器同时拉取号段会耗尽连接池,使情况更加恶化. 此类限制同时访问后端的调用数量:
+ * <ul>
+ * <li>调用耗时不超过 {@code latencyThreshold} 时,上限缓慢增加,每个上限数量的调用约增加1</li>
+ * <li>调用耗时超过 {@code latencyThreshold} 或者抛出异常时,上限乘以 {@code backoffRatio}.
+ * 在上一次减小之前开始的调用不会再次减小上限, 避免同一批慢调用把上限一直压到最小值</li>
+ * <li>超出上限的调用进入有界队列等待,队列已满或者等待超时抛出 {@link SeqException}; 队列容量为0时直接失败</li>
+ * </ul>
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ * @see ConcurrencyLimitedSynchronizer
+ */
+public class AdaptiveConcurrencySynchronizer implements SeqSynchronizer {
+
+	private final SeqSynchronizer delegate;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long latencyThresholdNanos;
+
+	private final double backoffRatio;
+
+	private final int maxQueueSize;
+
+	private final long maxWaitNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition available = lock.newCondition();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private double limit;
+
+	private int inFlight;
+
+	private int waiting;
+
+	private long lastDecreaseNanos;
+
+	private AdaptiveConcurrencySynchronizer(Builder builder) {
+		if (builder.minLimit <= 0 || builder.maxLimit < builder.minLimit) {
+			throw new IllegalArgumentException("Bad limit range: [" + builder.minLimit + "," + builder.maxLimit + "]");
+		}
+		if (builder.backoffRatio <= 0 || builder.backoffRatio >= 1) {
+			throw new IllegalArgumentException("Bad backoffRatio: " + builder.backoffRatio);
+		}
+		if (builder.maxQueueSize < 0) {
+			throw new IllegalArgumentException("Bad maxQueueSize: " + builder.maxQueueSize);
+		}
+		this.delegate = Objects.requireNonNull(builder.delegate);
+		this.minLimit = builder.minLimit;
+		this.maxLimit = builder.maxLimit;
+		this.latencyThresholdNanos = TimeUnit.NANOSECONDS.convert(Objects.requireNonNull(builder.latencyThreshold));
+		this.backoffRatio = builder.backoffRatio;
+		this.maxQueueSize = builder.maxQueueSize;
+		this.maxWaitNanos = TimeUnit.NANOSECONDS.convert(Objects.requireNonNull(builder.maxWait));
+		this.limit = Math.min(Math.max(builder.initialLimit, minLimit), maxLimit);
+		this.lastDecreaseNanos = System.nanoTime();
+	}
+
+	@Override
+	public boolean tryCreate(String name, String partition, long nextValue) {
+		return call(() -> delegate.tryCreate(name, partition, nextValue));
+	}
+
+	@Override
+	public boolean tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		return call(() -> delegate.tryUpdate(name, partition, nextValueOld, nextValueNew));
+	}
+
+	@Override
+	public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		return call(() -> delegate.tryAddAndGet(name, partition, delta, maxReTry));
+	}
+
+	@Override
+	public List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+		return call(() -> delegate.tryAddAndGetAll(requests, maxReTry));
+	}
+
+	@Override
+	public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+		return call(() -> delegate.tryAllocate(name, partition, delta, initValue));
+	}
+
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		return call(() -> delegate.tryAllocateAll(requests, initValue));
+	}
+
+	@Override
+	public int getMaxReTry() {
+		return delegate.getMaxReTry();
+	}
+
+	@Override
+	public Optional<Long> getNextValue(String name, String partition) {
+		return call(() -> delegate.getNextValue(name, partition));
+	}
+
+	@Override
+	public void init() {
+		delegate.init();
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public long getQueryCounter() {
+		return delegate.getQueryCounter();
+	}
+
+	@Override
+	public long getUpdateCounter() {
+		return delegate.getUpdateCounter();
+	}
+
+	/**
+	 * 当前的并发上限
+	 * @return
+	 */
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 正在执行的调用数量
+	 * @return
+	 */
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 正在排队的调用数量
+	 * @return
+	 */
+	public int getQueueLength() {
+		lock.lock();
+		try {
+			return waiting;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 被拒绝的调用数量,包括队列已满和等待超时
+	 * @return
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	private <T> T call(Supplier<T> task) {
+		final long start = acquire();
+		boolean failed = true;
+		try {
+			final T result = task.get();
+			failed = false;
+			return result;
+		}
+		finally {
+			release(start, failed);
+		}
+	}
+
+	/**
+	 * 获取执行许可
+	 * @return 开始执行的时间
+	 */
+	private long acquire() {
+		lock.lock();
+		try {
+			if (inFlight < (int) limit) {
+				++inFlight;
+				return System.nanoTime();
+			}
+			if (waiting >= maxQueueSize) {
+				rejectedCount.incrementAndGet();
+				throw new SeqException("Backend overloaded: limit = " + (int) limit + ", queued = " + waiting);
+			}
+			++waiting;
+			try {
+				long nanos = maxWaitNanos;
+				while (inFlight >= (int) limit) {
+					if (nanos <= 0L) {
+						rejectedCount.incrementAndGet();
+						throw new SeqException("Backend overloaded: wait timeout, limit = " + (int) limit);
+					}
+					nanos = available.awaitNanos(nanos);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SeqException("Interrupted while waiting for backend", e);
+			}
+			finally {
+				--waiting;
+			}
+			++inFlight;
+			return System.nanoTime();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(long start, boolean failed) {
+		final long now = System.nanoTime();
+		lock.lock();
+		try {
+			--inFlight;
+			if (failed || now - start > latencyThresholdNanos) {
+				// 每一批调用只减小一次
+				if (start - lastDecreaseNanos >= 0L) {
+					limit = Math.max(minLimit, limit * backoffRatio);
+					lastDecreaseNanos = now;
+				}
+			}
+			else {
+				limit = Math.min(maxLimit, limit + 1.0 / limit);
+			}
+			available.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	public static Builder builder(SeqSynchronizer delegate) {
+		return new Builder(delegate);
+	}
+
+	public static class Builder {
+
+		private final SeqSynchronizer delegate;
+
+		private int initialLimit = 10;
+
+		private int minLimit = 1;
+
+		private int maxLimit = 100;
+
+		private Duration latencyThreshold = Duration.ofMillis(200);
+
+		private double backoffRatio = 0.5;
+
+		private int maxQueueSize = 0;
+
+		private Duration maxWait = Duration.ofSeconds(1);
+
+		private Builder(SeqSynchronizer delegate) {
+			this.delegate = delegate;
+		}
+
+		/**
+		 * 初始上限,默认10
+		 * @param initialLimit 初始上限
+		 * @return Builder
+		 */
+		public Builder initialLimit(int initialLimit) {
+			this.initialLimit = initialLimit;
+			return this;
+		}
+
+		/**
+		 * 上限的取值范围,默认 {@code [1,100]}. 最大值应当不超过连接池的大小
+		 * @param minLimit 最小值
+		 * @param maxLimit 最大值
+		 * @return Builder
+		 */
+		public Builder limitRange(int minLimit, int maxLimit) {
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			return this;
+		}
+
+		/**
+		 * 调用耗时超过此值时减小上限,默认200毫秒
+		 * @param latencyThreshold 耗时
+		 * @return Builder
+		 */
+		public Builder latencyThreshold(Duration latencyThreshold) {
+			this.latencyThreshold = latencyThreshold;
+			return this;
+		}
+
+		/**
+		 * 减小上限时乘以的比例,取值范围 {@code (0,1)},默认0.5
+		 * @param backoffRatio 比例
+		 * @return Builder
+		 */
+		public Builder backoffRatio(double backoffRatio) {
+			this.backoffRatio = backoffRatio;
+			return this;
+		}
+
+		/**
+		 * 超出上限时排队等待,默认不排队(直接失败)
+		 * @param maxQueueSize 队列容量
+		 * @param maxWait 最长等待时间
+		 * @return Builder
+		 */
+		public Builder queue(int maxQueueSize, Duration maxWait) {
+			this.maxQueueSize = maxQueueSize;
+			this.maxWait = maxWait;
+			return this;
+		}
+
+		public AdaptiveConcurrencySynchronizer build() {
+			return new AdaptiveConcurrencySynchronizer(this);
+		}
+
+	}
+
+}
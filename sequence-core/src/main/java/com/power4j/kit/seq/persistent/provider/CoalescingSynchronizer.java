@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.SeqSynchronizer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 合并并发的加法请求
+ * <p>
+ * 多个取号器共用一个同步器时,各自拉取号段的请求在 {@code window} 时间内或者达到 {@code maxBatchSize} 个时合并为一次
+ * {@link SeqSynchronizer#tryAddAndGetAll} 调用,每个请求得到自己的结果. 同一个序号的多个请求合并为一次加法,再按请求顺序拆分区间
+ * </p>
+ * <ul>
+ * <li>每一批的第一个请求负责等待和执行,不需要额外的线程</li>
+ * <li>{@code window} 越大合并效果越好,但是每次拉取最多增加 {@code window} 的延迟</li>
+ * <li>一批请求的重试次数取其中最大的,有请求不限制时整批不限制</li>
+ * </ul>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class CoalescingSynchronizer implements SeqSynchronizer {
+
+	private final SeqSynchronizer delegate;
+
+	private final long windowNanos;
+
+	private final int maxBatchSize;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition batchClosed = lock.newCondition();
+
+	private final AtomicLong batchCount = new AtomicLong();
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private Batch current;
+
+	/**
+	 * 构造
+	 * @param delegate 后端同步器
+	 * @param window 收集请求的最长时间
+	 * @param maxBatchSize 每批最多的请求数量
+	 */
+	public CoalescingSynchronizer(SeqSynchronizer delegate, Duration window, int maxBatchSize) {
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("Bad maxBatchSize: " + maxBatchSize);
+		}
+		this.delegate = Objects.requireNonNull(delegate);
+		this.windowNanos = TimeUnit.NANOSECONDS.convert(Objects.requireNonNull(window));
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	public boolean tryCreate(String name, String partition, long nextValue) {
+		return delegate.tryCreate(name, partition, nextValue);
+	}
+
+	@Override
+	public boolean tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		return delegate.tryUpdate(name, partition, nextValueOld, nextValueNew);
+	}
+
+	@Override
+	public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		final Pending pending = new Pending(AddRequest.of(name, partition, delta), maxReTry);
+		final Batch batch;
+		final boolean leader;
+		lock.lock();
+		try {
+			if (current == null) {
+				current = new Batch();
+			}
+			batch = current;
+			batch.items.add(pending);
+			leader = batch.items.size() == 1;
+			if (batch.items.size() >= maxBatchSize) {
+				current = null;
+				batchClosed.signalAll();
+			}
+			else if (leader) {
+				awaitBatch(batch);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+		if (leader) {
+			execute(batch.items);
+		}
+		try {
+			return pending.result.join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+		return delegate.tryAddAndGetAll(requests, maxReTry);
+	}
+
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		return delegate.tryAllocateAll(requests, initValue);
+	}
+
+	@Override
+	public int getMaxReTry() {
+		return delegate.getMaxReTry();
+	}
+
+	@Override
+	public Optional<Long> getNextValue(String name, String partition) {
+		return delegate.getNextValue(name, partition);
+	}
+
+	@Override
+	public void init() {
+		delegate.init();
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public long getQueryCounter() {
+		return delegate.getQueryCounter();
+	}
+
+	@Override
+	public long getUpdateCounter() {
+		return delegate.getUpdateCounter();
+	}
+
+	/**
+	 * 发送到后端的批次数量
+	 * @return
+	 */
+	public long getBatchCount() {
+		return batchCount.get();
+	}
+
+	/**
+	 * 收到的加法请求数量
+	 * @return
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * 等待批次装满或者超时,调用前必须持有锁
+	 */
+	private void awaitBatch(Batch batch) {
+		long nanos = windowNanos;
+		boolean interrupted = false;
+		while (current == batch && nanos > 0L) {
+			try {
+				nanos = batchClosed.awaitNanos(nanos);
+			}
+			catch (InterruptedException e) {
+				// 其他请求依赖这一批的结果,不能放弃
+				interrupted = true;
+				break;
+			}
+		}
+		if (current == batch) {
+			current = null;
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void execute(List<Pending> items) {
+		batchCount.incrementAndGet();
+		requestCount.addAndGet(items.size());
+		try {
+			final List<AddRequest> requests = new ArrayList<>(items.size());
+			int maxReTry = 0;
+			for (Pending pending : items) {
+				requests.add(pending.request);
+				maxReTry = maxReTry < 0 || pending.maxReTry < 0 ? -1 : Math.max(maxReTry, pending.maxReTry);
+			}
+			// 同一个序号合并为一次加法
+			final MergedRequests merged = MergedRequests.of(requests);
+			final List<AddState> states = merged.split(delegate.tryAddAndGetAll(merged.getMerged(), maxReTry));
+			for (int i = 0; i < items.size(); ++i) {
+				items.get(i).result.complete(states.get(i));
+			}
+		}
+		catch (RuntimeException e) {
+			for (Pending pending : items) {
+				pending.result.completeExceptionally(e);
+			}
+		}
+	}
+
+	private static final class Batch {
+
+		private final List<Pending> items = new ArrayList<>();
+
+	}
+
+	private static final class Pending {
+
+		private final AddRequest request;
+
+		private final int maxReTry;
+
+		private final CompletableFuture<AddState> result = new CompletableFuture<>();
+
+		Pending(AddRequest request, int maxReTry) {
+			this.request = request;
+			this.maxReTry = maxReTry;
+		}
+
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.SeqSynchronizer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 限制同时访问后端的数量
+ * <p>
+ * 大量线程(特别是虚拟线程)同时拉取号段时,超出限制的调用在信号量上排队,不会全部堆积在后端的连接池上. 等待超过 {@code acquireTimeout} 时抛出
+ * {@link SeqException}. 排队使用 {@link Semaphore},等待中的虚拟线程不会占用载体线程
+ * </p>
+ * <p>
+ * 限制应当与后端的容量匹配,比如不超过连接池的大小. 多个取号器共用同一个后端时,应当共用同一个实例
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class ConcurrencyLimitedSynchronizer implements SeqSynchronizer {
+
+	private final SeqSynchronizer delegate;
+
+	private final int maxConcurrency;
+
+	private final long acquireTimeoutNanos;
+
+	private final Semaphore permits;
+
+	private final AtomicLong timeoutCount = new AtomicLong();
+
+	/**
+	 * 构造
+	 * @param delegate 被限制的同步器
+	 * @param maxConcurrency 最多同时执行的调用数量
+	 * @param acquireTimeout 排队的最长时间
+	 */
+	public ConcurrencyLimitedSynchronizer(SeqSynchronizer delegate, int maxConcurrency, Duration acquireTimeout) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Bad maxConcurrency: " + maxConcurrency);
+		}
+		this.delegate = Objects.requireNonNull(delegate);
+		this.maxConcurrency = maxConcurrency;
+		this.acquireTimeoutNanos = TimeUnit.NANOSECONDS.convert(Objects.requireNonNull(acquireTimeout));
+		// 公平模式,避免大量排队的调用中有的一直拿不到许可
+		this.permits = new Semaphore(maxConcurrency, true);
+	}
+
+	@Override
+	public boolean tryCreate(String name, String partition, long nextValue) {
+		return call(() -> delegate.tryCreate(name, partition, nextValue));
+	}
+
+	@Override
+	public boolean tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		return call(() -> delegate.tryUpdate(name, partition, nextValueOld, nextValueNew));
+	}
+
+	@Override
+	public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		return call(() -> delegate.tryAddAndGet(name, partition, delta, maxReTry));
+	}
+
+	@Override
+	public List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+		return call(() -> delegate.tryAddAndGetAll(requests, maxReTry));
+	}
+
+	@Override
+	public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+		return call(() -> delegate.tryAllocate(name, partition, delta, initValue));
+	}
+
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		return call(() -> delegate.tryAllocateAll(requests, initValue));
+	}
+
+	@Override
+	public int getMaxReTry() {
+		return delegate.getMaxReTry();
+	}
+
+	@Override
+	public Optional<Long> getNextValue(String name, String partition) {
+		return call(() -> delegate.getNextValue(name, partition));
+	}
+
+	@Override
+	public void init() {
+		delegate.init();
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public long getQueryCounter() {
+		return delegate.getQueryCounter();
+	}
+
+	@Override
+	public long getUpdateCounter() {
+		return delegate.getUpdateCounter();
+	}
+
+	/**
+	 * 最多同时执行的调用数量
+	 * @return
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * 正在执行的调用数量
+	 * @return
+	 */
+	public int getActiveCount() {
+		return maxConcurrency - permits.availablePermits();
+	}
+
+	/**
+	 * 正在排队的调用数量(估计值)
+	 * @return
+	 */
+	public int getQueueLength() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * 排队超时的次数
+	 * @return
+	 */
+	public long getTimeoutCount() {
+		return timeoutCount.get();
+	}
+
+	private <T> T call(Supplier<T> task) {
+		acquire();
+		try {
+			return task.get();
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	private void acquire() {
+		try {
+			if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+				timeoutCount.incrementAndGet();
+				throw new SeqException("Backend busy: " + maxConcurrency + " calls in progress");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SeqException("Interrupted while waiting for backend", e);
+		}
+	}
+
+}
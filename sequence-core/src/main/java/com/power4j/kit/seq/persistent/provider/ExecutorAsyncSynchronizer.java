@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.AsyncSeqSynchronizer;
+import com.power4j.kit.seq.persistent.SeqSynchronizer;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 在线程池中执行阻塞的同步器,适用于没有异步驱动的后端(JDBC、MongoDB同步驱动等)
+ * <p>
+ * 线程池拒绝任务时以 {@link RejectedExecutionException} 异常结束,线程池的大小决定了同时访问后端的数量
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class ExecutorAsyncSynchronizer implements AsyncSeqSynchronizer {
+
+	private final SeqSynchronizer delegate;
+
+	private final Executor executor;
+
+	public ExecutorAsyncSynchronizer(SeqSynchronizer delegate, Executor executor) {
+		this.delegate = Objects.requireNonNull(delegate);
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryCreate(String name, String partition, long nextValue) {
+		return submit(() -> delegate.tryCreate(name, partition, nextValue));
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		return submit(() -> delegate.tryUpdate(name, partition, nextValueOld, nextValueNew));
+	}
+
+	@Override
+	public CompletionStage<AddState> tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		return submit(() -> delegate.tryAddAndGet(name, partition, delta, maxReTry));
+	}
+
+	@Override
+	public CompletionStage<AddState> tryAllocate(String name, String partition, int delta, long initValue) {
+		return submit(() -> delegate.tryAllocate(name, partition, delta, initValue));
+	}
+
+	@Override
+	public int getMaxReTry() {
+		return delegate.getMaxReTry();
+	}
+
+	@Override
+	public CompletionStage<Optional<Long>> getNextValue(String name, String partition) {
+		return submit(() -> delegate.getNextValue(name, partition));
+	}
+
+	private <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, executor);
+		}
+		catch (RejectedExecutionException e) {
+			final CompletableFuture<T> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+}
@@ -35,34 +35,6 @@ import java.sql.Connection;
 @AllArgsConstructor
 public class H2Synchronizer extends AbstractSqlStatementProvider implements SeqSynchronizer {
 
-	// @formatter:off
-
-	private final static String H2_CREATE_TABLE =
-            "CREATE TABLE IF NOT EXISTS $TABLE_NAME (" +
-                "seq_name VARCHAR ( 255 ) NOT NULL," +
-                "seq_partition VARCHAR ( 255 ) NOT NULL," +
-                "seq_next_value BIGINT NOT NULL," +
-                "seq_create_time TIMESTAMP NOT NULL," +
-                "seq_update_time TIMESTAMP NULL," +
-                "PRIMARY KEY ( `seq_name`, `seq_partition` ) " +
-            ")";
-
-	private final static String H2_DROP_TABLE = "DROP TABLE IF EXISTS $TABLE_NAME";
-
-	private final static String H2_INSERT_IGNORE =
-			"INSERT IGNORE INTO $TABLE_NAME" +
-					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
-					" VALUES (?,?,?,?)";
-
-	private final static String H2_UPDATE_VALUE =
-			"UPDATE $TABLE_NAME SET seq_next_value=?,seq_update_time=? " +
-					"WHERE seq_name=? AND seq_partition=? AND seq_next_value=?";
-
-	private final static String H2_SELECT_VALUE =
-			"SELECT seq_next_value FROM $TABLE_NAME WHERE seq_name=? AND seq_partition=?";
-
-    // @formatter:on
-
 	private final String tableName;
 
 	private final DataSource dataSource;
@@ -80,27 +52,47 @@ public class H2Synchronizer extends AbstractSqlStatementProvider implements SeqS
 
 	@Override
 	protected String getCreateTableSql() {
-		return H2_CREATE_TABLE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.H2.createTableSql(tableName);
 	}
 
 	@Override
 	protected String getDropTableSql() {
-		return H2_DROP_TABLE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.H2.dropTableSql(tableName);
 	}
 
 	@Override
 	protected String getCreateSeqSql() {
-		return H2_INSERT_IGNORE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.H2.insertIgnoreSql(tableName);
 	}
 
 	@Override
 	protected String getSelectSeqSql() {
-		return H2_SELECT_VALUE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.H2.selectSql(tableName);
 	}
 
 	@Override
 	protected String getUpdateSeqSql() {
-		return H2_UPDATE_VALUE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.H2.updateSql(tableName);
+	}
+
+	@Override
+	protected String getSelectSeqForUpdateSql() {
+		return SqlDialect.H2.selectForUpdateSql(tableName);
+	}
+
+	@Override
+	protected String getAllocateSeqSql() {
+		return SqlDialect.H2.allocateSql(tableName);
+	}
+
+	@Override
+	protected String getIncrementSeqSql() {
+		return SqlDialect.H2.incrementSql(tableName);
+	}
+
+	@Override
+	protected String getSelectSeqsSql(int count) {
+		return SqlDialect.H2.selectManySql(tableName, count);
 	}
 
 }
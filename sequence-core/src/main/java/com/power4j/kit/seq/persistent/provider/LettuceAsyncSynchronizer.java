@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.AsyncSeqSynchronizer;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisScriptingAsyncCommands;
+import io.lettuce.core.api.async.RedisStringAsyncCommands;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于Lettuce异步接口的同步器,数据格式与 {@link SimpleLettuceSynchronizer} 相同,可以访问同一份数据
+ * <p>
+ * Lettuce 的连接是线程安全的,所有请求共用一个连接,不需要连接池. 连接由调用方负责关闭
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class LettuceAsyncSynchronizer implements AsyncSeqSynchronizer {
+
+	private final String cacheName;
+
+	private final RedisStringAsyncCommands<String, String> stringCommands;
+
+	private final RedisScriptingAsyncCommands<String, String> scriptingCommands;
+
+	private final AtomicReference<CompletableFuture<String>> updateScript = new AtomicReference<>();
+
+	private final AtomicReference<CompletableFuture<String>> allocateScript = new AtomicReference<>();
+
+	private volatile boolean checkKey = true;
+
+	private <C extends RedisStringAsyncCommands<String, String> & RedisScriptingAsyncCommands<String, String>> LettuceAsyncSynchronizer(
+			String cacheName, C commands) {
+		this.cacheName = Objects.requireNonNull(cacheName);
+		this.stringCommands = commands;
+		this.scriptingCommands = commands;
+	}
+
+	/**
+	 * 使用单机连接
+	 * @param cacheName 缓存名称
+	 * @param connection 连接
+	 * @return LettuceAsyncSynchronizer
+	 */
+	public static LettuceAsyncSynchronizer of(String cacheName, StatefulRedisConnection<String, String> connection) {
+		return new LettuceAsyncSynchronizer(cacheName, connection.async());
+	}
+
+	/**
+	 * 使用集群连接
+	 * @param cacheName 缓存名称
+	 * @param connection 连接
+	 * @return LettuceAsyncSynchronizer
+	 */
+	public static LettuceAsyncSynchronizer ofCluster(String cacheName,
+			StatefulRedisClusterConnection<String, String> connection) {
+		return new LettuceAsyncSynchronizer(cacheName, connection.async());
+	}
+
+	protected String makeKey(String seqName, String partition) {
+		return cacheName + RedisConstants.KEY_DELIMITER + seqName + RedisConstants.KEY_DELIMITER + partition;
+	}
+
+	public boolean setKeyValidate(boolean check) {
+		final boolean old = checkKey;
+		checkKey = check;
+		return old;
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryCreate(String name, String partition, long nextValue) {
+		return stringCommands.setnx(makeKey(name, partition), Long.toString(nextValue));
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		final String[] keys = { makeKey(name, partition) };
+		return loadScript(updateScript, RedisConstants.UPDATE_SCRIPT)
+				.thenCompose(scriptId -> scriptingCommands.<Boolean>evalsha(scriptId, ScriptOutputType.BOOLEAN, keys,
+						Long.toString(nextValueOld), Long.toString(nextValueNew)));
+	}
+
+	@Override
+	public CompletionStage<AddState> tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		final String key = makeKey(name, partition);
+		final CompletionStage<Long> inc;
+		if (checkKey) {
+			inc = stringCommands.get(key).thenCompose(val -> {
+				if (val == null) {
+					final CompletableFuture<Long> future = new CompletableFuture<>();
+					future.completeExceptionally(new SeqException("Key not exists:" + key));
+					return future;
+				}
+				return stringCommands.incrby(key, delta);
+			});
+		}
+		else {
+			inc = stringCommands.incrby(key, delta);
+		}
+		return inc.thenApply(current -> AddState.success(current - delta, current, 1));
+	}
+
+	/**
+	 * 与 {@link AbstractLettuceSynchronizer#tryAllocate} 使用同一个脚本,一次调用完成创建和加法
+	 */
+	@Override
+	public CompletionStage<AddState> tryAllocate(String name, String partition, int delta, long initValue) {
+		final String[] keys = { makeKey(name, partition) };
+		return loadScript(allocateScript, RedisConstants.ALLOCATE_SCRIPT)
+				.thenCompose(scriptId -> scriptingCommands.<List<Long>>evalsha(scriptId, ScriptOutputType.MULTI, keys,
+						Long.toString(initValue), Integer.toString(delta)))
+				.thenApply(values -> {
+					final long current = values.get(0);
+					return AddState.success(current - delta, current, 1);
+				});
+	}
+
+	@Override
+	public CompletionStage<Optional<Long>> getNextValue(String name, String partition) {
+		return stringCommands.get(makeKey(name, partition))
+				.thenApply(val -> Optional.ofNullable(val).map(Long::parseLong));
+	}
+
+	/**
+	 * 加载脚本,只执行一次.加载失败时下次重新加载
+	 */
+	private CompletableFuture<String> loadScript(AtomicReference<CompletableFuture<String>> serverScript,
+			String source) {
+		final CompletableFuture<String> mine = new CompletableFuture<>();
+		CompletableFuture<String> script;
+		while ((script = serverScript.get()) == null) {
+			if (serverScript.compareAndSet(null, mine)) {
+				break;
+			}
+		}
+		if (script != null) {
+			return script;
+		}
+		scriptingCommands.scriptLoad(source).whenComplete((id, e) -> {
+			if (e != null) {
+				serverScript.compareAndSet(mine, null);
+				mine.completeExceptionally(e);
+			}
+			else {
+				mine.complete(id);
+			}
+		});
+		return mine;
+	}
+
+}
@@ -17,17 +17,29 @@
 package com.power4j.kit.seq.persistent.provider;
 
 import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.sync.RedisKeyCommands;
 import io.lettuce.core.api.sync.RedisScriptingCommands;
 import io.lettuce.core.api.sync.RedisStringCommands;
 import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
 import io.lettuce.core.support.ConnectionPoolSupport;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 /**
@@ -72,6 +84,54 @@ public class LettuceClusterSynchronizer extends AbstractLettuceSynchronizer impl
 		}
 	}
 
+	/**
+	 * 脚本只能访问同一个 slot 的 key,按 slot 分组后每组一次脚本调用,所有调用异步发送后统一等待结果
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		final Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+		for (int i = 0; i < requests.size(); ++i) {
+			final AddRequest request = requests.get(i);
+			slots.computeIfAbsent(SlotHash.getSlot(makeKey(request.getName(), request.getPartition())),
+					o -> new ArrayList<>()).add(i);
+		}
+		try (StatefulRedisClusterConnection<String, String> connection = getRedisConnection()) {
+			final String scriptId = allocateScriptId(connection.sync());
+			final List<List<AddRequest>> groups = new ArrayList<>(slots.size());
+			final List<RedisFuture<List<Long>>> futures = new ArrayList<>(slots.size());
+			for (List<Integer> indexes : slots.values()) {
+				final List<AddRequest> group = new ArrayList<>(indexes.size());
+				indexes.forEach(i -> group.add(requests.get(i)));
+				groups.add(group);
+				futures.add(connection.async().evalsha(scriptId, ScriptOutputType.MULTI, allocateKeys(group),
+						allocateArgs(group, initValue)));
+			}
+			if (!LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]))) {
+				throw new SeqException("Timeout: allocate " + requests.size() + " keys");
+			}
+			final AddState[] states = new AddState[requests.size()];
+			int group = 0;
+			for (List<Integer> indexes : slots.values()) {
+				final List<AddState> groupStates = allocateStates(groups.get(group), futures.get(group).get());
+				for (int i = 0; i < indexes.size(); ++i) {
+					states[indexes.get(i)] = groupStates.get(i);
+				}
+				++group;
+			}
+			return Arrays.asList(states);
+		}
+		catch (ExecutionException e) {
+			throw new SeqException(e.getMessage(), e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SeqException(e.getMessage(), e);
+		}
+	}
+
 	@Override
 	public void shutdown() {
 		pool.close();
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合并同一个序号的加法请求,执行后再按原始顺序拆分结果
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+final class MergedRequests {
+
+	private final List<AddRequest> original;
+
+	private final List<AddRequest> merged;
+
+	/**
+	 * 原始请求对应的合并请求下标
+	 */
+	private final int[] groupOf;
+
+	private MergedRequests(List<AddRequest> original) {
+		this.original = original;
+		this.merged = new ArrayList<>(original.size());
+		this.groupOf = new int[original.size()];
+		final Map<AddRequest, Integer> indexes = new HashMap<>(original.size());
+		for (int i = 0; i < original.size(); ++i) {
+			final AddRequest request = original.get(i);
+			final AddRequest key = AddRequest.of(request.getName(), request.getPartition(), 0);
+			final Integer index = indexes.get(key);
+			// 加数溢出时不再合并
+			if (index != null && (long) merged.get(index).getDelta() + request.getDelta() <= Integer.MAX_VALUE) {
+				final AddRequest group = merged.get(index);
+				merged.set(index,
+						AddRequest.of(group.getName(), group.getPartition(), group.getDelta() + request.getDelta()));
+				groupOf[i] = index;
+			}
+			else {
+				indexes.put(key, merged.size());
+				groupOf[i] = merged.size();
+				merged.add(request);
+			}
+		}
+	}
+
+	static MergedRequests of(List<AddRequest> requests) {
+		return new MergedRequests(requests);
+	}
+
+	/**
+	 * 合并后的请求,按照首次出现的顺序排列
+	 * @return
+	 */
+	List<AddRequest> getMerged() {
+		return merged;
+	}
+
+	/**
+	 * 按原始请求的顺序拆分结果,同一个序号的请求依次得到相邻的区间
+	 * @param states 合并请求的结果
+	 * @return 原始请求的结果
+	 */
+	List<AddState> split(List<AddState> states) {
+		final long[] cursors = new long[merged.size()];
+		for (int i = 0; i < cursors.length; ++i) {
+			final AddState state = states.get(i);
+			cursors[i] = state.isSuccess() ? state.getPrevious() : 0L;
+		}
+		final List<AddState> result = new ArrayList<>(original.size());
+		for (int i = 0; i < original.size(); ++i) {
+			final AddState state = states.get(groupOf[i]);
+			if (!state.isSuccess()) {
+				result.add(AddState.fail(state.getTotalOps()));
+				continue;
+			}
+			final long from = cursors[groupOf[i]];
+			final long to = from + original.get(i).getDelta();
+			result.add(AddState.success(from, to, state.getTotalOps()));
+			cursors[groupOf[i]] = to;
+		}
+		return result;
+	}
+
+}
@@ -23,6 +23,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * MySql支持
@@ -35,34 +39,6 @@ import java.sql.Connection;
 @AllArgsConstructor
 public class MySqlSynchronizer extends AbstractSqlStatementProvider implements SeqSynchronizer {
 
-	// @formatter:off
-
-	private final static String MYSQL_CREATE_TABLE =
-            "CREATE TABLE IF NOT EXISTS $TABLE_NAME (" +
-                "seq_name VARCHAR ( 255 ) NOT NULL," +
-                "seq_partition VARCHAR ( 255 ) NOT NULL," +
-                "seq_next_value BIGINT NOT NULL," +
-                "seq_create_time TIMESTAMP NOT NULL," +
-                "seq_update_time TIMESTAMP NULL," +
-                "PRIMARY KEY ( `seq_name`, `seq_partition` ) " +
-            ")";
-
-	private final static String MYSQL_DROP_TABLE = "DROP TABLE IF EXISTS $TABLE_NAME";
-
-	private final static String MYSQL_INSERT_IGNORE =
-			"INSERT IGNORE INTO $TABLE_NAME" +
-					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
-					" VALUES (?,?,?,?)";
-
-	private final static String MYSQL_UPDATE_VALUE =
-			"UPDATE $TABLE_NAME SET seq_next_value=?,seq_update_time=? " +
-					"WHERE seq_name=? AND seq_partition=? AND seq_next_value=?";
-
-	private final static String MYSQL_SELECT_VALUE =
-			"SELECT seq_next_value FROM $TABLE_NAME WHERE seq_name=? AND seq_partition=?";
-
-    // @formatter:on
-
 	private final String tableName;
 
 	private final DataSource dataSource;
@@ -78,29 +54,68 @@ public class MySqlSynchronizer extends AbstractSqlStatementProvider implements S
 		}
 	}
 
+	/**
+	 * 分配语句不返回结果集,加法后的值通过 {@code LAST_INSERT_ID(expr)} 作为自增主键返回. 记录被更新时驱动可能返回多个主键,只有第一个有效
+	 */
+	@Override
+	protected long allocateSeqValue(Connection connection, String name, String partition, int delta, long initValue)
+			throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(getAllocateSeqSql(),
+				Statement.RETURN_GENERATED_KEYS)) {
+			setAllocateParameters(statement, name, partition, delta, initValue);
+			statement.executeUpdate();
+			try (ResultSet keys = statement.getGeneratedKeys()) {
+				if (!keys.next()) {
+					throw new SeqException(String.format("No value returned: %s %s", name, partition));
+				}
+				return keys.getLong(1);
+			}
+		}
+	}
+
 	@Override
 	protected String getCreateTableSql() {
-		return MYSQL_CREATE_TABLE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.MYSQL.createTableSql(tableName);
 	}
 
 	@Override
 	protected String getDropTableSql() {
-		return MYSQL_DROP_TABLE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.MYSQL.dropTableSql(tableName);
 	}
 
 	@Override
 	protected String getCreateSeqSql() {
-		return MYSQL_INSERT_IGNORE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.MYSQL.insertIgnoreSql(tableName);
 	}
 
 	@Override
 	protected String getSelectSeqSql() {
-		return MYSQL_SELECT_VALUE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.MYSQL.selectSql(tableName);
 	}
 
 	@Override
 	protected String getUpdateSeqSql() {
-		return MYSQL_UPDATE_VALUE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.MYSQL.updateSql(tableName);
+	}
+
+	@Override
+	protected String getSelectSeqForUpdateSql() {
+		return SqlDialect.MYSQL.selectForUpdateSql(tableName);
+	}
+
+	@Override
+	protected String getAllocateSeqSql() {
+		return SqlDialect.MYSQL.allocateSql(tableName);
+	}
+
+	@Override
+	protected String getIncrementSeqSql() {
+		return SqlDialect.MYSQL.incrementSql(tableName);
+	}
+
+	@Override
+	protected String getSelectSeqsSql(int count) {
+		return SqlDialect.MYSQL.selectManySql(tableName, count);
 	}
 
 }
@@ -42,38 +42,6 @@ import java.util.Optional;
 @AllArgsConstructor
 public class PostgreSqlSynchronizer extends AbstractSqlStatementProvider implements SeqSynchronizer {
 
-	// @formatter:off
-
-	private final static String POSTGRESQL_CREATE_TABLE =
-			"CREATE TABLE IF NOT EXISTS $TABLE_NAME (" +
-					"seq_name VARCHAR ( 255 ) NOT NULL," +
-					"seq_partition VARCHAR ( 255 ) NOT NULL," +
-					"seq_next_value BIGINT NOT NULL," +
-					"seq_create_time TIMESTAMP NOT NULL," +
-					"seq_update_time TIMESTAMP NULL," +
-					"PRIMARY KEY ( seq_name, seq_partition ) " +
-					")";
-
-	private final static String POSTGRESQL_DROP_TABLE = "DROP TABLE IF EXISTS $TABLE_NAME";
-
-	private final static String POSTGRESQL_INSERT_IGNORE =
-			"INSERT INTO $TABLE_NAME" +
-					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
-					" VALUES (?,?,?,?) ON CONFLICT(seq_name, seq_partition) DO NOTHING";
-
-	private final static String POSTGRESQL_UPDATE_VALUE =
-			"UPDATE $TABLE_NAME SET seq_next_value=?,seq_update_time=? " +
-					"WHERE seq_name=? AND seq_partition=? AND seq_next_value=?";
-
-	private final static String POSTGRESQL_ADD_VALUE =
-			"UPDATE $TABLE_NAME SET seq_next_value=seq_next_value + ?,seq_update_time=? " +
-					"WHERE seq_name=? AND seq_partition=? RETURNING seq_next_value";
-
-	private final static String POSTGRESQL_SELECT_VALUE =
-			"SELECT seq_next_value FROM $TABLE_NAME WHERE seq_name=? AND seq_partition=?";
-
-	// @formatter:on
-
 	private final String tableName;
 
 	private final DataSource dataSource;
@@ -90,15 +58,10 @@ public class PostgreSqlSynchronizer extends AbstractSqlStatementProvider impleme
 	}
 
 	@Override
-	public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
-		try (Connection connection = getConnection()) {
-			return addAndGet(connection, name, partition, delta).map(val -> AddState.success(val - delta, val, 1))
-					.orElseThrow(() -> new SeqException(String.format("Not exist: %s %s", name, partition)));
-		}
-		catch (SQLException e) {
-			log.warn(e.getMessage(), e);
-			throw new SeqException(e.getMessage(), e);
-		}
+	protected AddState tryAddAndGet(Connection connection, String name, String partition, int delta, int maxReTry,
+			boolean backoff) throws SQLException {
+		return addAndGet(connection, name, partition, delta).map(val -> AddState.success(val - delta, val, 1))
+				.orElseThrow(() -> new SeqException(String.format("Not exist: %s %s", name, partition)));
 	}
 
 	/**
@@ -113,7 +76,7 @@ public class PostgreSqlSynchronizer extends AbstractSqlStatementProvider impleme
 	private Optional<Long> addAndGet(Connection connection, String name, String partition, int delta)
 			throws SQLException {
 		final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
-		final String sql = POSTGRESQL_ADD_VALUE.replace("$TABLE_NAME", tableName);
+		final String sql = SqlDialect.POSTGRESQL.addAndGetSql(tableName);
 		if (log.isDebugEnabled()) {
 			log.debug("Add Value Sql:[{}]", sql);
 		}
@@ -135,27 +98,42 @@ public class PostgreSqlSynchronizer extends AbstractSqlStatementProvider impleme
 
 	@Override
 	protected String getCreateTableSql() {
-		return POSTGRESQL_CREATE_TABLE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.POSTGRESQL.createTableSql(tableName);
 	}
 
 	@Override
 	protected String getDropTableSql() {
-		return POSTGRESQL_DROP_TABLE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.POSTGRESQL.dropTableSql(tableName);
 	}
 
 	@Override
 	protected String getCreateSeqSql() {
-		return POSTGRESQL_INSERT_IGNORE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.POSTGRESQL.insertIgnoreSql(tableName);
 	}
 
 	@Override
 	protected String getSelectSeqSql() {
-		return POSTGRESQL_SELECT_VALUE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.POSTGRESQL.selectSql(tableName);
 	}
 
 	@Override
 	protected String getUpdateSeqSql() {
-		return POSTGRESQL_UPDATE_VALUE.replace("$TABLE_NAME", tableName);
+		return SqlDialect.POSTGRESQL.updateSql(tableName);
+	}
+
+	@Override
+	protected String getAllocateSeqSql() {
+		return SqlDialect.POSTGRESQL.allocateSql(tableName);
+	}
+
+	@Override
+	protected String getIncrementSeqSql() {
+		return SqlDialect.POSTGRESQL.incrementSql(tableName);
+	}
+
+	@Override
+	protected String getSelectSeqsSql(int count) {
+		return SqlDialect.POSTGRESQL.selectManySql(tableName, count);
 	}
 
 }
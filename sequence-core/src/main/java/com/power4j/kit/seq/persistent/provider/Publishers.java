@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reactive Streams 发布者与 {@link CompletableFuture} 的转换,避免依赖具体的响应式框架
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+final class Publishers {
+
+	private Publishers() {
+	}
+
+	/**
+	 * 订阅并消费所有元素,发布者结束时以第一个元素完成
+	 * @param publisher 发布者
+	 * @param <T> 元素类型
+	 * @return 没有元素时以null完成
+	 */
+	static <T> CompletableFuture<T> first(Publisher<? extends T> publisher) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		publisher.subscribe(new Subscriber<T>() {
+
+			private T first;
+
+			private boolean received;
+
+			@Override
+			public void onSubscribe(Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(T item) {
+				if (!received) {
+					received = true;
+					first = item;
+				}
+			}
+
+			@Override
+			public void onError(Throwable e) {
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void onComplete() {
+				future.complete(first);
+			}
+
+		});
+		return future;
+	}
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.AsyncSeqSynchronizer;
+import com.power4j.kit.seq.persistent.SeqSynchronizer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * 基于R2DBC的异步同步器,SQL来自 {@link SqlDialect},表结构和更新语义与对应的JDBC同步器相同,可以访问同一张表
+ * <p>
+ * 每次操作从 {@link ConnectionFactory} 获取一个连接,用完后关闭,需要连接池时使用 r2dbc-pool 包装. 加法操作:
+ * <ul>
+ * <li>PostgreSQL: 一条 {@code UPDATE ... RETURNING} 语句完成,与 {@link PostgreSqlSynchronizer}
+ * 相同</li>
+ * <li>MySQL、H2: 先查询再比较更新,冲突时立即重试</li>
+ * </ul>
+ * 分配号段时 PostgreSQL 和 H2 使用 {@link SqlDialect#allocateSql} 一次完成; MySQL 的分配语句需要通过 JDBC 读取
+ * {@code LAST_INSERT_ID},这里退化为先创建再执行加法
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+@Slf4j
+public class R2dbcSynchronizer implements AsyncSeqSynchronizer {
+
+	private final ConnectionFactory connectionFactory;
+
+	private final String tableName;
+
+	private final SqlDialect dialect;
+
+	private volatile int maxReTry = SeqSynchronizer.DEFAULT_MAX_RETRY;
+
+	public R2dbcSynchronizer(ConnectionFactory connectionFactory, String tableName, SqlDialect dialect) {
+		this.connectionFactory = Objects.requireNonNull(connectionFactory);
+		this.tableName = Objects.requireNonNull(tableName);
+		this.dialect = Objects.requireNonNull(dialect);
+	}
+
+	/**
+	 * 设置 {@link #tryAllocate} 的最大重试次数,只对MySQL有效
+	 * @param maxReTry 不能小于0. 默认 {@link SeqSynchronizer#DEFAULT_MAX_RETRY}
+	 */
+	public void setMaxReTry(int maxReTry) {
+		if (maxReTry < 0) {
+			throw new IllegalArgumentException("Bad max retry: " + maxReTry);
+		}
+		this.maxReTry = maxReTry;
+	}
+
+	@Override
+	public int getMaxReTry() {
+		return maxReTry;
+	}
+
+	/**
+	 * 建表,表已经存在则忽略
+	 * @return 执行完成时结束
+	 */
+	public CompletionStage<Void> createMissingTable() {
+		return withConnection(connection -> rowsUpdated(connection.createStatement(dialect.createTableSql(tableName))))
+				.thenApply(rows -> null);
+	}
+
+	/**
+	 * 删表,表不存在则忽略
+	 * @return 执行完成时结束
+	 */
+	public CompletionStage<Void> dropTable() {
+		return withConnection(connection -> rowsUpdated(connection.createStatement(dialect.dropTableSql(tableName))))
+				.thenApply(rows -> null);
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryCreate(String name, String partition, long nextValue) {
+		return withConnection(connection -> {
+			final Statement statement = connection.createStatement(sql(dialect.insertIgnoreSql(tableName)))
+					.bind(0, name).bind(1, partition).bind(2, nextValue).bind(3, LocalDateTime.now());
+			return rowsUpdated(statement).thenApply(rows -> rows > 0);
+		});
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		return withConnection(connection -> update(connection, name, partition, nextValueOld, nextValueNew));
+	}
+
+	@Override
+	public CompletionStage<AddState> tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		final String addAndGet = dialect.addAndGetSql(tableName);
+		if (addAndGet == null) {
+			return withConnection(connection -> casAdd(connection, name, partition, delta, maxReTry, 0));
+		}
+		return withConnection(connection -> {
+			final Statement statement = connection.createStatement(sql(addAndGet)).bind(0, delta)
+					.bind(1, LocalDateTime.now()).bind(2, name).bind(3, partition);
+			return firstValue(statement);
+		}).thenApply(val -> val.map(current -> AddState.success(current - delta, current, 1))
+				.orElseThrow(() -> new SeqException(String.format("Not exist: %s %s", name, partition))));
+	}
+
+	/**
+	 * 记录不存在时创建,否则执行加法. PostgreSQL 和 H2 只需要一条语句
+	 */
+	@Override
+	public CompletionStage<AddState> tryAllocate(String name, String partition, int delta, long initValue) {
+		if (dialect == SqlDialect.MYSQL) {
+			return AsyncSeqSynchronizer.super.tryAllocate(name, partition, delta, initValue);
+		}
+		return withConnection(connection -> {
+			final LocalDateTime now = LocalDateTime.now();
+			final Statement statement = connection.createStatement(sql(dialect.allocateSql(tableName))).bind(0, name)
+					.bind(1, partition).bind(2, initValue + delta).bind(3, now).bind(4, delta).bind(5, now);
+			return firstValue(statement);
+		}).thenApply(val -> {
+			final long current = val
+					.orElseThrow(() -> new SeqException(String.format("Allocate failed: %s %s", name, partition)));
+			return AddState.success(current - delta, current, 1);
+		});
+	}
+
+	@Override
+	public CompletionStage<Optional<Long>> getNextValue(String name, String partition) {
+		return withConnection(connection -> select(connection, name, partition));
+	}
+
+	/**
+	 * 先查询再比较更新,与 {@link AbstractJdbcSynchronizer} 一样最多执行 {@code maxReTry + 2} 次
+	 */
+	private CompletionStage<AddState> casAdd(Connection connection, String name, String partition, int delta,
+			int maxReTry, int totalOps) {
+		return select(connection, name, partition).thenCompose(lastValue -> {
+			if (!lastValue.isPresent()) {
+				throw new SeqException(String.format("Not exist: %s %s", name, partition));
+			}
+			final long target = lastValue.get() + delta;
+			return update(connection, name, partition, lastValue.get(), target).thenCompose(done -> {
+				final int ops = totalOps + 1;
+				if (done) {
+					return CompletableFuture.completedFuture(AddState.success(lastValue.get(), target, ops));
+				}
+				if (maxReTry >= 0 && ops > maxReTry + 1) {
+					return CompletableFuture.completedFuture(AddState.fail(ops));
+				}
+				return casAdd(connection, name, partition, delta, maxReTry, ops);
+			});
+		});
+	}
+
+	private CompletionStage<Optional<Long>> select(Connection connection, String name, String partition) {
+		final Statement statement = connection.createStatement(sql(dialect.selectSql(tableName))).bind(0, name).bind(1,
+				partition);
+		return firstValue(statement);
+	}
+
+	private CompletionStage<Boolean> update(Connection connection, String name, String partition, long nextValueOld,
+			long nextValueNew) {
+		final Statement statement = connection.createStatement(sql(dialect.updateSql(tableName))).bind(0, nextValueNew)
+				.bind(1, LocalDateTime.now()).bind(2, name).bind(3, partition).bind(4, nextValueOld);
+		return rowsUpdated(statement).thenApply(rows -> rows > 0);
+	}
+
+	/**
+	 * 执行语句,返回影响的行数
+	 */
+	private static CompletionStage<Long> rowsUpdated(Statement statement) {
+		return Publishers.first(statement.execute())
+				.thenCompose(result -> Publishers.<Number>first(result.getRowsUpdated()))
+				.thenApply(rows -> rows == null ? 0L : rows.longValue());
+	}
+
+	/**
+	 * 执行查询,返回第一行第一列
+	 */
+	private static CompletionStage<Optional<Long>> firstValue(Statement statement) {
+		return Publishers.first(statement.execute())
+				.thenCompose(result -> Publishers.first(result.map((row, meta) -> row.get(0, Long.class))))
+				.thenApply(Optional::ofNullable);
+	}
+
+	/**
+	 * MySQL 驱动使用 {@code ?} 占位,其他驱动使用 {@code $1} 形式
+	 */
+	private String sql(String sql) {
+		return dialect == SqlDialect.MYSQL ? sql : SqlDialect.indexedParameters(sql);
+	}
+
+	/**
+	 * 获取连接执行操作,结束后关闭连接. 驱动的异常包装为 {@link SeqException}
+	 */
+	private <T> CompletableFuture<T> withConnection(Function<Connection, CompletionStage<T>> action) {
+		return Publishers.first(connectionFactory.create()).thenCompose(connection -> {
+			CompletionStage<T> stage;
+			try {
+				stage = action.apply(connection);
+			}
+			catch (RuntimeException e) {
+				final CompletableFuture<T> failed = new CompletableFuture<>();
+				failed.completeExceptionally(e);
+				stage = failed;
+			}
+			return stage.handle((val, e) -> Publishers.first(connection.close()).handle((closed, closeError) -> {
+				if (closeError != null) {
+					log.warn("Close connection failed: {}", closeError.getMessage());
+				}
+				if (e != null) {
+					throw wrap(e);
+				}
+				return val;
+			})).thenCompose(Function.identity());
+		}).exceptionally(e -> {
+			throw wrap(e);
+		});
+	}
+
+	private static CompletionException wrap(Throwable e) {
+		final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+		if (cause instanceof SeqException) {
+			return new CompletionException(cause);
+		}
+		log.warn(cause.getMessage(), cause);
+		return new CompletionException(new SeqException(cause.getMessage(), cause));
+	}
+
+}
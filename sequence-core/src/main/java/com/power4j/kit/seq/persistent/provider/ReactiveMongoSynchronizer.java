@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.AsyncSeqSynchronizer;
+import com.power4j.kit.seq.persistent.provider.SimpleMongoSynchronizer.DocKeys;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于MongoDB Reactive Streams驱动的异步同步器,文档格式与 {@link SimpleMongoSynchronizer} 相同,可以访问同一个集合
+ * <p>
+ * 首次访问时创建集合的唯一索引. 客户端由调用方负责关闭
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class ReactiveMongoSynchronizer implements AsyncSeqSynchronizer {
+
+	private final AtomicReference<CompletableFuture<MongoCollection<Document>>> collectionRef = new AtomicReference<>();
+
+	private final String dataBaseName;
+
+	private final String collectionName;
+
+	private final MongoClient mongoClient;
+
+	public ReactiveMongoSynchronizer(String dataBaseName, String collectionName, MongoClient mongoClient) {
+		this.dataBaseName = Objects.requireNonNull(dataBaseName);
+		this.collectionName = Objects.requireNonNull(collectionName);
+		this.mongoClient = Objects.requireNonNull(mongoClient);
+	}
+
+	/**
+	 * 删除集合
+	 * @return 删除完成时结束
+	 */
+	public CompletionStage<Void> dropCollection() {
+		final MongoCollection<Document> col = mongoClient.getDatabase(dataBaseName).getCollection(collectionName);
+		return Publishers.first(col.drop()).thenRun(() -> collectionRef.set(null));
+	}
+
+	protected Bson getSeqSelector(String name, String partition) {
+		return Filters.and(Filters.eq(DocKeys.KEY_SEQ_NAME, name), Filters.eq(DocKeys.KEY_SEQ_PARTITION, partition));
+	}
+
+	protected Bson getValueSelector(String name, String partition, Long value) {
+		return Filters.and(Filters.eq(DocKeys.KEY_SEQ_NAME, name), Filters.eq(DocKeys.KEY_SEQ_PARTITION, partition),
+				Filters.eq(DocKeys.KEY_SEQ_VALUE, value));
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryCreate(String name, String partition, long nextValue) {
+		final Document document = new Document();
+		document.put(DocKeys.KEY_SEQ_NAME, name);
+		document.put(DocKeys.KEY_SEQ_PARTITION, partition);
+		document.put(DocKeys.KEY_SEQ_VALUE, nextValue);
+		document.put(DocKeys.KEY_SEQ_CREATE_AT, LocalDateTime.now());
+		document.put(DocKeys.KEY_SEQ_UPDATE_AT, null);
+		return ensureCollection().thenCompose(col -> Publishers.first(col.insertOne(document))).handle((result, e) -> {
+			if (e == null) {
+				return true;
+			}
+			final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+			if (cause instanceof MongoWriteException && ErrorCategory
+					.fromErrorCode(((MongoWriteException) cause).getCode()) == ErrorCategory.DUPLICATE_KEY) {
+				return false;
+			}
+			throw new CompletionException(cause);
+		});
+	}
+
+	@Override
+	public CompletionStage<Boolean> tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+		final Bson query = getValueSelector(name, partition, nextValueOld);
+		final Bson op = Updates.combine(Updates.set(DocKeys.KEY_SEQ_VALUE, nextValueNew),
+				Updates.set(DocKeys.KEY_SEQ_UPDATE_AT, LocalDateTime.now()));
+		return ensureCollection().thenCompose(col -> Publishers.first(col.updateOne(query, op)))
+				.thenApply(result -> result != null && result.getModifiedCount() == 1);
+	}
+
+	@Override
+	public CompletionStage<AddState> tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+		final Bson query = getSeqSelector(name, partition);
+		final Bson op = Updates.combine(Updates.inc(DocKeys.KEY_SEQ_VALUE, delta),
+				Updates.set(DocKeys.KEY_SEQ_UPDATE_AT, LocalDateTime.now()));
+		final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE);
+		return ensureCollection().thenCompose(col -> Publishers.first(col.findOneAndUpdate(query, op, options)))
+				.thenApply(doc -> {
+					if (doc == null) {
+						return AddState.fail(1);
+					}
+					final long previous = doc.getLong(DocKeys.KEY_SEQ_VALUE);
+					return AddState.success(previous, previous + delta, 1);
+				});
+	}
+
+	/**
+	 * 与 {@link SimpleMongoSynchronizer#tryAllocate} 相同,先执行加法,记录不存在时再创建
+	 */
+	@Override
+	public CompletionStage<AddState> tryAllocate(String name, String partition, int delta, long initValue) {
+		return tryAddAndGet(name, partition, delta, -1).thenCompose(state -> {
+			if (state.isSuccess()) {
+				return CompletableFuture.completedFuture(state);
+			}
+			return tryCreate(name, partition, initValue + delta).thenCompose(created -> created
+					? CompletableFuture.completedFuture(AddState.success(initValue, initValue + delta, 1))
+					: tryAddAndGet(name, partition, delta, -1));
+		});
+	}
+
+	@Override
+	public CompletionStage<Optional<Long>> getNextValue(String name, String partition) {
+		final Bson query = getSeqSelector(name, partition);
+		return ensureCollection().thenCompose(col -> Publishers.first(col.find(query).first()))
+				.thenApply(doc -> Optional.ofNullable(doc == null ? null : doc.getLong(DocKeys.KEY_SEQ_VALUE)));
+	}
+
+	/**
+	 * 获取集合并创建索引,只执行一次.失败时下次重新执行
+	 */
+	private CompletableFuture<MongoCollection<Document>> ensureCollection() {
+		final CompletableFuture<MongoCollection<Document>> mine = new CompletableFuture<>();
+		CompletableFuture<MongoCollection<Document>> existing;
+		while ((existing = collectionRef.get()) == null) {
+			if (collectionRef.compareAndSet(null, mine)) {
+				break;
+			}
+		}
+		if (existing != null) {
+			return existing;
+		}
+		final MongoCollection<Document> col = mongoClient.getDatabase(dataBaseName).getCollection(collectionName);
+		Publishers.first(col.createIndex(
+				Indexes.compoundIndex(Indexes.ascending(DocKeys.KEY_SEQ_NAME, DocKeys.KEY_SEQ_PARTITION)),
+				new IndexOptions().unique(true))).whenComplete((idxName, e) -> {
+					if (e != null) {
+						collectionRef.compareAndSet(mine, null);
+						mine.completeExceptionally(e);
+					}
+					else {
+						mine.complete(col);
+					}
+				});
+		return mine;
+	}
+
+}
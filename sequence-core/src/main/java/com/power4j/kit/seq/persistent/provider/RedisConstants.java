@@ -40,6 +40,17 @@ public interface RedisConstants {
 			"    return false\n" +
 			"end";
 
+	/**
+	 * 批量分配: ARGV[1] 为初始值, ARGV[i + 1] 为 KEYS[i] 的加数,返回每个 key 加法后的值
+	 */
+	String ALLOCATE_SCRIPT = "" +
+			"local result = {}\n" +
+			"for i, key in ipairs(KEYS) do\n" +
+			"    redis.call(\"SET\", key, ARGV[1], \"NX\")\n" +
+			"    result[i] = redis.call(\"INCRBY\", key, ARGV[i + 1])\n" +
+			"end\n" +
+			"return result";
+
 	// @formatter:on
 
 }
@@ -16,17 +16,29 @@
 
 package com.power4j.kit.seq.persistent.provider;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
 import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.UpdateResult;
+import com.power4j.kit.seq.persistent.AddRequest;
 import com.power4j.kit.seq.persistent.AddState;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
 import lombok.AllArgsConstructor;
@@ -35,7 +47,12 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -48,12 +65,21 @@ import java.util.concurrent.atomic.AtomicReference;
 @AllArgsConstructor
 public class SimpleMongoSynchronizer implements SeqSynchronizer {
 
+	private static final int DUPLICATE_KEY = 11000;
+
+	/**
+	 * 单机部署不支持事务
+	 */
+	private static final int ILLEGAL_OPERATION = 20;
+
 	private final AtomicLong queryCount = new AtomicLong();
 
 	private final AtomicLong updateCount = new AtomicLong();
 
 	private final AtomicReference<MongoCollection<Document>> collectionRef = new AtomicReference<>();
 
+	private final AtomicBoolean transactionSupported = new AtomicBoolean(true);
+
 	private final String dataBaseName;
 
 	private final String collectionName;
@@ -138,6 +164,150 @@ public class SimpleMongoSynchronizer implements SeqSynchronizer {
 		return AddState.success(doc.getLong(DocKeys.KEY_SEQ_VALUE), doc.getLong(DocKeys.KEY_SEQ_VALUE) + delta, 1);
 	}
 
+	/**
+	 * 记录通常已经存在,先执行加法,记录不存在时再创建. {@code $inc} 和 {@code $setOnInsert} 不能作用于同一个字段,无法合并为一次
+	 * upsert
+	 * @param name
+	 * @param partition
+	 * @param delta 加数
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+		final AddState state = tryAddAndGet(name, partition, delta, -1);
+		if (state.isSuccess()) {
+			return state;
+		}
+		if (tryCreate(name, partition, initValue + delta)) {
+			return AddState.success(initValue, initValue + delta, 1);
+		}
+		return tryAddAndGet(name, partition, delta, -1);
+	}
+
+	/**
+	 * 通过一次 {@code bulkWrite} 创建所有缺失的记录,新创建的记录直接分配第一个号段. 已经存在的记录在一个事务中通过一次
+	 * {@code bulkWrite} 执行 {@code $inc},再通过一次 {@code find}
+	 * 读回新值,事务提交前其他写入方不能修改这些记录,读到的值就是本次加法的结果. 不支持事务(单机部署)或事务失败时逐个执行 {@link #tryAddAndGet}
+	 * @param requests 请求列表,同一个序号可以出现多次
+	 * @param initValue 记录不存在时的初始值
+	 * @return
+	 */
+	@Override
+	public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+		if (requests.isEmpty()) {
+			return new ArrayList<>();
+		}
+		final MongoCollection<Document> col = ensureCollection();
+		final MergedRequests merged = MergedRequests.of(requests);
+		final List<AddRequest> list = merged.getMerged();
+		final LocalDateTime now = LocalDateTime.now();
+		final List<WriteModel<Document>> models = new ArrayList<>(list.size());
+		for (AddRequest request : list) {
+			Bson op = Updates.combine(Updates.setOnInsert(DocKeys.KEY_SEQ_VALUE, initValue + request.getDelta()),
+					Updates.setOnInsert(DocKeys.KEY_SEQ_CREATE_AT, now));
+			models.add(new UpdateOneModel<>(getSeqSelector(request.getName(), request.getPartition()), op,
+					new UpdateOptions().upsert(true)));
+		}
+		final boolean[] created = new boolean[list.size()];
+		List<BulkWriteUpsert> upserts;
+		try {
+			BulkWriteResult result = col.bulkWrite(models, new BulkWriteOptions().ordered(false));
+			upserts = result.getUpserts();
+		}
+		catch (MongoBulkWriteException e) {
+			// 其他实例同时创建了记录,唯一索引冲突时按已经存在处理
+			for (BulkWriteError error : e.getWriteErrors()) {
+				if (error.getCode() != DUPLICATE_KEY) {
+					throw e;
+				}
+			}
+			upserts = e.getWriteResult().getUpserts();
+		}
+		updateCount.incrementAndGet();
+		for (BulkWriteUpsert upsert : upserts) {
+			created[upsert.getIndex()] = true;
+		}
+		final List<AddRequest> existing = new ArrayList<>(list.size());
+		for (int i = 0; i < list.size(); ++i) {
+			if (!created[i]) {
+				existing.add(list.get(i));
+			}
+		}
+		final Map<AddRequest, Long> values = existing.size() > 1 ? incrementAll(col, existing, now) : null;
+		final List<AddState> states = new ArrayList<>(list.size());
+		for (int i = 0; i < list.size(); ++i) {
+			final AddRequest request = list.get(i);
+			if (created[i]) {
+				states.add(AddState.success(initValue, initValue + request.getDelta(), 1));
+			}
+			else if (values != null) {
+				final long current = values.get(AddRequest.of(request.getName(), request.getPartition(), 0));
+				states.add(AddState.success(current - request.getDelta(), current, 1));
+			}
+			else {
+				states.add(tryAddAndGet(request.getName(), request.getPartition(), request.getDelta(), -1));
+			}
+		}
+		return merged.split(states);
+	}
+
+	/**
+	 * 在事务中批量执行加法并读回新值
+	 * @return 序号的新值, key 的 delta 为0. 不支持事务或事务失败时返回null,此时没有执行任何加法
+	 */
+	private Map<AddRequest, Long> incrementAll(MongoCollection<Document> col, List<AddRequest> requests,
+			LocalDateTime now) {
+		if (!transactionSupported.get()) {
+			return null;
+		}
+		final List<WriteModel<Document>> models = new ArrayList<>(requests.size());
+		final List<Bson> selectors = new ArrayList<>(requests.size());
+		for (AddRequest request : requests) {
+			final Bson selector = getSeqSelector(request.getName(), request.getPartition());
+			models.add(new UpdateOneModel<>(selector,
+					Updates.combine(Updates.inc(DocKeys.KEY_SEQ_VALUE, request.getDelta()),
+							Updates.set(DocKeys.KEY_SEQ_UPDATE_AT, now))));
+			selectors.add(selector);
+		}
+		try (ClientSession session = mongoClient.startSession()) {
+			session.startTransaction();
+			try {
+				col.bulkWrite(session, models, new BulkWriteOptions().ordered(false));
+				final Map<AddRequest, Long> values = new HashMap<>(requests.size());
+				for (Document doc : col.find(session, Filters.or(selectors))) {
+					values.put(AddRequest.of(doc.getString(DocKeys.KEY_SEQ_NAME),
+							doc.getString(DocKeys.KEY_SEQ_PARTITION), 0), doc.getLong(DocKeys.KEY_SEQ_VALUE));
+				}
+				if (values.size() != requests.size()) {
+					// 记录在创建之后被删除
+					session.abortTransaction();
+					return null;
+				}
+				session.commitTransaction();
+				updateCount.incrementAndGet();
+				queryCount.incrementAndGet();
+				return values;
+			}
+			catch (MongoException e) {
+				if (session.hasActiveTransaction()) {
+					session.abortTransaction();
+				}
+				throw e;
+			}
+		}
+		catch (MongoException e) {
+			if (e instanceof MongoCommandException && ((MongoCommandException) e).getErrorCode() == ILLEGAL_OPERATION) {
+				transactionSupported.set(false);
+				log.info("Transactions not supported, fall back to single updates: {}", e.getMessage());
+			}
+			else {
+				log.warn("Batch increment failed, fall back to single updates: {}", e.getMessage());
+			}
+			return null;
+		}
+	}
+
 	@Override
 	public Optional<Long> getNextValue(String name, String partition) {
 		queryCount.incrementAndGet();
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+/**
+ * 各数据库的SQL语句
+ * <p>
+ * 与访问方式(JDBC、R2DBC等)无关,所有实现使用相同的表结构和基于旧值比较的更新语义. 语句中的参数使用 {@code ?} 占位, 需要按位置编号的驱动可以使用
+ * {@link #indexedParameters(String)} 转换. 参数顺序:
+ * <ul>
+ * <li>插入: 名称, 分区, 初始值, 创建时间</li>
+ * <li>更新: 新值, 更新时间, 名称, 分区, 旧值</li>
+ * <li>查询、锁定查询: 名称, 分区</li>
+ * <li>加法、累加: 加数, 更新时间, 名称, 分区</li>
+ * <li>批量查询: 依次为每个记录的名称, 分区</li>
+ * <li>分配: 名称, 分区, 初始值(已经加上加数), 创建时间, 加数, 更新时间</li>
+ * </ul>
+ * </p>
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public enum SqlDialect {
+
+	// @formatter:off
+
+	/**
+	 * MySQL
+	 */
+	MYSQL(
+			"CREATE TABLE IF NOT EXISTS $TABLE_NAME (" +
+					"seq_name VARCHAR ( 255 ) NOT NULL," +
+					"seq_partition VARCHAR ( 255 ) NOT NULL," +
+					"seq_next_value BIGINT NOT NULL," +
+					"seq_create_time TIMESTAMP NOT NULL," +
+					"seq_update_time TIMESTAMP NULL," +
+					"PRIMARY KEY ( `seq_name`, `seq_partition` ) " +
+					")",
+			"INSERT IGNORE INTO $TABLE_NAME" +
+					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" VALUES (?,?,?,?)",
+			null,
+			"INSERT INTO $TABLE_NAME" +
+					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" VALUES (?,?,LAST_INSERT_ID(?),?)" +
+					" ON DUPLICATE KEY UPDATE seq_next_value=LAST_INSERT_ID(seq_next_value + ?),seq_update_time=?"),
+
+	/**
+	 * PostgreSQL
+	 */
+	POSTGRESQL(
+			"CREATE TABLE IF NOT EXISTS $TABLE_NAME (" +
+					"seq_name VARCHAR ( 255 ) NOT NULL," +
+					"seq_partition VARCHAR ( 255 ) NOT NULL," +
+					"seq_next_value BIGINT NOT NULL," +
+					"seq_create_time TIMESTAMP NOT NULL," +
+					"seq_update_time TIMESTAMP NULL," +
+					"PRIMARY KEY ( seq_name, seq_partition ) " +
+					")",
+			"INSERT INTO $TABLE_NAME" +
+					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" VALUES (?,?,?,?) ON CONFLICT(seq_name, seq_partition) DO NOTHING",
+			"UPDATE $TABLE_NAME SET seq_next_value=seq_next_value + ?,seq_update_time=? " +
+					"WHERE seq_name=? AND seq_partition=? RETURNING seq_next_value",
+			"INSERT INTO $TABLE_NAME AS seq" +
+					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" VALUES (?,?,?,?) ON CONFLICT(seq_name, seq_partition)" +
+					" DO UPDATE SET seq_next_value=seq.seq_next_value + ?,seq_update_time=?" +
+					" RETURNING seq.seq_next_value"),
+
+	/**
+	 * H2(MySQL 兼容模式)
+	 */
+	H2(
+			"CREATE TABLE IF NOT EXISTS $TABLE_NAME (" +
+					"seq_name VARCHAR ( 255 ) NOT NULL," +
+					"seq_partition VARCHAR ( 255 ) NOT NULL," +
+					"seq_next_value BIGINT NOT NULL," +
+					"seq_create_time TIMESTAMP NOT NULL," +
+					"seq_update_time TIMESTAMP NULL," +
+					"PRIMARY KEY ( `seq_name`, `seq_partition` ) " +
+					")",
+			"INSERT IGNORE INTO $TABLE_NAME" +
+					"(seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" VALUES (?,?,?,?)",
+			null,
+			"SELECT seq_next_value FROM FINAL TABLE (MERGE INTO $TABLE_NAME AS seq USING (VALUES (" +
+					"CAST(? AS VARCHAR(255)),CAST(? AS VARCHAR(255)),CAST(? AS BIGINT),CAST(? AS TIMESTAMP))" +
+					") AS src(seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" ON seq.seq_name=src.seq_name AND seq.seq_partition=src.seq_partition" +
+					" WHEN MATCHED THEN UPDATE SET seq_next_value=seq.seq_next_value + ?,seq_update_time=?" +
+					" WHEN NOT MATCHED THEN INSERT (seq_name,seq_partition,seq_next_value,seq_create_time)" +
+					" VALUES (src.seq_name,src.seq_partition,src.seq_next_value,src.seq_create_time))");
+
+	private final static String DROP_TABLE = "DROP TABLE IF EXISTS $TABLE_NAME";
+
+	private final static String UPDATE_VALUE =
+			"UPDATE $TABLE_NAME SET seq_next_value=?,seq_update_time=? " +
+					"WHERE seq_name=? AND seq_partition=? AND seq_next_value=?";
+
+	private final static String SELECT_VALUE =
+			"SELECT seq_next_value FROM $TABLE_NAME WHERE seq_name=? AND seq_partition=?";
+
+	private final static String INCREMENT_VALUE =
+			"UPDATE $TABLE_NAME SET seq_next_value=seq_next_value + ?,seq_update_time=? " +
+					"WHERE seq_name=? AND seq_partition=?";
+
+	private final static String SELECT_VALUES =
+			"SELECT seq_name,seq_partition,seq_next_value FROM $TABLE_NAME WHERE ";
+
+	private final static String SELECT_VALUES_CONDITION = "(seq_name=? AND seq_partition=?)";
+
+	// @formatter:on
+
+	private final static String TABLE_NAME = "$TABLE_NAME";
+
+	private final String createTable;
+
+	private final String insertIgnore;
+
+	private final String addValue;
+
+	private final String allocate;
+
+	SqlDialect(String createTable, String insertIgnore, String addValue, String allocate) {
+		this.createTable = createTable;
+		this.insertIgnore = insertIgnore;
+		this.addValue = addValue;
+		this.allocate = allocate;
+	}
+
+	/**
+	 * 建表,表已经存在则忽略
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String createTableSql(String tableName) {
+		return createTable.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 删表,表不存在则忽略
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String dropTableSql(String tableName) {
+		return DROP_TABLE.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 创建记录,记录已经存在则忽略
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String insertIgnoreSql(String tableName) {
+		return insertIgnore.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 旧值相同时更新记录
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String updateSql(String tableName) {
+		return UPDATE_VALUE.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 查询记录
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String selectSql(String tableName) {
+		return SELECT_VALUE.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 查询并锁定记录,需要在事务中执行
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String selectForUpdateSql(String tableName) {
+		return SELECT_VALUE.replace(TABLE_NAME, tableName) + " FOR UPDATE";
+	}
+
+	/**
+	 * 无条件累加,不返回结果.需要在事务中与 {@link #selectManySql} 配合使用
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String incrementSql(String tableName) {
+		return INCREMENT_VALUE.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 查询多个记录,结果列依次为名称、分区、值
+	 * @param tableName 表名称
+	 * @param count 记录数量
+	 * @return SQL
+	 */
+	public String selectManySql(String tableName, int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("Bad count: " + count);
+		}
+		final StringBuilder builder = new StringBuilder(SELECT_VALUES.replace(TABLE_NAME, tableName));
+		for (int i = 0; i < count; ++i) {
+			builder.append(i == 0 ? "" : " OR ").append(SELECT_VALUES_CONDITION);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 加法操作并返回结果,不支持时需要先查询再更新
+	 * @param tableName 表名称
+	 * @return SQL,不支持时返回null
+	 */
+	public String addAndGetSql(String tableName) {
+		return addValue == null ? null : addValue.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 分配号段:记录不存在时创建,否则执行加法,在一条语句中完成并返回加法后的值
+	 * <ul>
+	 * <li>PostgreSQL: {@code INSERT ... ON CONFLICT DO UPDATE ... RETURNING}</li>
+	 * <li>H2: 不支持 {@code ON CONFLICT DO UPDATE},使用
+	 * {@code SELECT ... FROM FINAL TABLE (MERGE ...)}</li>
+	 * <li>MySQL: {@code ON DUPLICATE KEY UPDATE},结果通过 {@code LAST_INSERT_ID(expr)} 写入
+	 * {@code LAST_INSERT_ID}, 执行后读取自增主键(JDBC 的
+	 * {@code getGeneratedKeys})得到,语句本身不返回结果集</li>
+	 * </ul>
+	 * @param tableName 表名称
+	 * @return SQL
+	 */
+	public String allocateSql(String tableName) {
+		return allocate.replace(TABLE_NAME, tableName);
+	}
+
+	/**
+	 * 把 {@code ?} 占位符转换为 {@code $1}、{@code $2} 形式,SQL中不能包含带 {@code ?} 的字符串常量
+	 * @param sql SQL
+	 * @return 转换后的SQL
+	 */
+	public static String indexedParameters(String sql) {
+		final StringBuilder builder = new StringBuilder(sql.length() + 8);
+		int index = 0;
+		for (int i = 0; i < sql.length(); ++i) {
+			final char c = sql.charAt(i);
+			if (c == '?') {
+				builder.append('$').append(++index);
+			}
+			else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+}
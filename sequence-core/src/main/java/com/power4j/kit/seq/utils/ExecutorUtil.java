@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+@UtilityClass
+public class ExecutorUtil {
+
+	/**
+	 * 预取线程数量的环境变量,默认为 {@code min(4, CPU数量)}
+	 */
+	public static final String ENV_PREFETCH_THREADS = "SEQ_PREFETCH_THREADS";
+
+	/**
+	 * 预取任务队列的容量
+	 */
+	public static final int PREFETCH_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * 所有取号器共享的预取线程池
+	 * <p>
+	 * 线程数量和队列容量都是有限的,队列满时提交任务会抛出
+	 * {@link java.util.concurrent.RejectedExecutionException}.使用守护线程,空闲的线程会被回收
+	 * </p>
+	 * @return Executor
+	 */
+	public static Executor sharedPrefetchExecutor() {
+		return PrefetchExecutorHolder.INSTANCE;
+	}
+
+	/**
+	 * 共享的定时任务线程池,只有一个守护线程,任务应当尽快结束
+	 * @return ScheduledExecutorService
+	 */
+	public static ScheduledExecutorService sharedScheduler() {
+		return SchedulerHolder.INSTANCE;
+	}
+
+	/**
+	 * 共享的虚拟线程执行器,每个任务使用一个新的虚拟线程
+	 * <p>
+	 * 需要 JDK 21 及以上版本,低版本返回空. 虚拟线程的数量不受限制,访问后端的并发数量需要另外限制,参考
+	 * {@link com.power4j.kit.seq.persistent.provider.ConcurrencyLimitedSynchronizer}
+	 * </p>
+	 * @return Executor
+	 */
+	public static Optional<Executor> virtualThreadExecutor() {
+		return Optional.ofNullable(VirtualThreadExecutorHolder.INSTANCE);
+	}
+
+	/**
+	 * 创建守护线程的工厂
+	 * @param namePrefix 线程名称前缀
+	 * @return ThreadFactory
+	 */
+	public static ThreadFactory daemonThreadFactory(String namePrefix) {
+		final AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private static class SchedulerHolder {
+
+		private static final ScheduledThreadPoolExecutor INSTANCE;
+
+		static {
+			INSTANCE = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("seq-scheduler-"));
+			INSTANCE.setRemoveOnCancelPolicy(true);
+		}
+
+	}
+
+	private static class VirtualThreadExecutorHolder {
+
+		private static final Executor INSTANCE;
+
+		static {
+			Executor executor;
+			try {
+				// 编译目标是 Java 11,只能通过反射调用
+				executor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}
+			catch (ReflectiveOperationException e) {
+				executor = null;
+			}
+			INSTANCE = executor;
+		}
+
+	}
+
+	private static class PrefetchExecutorHolder {
+
+		private static final ThreadPoolExecutor INSTANCE;
+
+		static {
+			final int threads = Math.max(1,
+					EnvUtil.getInt(ENV_PREFETCH_THREADS, Math.min(4, Runtime.getRuntime().availableProcessors())));
+			INSTANCE = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(PREFETCH_QUEUE_CAPACITY), daemonThreadFactory("seq-prefetch-"),
+					new ThreadPoolExecutor.AbortPolicy());
+			INSTANCE.allowCoreThreadTimeOut(true);
+		}
+
+	}
+
+}
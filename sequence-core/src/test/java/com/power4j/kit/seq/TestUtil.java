@@ -43,4 +43,13 @@ public class TestUtil {
 		}
 	}
 
+	public void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 }
@@ -16,6 +16,8 @@
 
 package com.power4j.kit.seq.core;
 
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.exceptions.SeqException;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
 import org.junit.Test;
@@ -32,6 +34,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -131,6 +134,56 @@ public class LongSeqPoolTest {
 		Assert.assertFalse(val.isPresent());
 	}
 
+	@Test
+	public void primitiveTest() {
+		LongSeqPool pool = LongSeqPool.forRange(poolName, 0, 1, false);
+		Assert.assertEquals(0L, pool.nextLong());
+		Assert.assertEquals(1L, pool.tryNextLong());
+		Assert.assertEquals(LongSequence.NO_VALUE, pool.tryNextLong());
+		Assert.assertThrows(SeqException.class, pool::nextLong);
+	}
+
+	@Test
+	public void nextBatchTest() {
+		LongSeqPool pool = LongSeqPool.forRange(poolName, 1, 10, false);
+
+		Optional<LongRange> range = pool.nextBatch(4);
+		Assert.assertTrue(range.isPresent());
+		Assert.assertEquals(LongRange.of(1, 4), range.get());
+		Assert.assertEquals(5L, pool.next().longValue());
+
+		// 剩余数量不足,只返回剩余部分
+		range = pool.nextBatch(100);
+		Assert.assertTrue(range.isPresent());
+		Assert.assertEquals(6L, range.get().getFrom());
+		Assert.assertEquals(10L, range.get().getLast());
+		Assert.assertEquals(5L, range.get().size());
+
+		Assert.assertFalse(pool.nextBatch(1).isPresent());
+		Assert.assertFalse(pool.hasMore());
+	}
+
+	@Test
+	public void nextBatchMaxValueTest() {
+		LongSeqPool pool = LongSeqPool.startFrom(poolName, LongSeqPool.MAX_VALUE - 2, false);
+		Optional<LongRange> range = pool.nextBatch(Integer.MAX_VALUE);
+		Assert.assertTrue(range.isPresent());
+		Assert.assertEquals(3L, range.get().size());
+		Assert.assertEquals(LongSeqPool.MAX_VALUE, range.get().getLast());
+		Assert.assertFalse(pool.nextBatch(1).isPresent());
+		Assert.assertFalse(pool.nextOpt().isPresent());
+	}
+
+	@Test
+	public void nextBatchRollingTest() {
+		LongSeqPool pool = LongSeqPool.forRange(poolName, 0, 9, true);
+		Assert.assertEquals(LongRange.of(0, 8), pool.nextBatch(8).get());
+		// 到达末尾后回到起始值
+		Assert.assertEquals(LongRange.of(8, 2), pool.nextBatch(8).get());
+		Assert.assertEquals(LongRange.of(0, 3), pool.nextBatch(3).get());
+		Assert.assertEquals(3L, pool.take());
+	}
+
 	@Test
 	public void forkTest() {
 		final long start = 10L;
@@ -209,6 +262,40 @@ public class LongSeqPoolTest {
 		Assert.assertEquals(bad.size(), 0);
 	}
 
+	@Test
+	public void nonRollingThreadSafetyTest() {
+		checkNonRolling(LongSeqPool.forRange(poolName, 1, 20000, false));
+		checkNonRolling(LongSeqPool.padded(poolName, 1, 20000, false));
+	}
+
+	/**
+	 * 多个线程并发取号直到号池耗尽,每个序号只能被取出一次
+	 * @param pool
+	 */
+	private void checkNonRolling(LongSeqPool pool) {
+		final int threads = Runtime.getRuntime().availableProcessors() * 2 + 1;
+		final Set<Long> all = ConcurrentHashMap.newKeySet();
+		final AtomicLong taken = new AtomicLong();
+		final CountDownLatch completed = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int thread = 0; thread < threads; ++thread) {
+			CompletableFuture.runAsync(() -> {
+				Optional<Long> val;
+				while ((val = (taken.get() % 2 == 0 ? pool.nextOpt() : pool.nextBatch(3).map(LongRange::getFrom)))
+						.isPresent()) {
+					all.add(val.get());
+					taken.incrementAndGet();
+				}
+				completed.countDown();
+			}, executorService);
+		}
+		TestUtil.wait(completed);
+		executorService.shutdown();
+		Assert.assertFalse(pool.hasMore());
+		Assert.assertEquals(0L, pool.remaining());
+		Assert.assertEquals(taken.get(), all.size());
+	}
+
 	public static <T> List<List<T>> splitCollection(Collection<T> collection, int size) {
 		final List<List<T>> result = new ArrayList<>();
 
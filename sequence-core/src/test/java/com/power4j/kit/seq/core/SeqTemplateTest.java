@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SeqTemplateTest {
+
+	private final long[] values = { 0L, 1L, 9L, 10L, 12345678L, 123456789L, -1L, -12345L, Long.MAX_VALUE,
+			Long.MIN_VALUE };
+
+	@Test
+	public void formatTest() {
+		checkSame("{name}.{partition}.{seq:08}", "%s.%s.%08d");
+		checkSame("{partition}{seq:10}", "%2$s%3$10d");
+		checkSame("{partition}{seq:06}", "%2$s%3$06d");
+		checkSame("{seq}", "%3$d");
+		checkSame("{{{name}}}-{seq:3}@{partition}", "{%1$s}-%3$3d@%2$s");
+	}
+
+	@Test
+	public void sinkTest() {
+		SeqTemplate template = SeqTemplate.compile("{name}-{partition}-{seq:08}");
+		for (long value : values) {
+			String expected = template.format("订单", "2026", value);
+
+			StringBuilder builder = new StringBuilder("x");
+			template.formatTo("订单", "2026", value, builder);
+			Assert.assertEquals("x" + expected, builder.toString());
+
+			char[] chars = new char[64];
+			int len = template.formatTo("订单", "2026", value, chars, 3);
+			Assert.assertEquals(expected, new String(chars, 3, len));
+
+			ByteBuffer buffer = ByteBuffer.allocate(64);
+			buffer.put((byte) 'x');
+			int bytes = template.formatTo("订单", "2026", value, buffer);
+			Assert.assertEquals(1 + bytes, buffer.position());
+			Assert.assertEquals(expected, new String(buffer.array(), 1, bytes, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void partitionChangeTest() {
+		SeqTemplate template = SeqTemplate.compile("{partition}{seq:04}");
+		Assert.assertEquals("A0001", template.format("a", "A", 1L));
+		Assert.assertEquals("A0002", template.format("b", "A", 2L));
+		Assert.assertEquals("B0003", template.format("a", "B", 3L));
+		Assert.assertEquals("null0004", template.format("a", null, 4L));
+	}
+
+	@Test
+	public void sharedTemplateTest() throws InterruptedException, ExecutionException {
+		// 多个名称和分区交替使用同一个模板,数量超过缓存槽位
+		final SeqTemplate template = SeqTemplate.compile("{name}-{partition}-{seq:06}");
+		final int threads = 4;
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; ++t) {
+				final int seed = t;
+				futures.add(executorService.submit(() -> {
+					ByteBuffer buffer = ByteBuffer.allocate(64);
+					for (int i = 0; i < 20000; ++i) {
+						String name = "seq" + ((i + seed) % 5);
+						String partition = "P" + ((i * 7 + seed) % 11);
+						String expected = String.format("%s-%s-%06d", name, partition, i);
+						Assert.assertEquals(expected, template.format(name, partition, i));
+						buffer.clear();
+						int bytes = template.formatTo(name, partition, i, buffer);
+						Assert.assertEquals(expected, new String(buffer.array(), 0, bytes, StandardCharsets.UTF_8));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void overflowTest() {
+		SeqTemplate template = SeqTemplate.compile("{partition}{seq:08}");
+		ByteBuffer buffer = ByteBuffer.allocate(9);
+		try {
+			template.formatTo("a", "AB", 1L, buffer);
+			Assert.fail();
+		}
+		catch (BufferOverflowException e) {
+			Assert.assertEquals(0, buffer.position());
+		}
+		try {
+			template.formatTo("a", "AB", 1L, new char[9], 0);
+			Assert.fail();
+		}
+		catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void badTemplateTest() {
+		String[] bad = { "{name}", "{seq}{seq}", "{seq", "seq}", "{foo}{seq}", "{seq:x}" };
+		for (String template : bad) {
+			try {
+				SeqTemplate.compile(template);
+				Assert.fail(template);
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	private void checkSame(String template, String format) {
+		SeqFormatter formatter = SeqFormatter.compile(template);
+		for (long value : values) {
+			Assert.assertEquals(String.format(format, "seq-name", "202010", value),
+					formatter.format("seq-name", "202010", value));
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.power4j.kit.seq.ext;
+
+import com.power4j.kit.seq.core.Sequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class ConcurrentSequenceRegistryTest extends InMemorySequenceRegistryTest {
+
+	@Override
+	protected SequenceRegistry<Long, Sequence<Long>> createRegistry() {
+		return new ConcurrentSequenceRegistry<>();
+	}
+
+	@Test
+	public void lruTest() {
+		final List<String> evicted = new ArrayList<>();
+		final ConcurrentSequenceRegistry<Long, Sequence<Long>> registry = ConcurrentSequenceRegistry
+				.<Long, Sequence<Long>>builder().maxSize(2).evictionListener((name, seq) -> evicted.add(name))
+				.listenerExecutor(Runnable::run).build();
+		registry.getOrRegister("A", this::createSeq);
+		registry.getOrRegister("B", this::createSeq);
+		registry.getOrRegister("C", this::createSeq);
+		Assert.assertEquals(2, registry.size());
+		Assert.assertEquals(1, evicted.size());
+		Assert.assertFalse(registry.get(evicted.get(0)).isPresent());
+		Assert.assertTrue(registry.get("C").isPresent());
+	}
+
+	@Test
+	public void batchEvictTest() throws Exception {
+		final List<String> evicted = new ArrayList<>();
+		final List<Runnable> pending = new ArrayList<>();
+		final ConcurrentSequenceRegistry<Long, Sequence<Long>> registry = ConcurrentSequenceRegistry
+				.<Long, Sequence<Long>>builder().maxSize(32).evictionListener((name, seq) -> evicted.add(name))
+				.listenerExecutor(pending::add).build();
+		for (int i = 0; i < 33; ++i) {
+			registry.getOrRegister("S" + i, this::createSeq);
+			TimeUnit.MILLISECONDS.sleep(1L);
+		}
+		// 一次多淘汰 maxSize/16 个,之后的注册不需要扫描
+		Assert.assertEquals(30, registry.size());
+		registry.getOrRegister("S33", this::createSeq);
+		Assert.assertEquals(31, registry.size());
+
+		// 监听器不在注册的线程中执行
+		Assert.assertTrue(evicted.isEmpty());
+		Assert.assertEquals(1, pending.size());
+		pending.remove(0).run();
+		Assert.assertEquals(Arrays.asList("S0", "S1", "S2"), evicted);
+	}
+
+	@Test
+	public void idleTest() throws Exception {
+		final List<String> evicted = new ArrayList<>();
+		final ConcurrentSequenceRegistry<Long, Sequence<Long>> registry = ConcurrentSequenceRegistry
+				.<Long, Sequence<Long>>builder().idleTimeout(Duration.ofMillis(1))
+				.evictionListener((name, seq) -> evicted.add(name)).listenerExecutor(Runnable::run).build();
+		registry.getOrRegister("A", this::createSeq);
+		TimeUnit.MILLISECONDS.sleep(20L);
+		registry.getOrRegister("B", this::createSeq);
+		Assert.assertEquals(1, registry.size());
+		Assert.assertEquals("A", evicted.get(0));
+		// 主动移除不通知监听器
+		Assert.assertTrue(registry.remove("B").isPresent());
+		Assert.assertEquals(1, evicted.size());
+	}
+
+	@Test
+	public void perKeyCreateTest() throws Exception {
+		final ConcurrentSequenceRegistry<Long, Sequence<Long>> registry = new ConcurrentSequenceRegistry<>();
+		final CountDownLatch creating = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		final AtomicInteger created = new AtomicInteger();
+		final CompletableFuture<Sequence<Long>> slow = CompletableFuture
+				.supplyAsync(() -> registry.getOrRegister("slow", name -> {
+					created.incrementAndGet();
+					creating.countDown();
+					try {
+						proceed.await();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return createSeq(name);
+				}));
+		Assert.assertTrue(creating.await(5, TimeUnit.SECONDS));
+		final CompletableFuture<Sequence<Long>> waiter = CompletableFuture
+				.supplyAsync(() -> registry.getOrRegister("slow", name -> {
+					created.incrementAndGet();
+					return createSeq(name);
+				}));
+
+		// 其他名称不受影响
+		Assert.assertEquals(1L, registry.getOrRegister("fast", this::createSeq).next().longValue());
+		Assert.assertFalse(waiter.isDone());
+
+		proceed.countDown();
+		Assert.assertSame(slow.get(5, TimeUnit.SECONDS), waiter.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, created.get());
+	}
+
+	@Test
+	public void createFailureTest() {
+		final ConcurrentSequenceRegistry<Long, Sequence<Long>> registry = new ConcurrentSequenceRegistry<>();
+		Assert.assertThrows(IllegalStateException.class, () -> registry.getOrRegister("A", name -> {
+			throw new IllegalStateException("backend down");
+		}));
+		Assert.assertEquals(0, registry.size());
+		Assert.assertEquals(1L, registry.getOrRegister("A", this::createSeq).next().longValue());
+	}
+
+}
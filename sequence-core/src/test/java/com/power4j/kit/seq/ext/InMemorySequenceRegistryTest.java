@@ -41,6 +41,10 @@ public class InMemorySequenceRegistryTest {
 				.build();
 	}
 
+	protected SequenceRegistry<Long, Sequence<Long>> createRegistry() {
+		return new InMemorySequenceRegistry<>();
+	}
+
 	@Before
 	public void setup() {
 		seqSynchronizer = new InMemorySeqSynchronizer();
@@ -51,7 +55,7 @@ public class InMemorySequenceRegistryTest {
 		final String nameA100 = "A100";
 		final String nameA200 = "A200";
 
-		SequenceRegistry<Long, Sequence<Long>> registry = new InMemorySequenceRegistry<>();
+		SequenceRegistry<Long, Sequence<Long>> registry = createRegistry();
 		Sequence<Long> a100 = registry.get(nameA100).orElse(null);
 		Assert.assertNull(a100);
 
@@ -77,7 +81,7 @@ public class InMemorySequenceRegistryTest {
 
 	@Test
 	public void getOrRegisterTest() {
-		SequenceRegistry<Long, Sequence<Long>> registry = new InMemorySequenceRegistry<>();
+		SequenceRegistry<Long, Sequence<Long>> registry = createRegistry();
 		String nameTemplate = "Biz_%03d";
 
 		// 每个Sequence 使用一次
@@ -109,7 +113,7 @@ public class InMemorySequenceRegistryTest {
 		final int mod = 3;
 		AtomicInteger count = new AtomicInteger();
 		Supplier<String> rolling = () -> Integer.toString(count.getAndIncrement() % mod);
-		SequenceRegistry<Long, Sequence<Long>> registry = new InMemorySequenceRegistry<>();
+		SequenceRegistry<Long, Sequence<Long>> registry = createRegistry();
 		String nameTemplate = "R%02d";
 
 		List<String> results = new ArrayList<>(32);
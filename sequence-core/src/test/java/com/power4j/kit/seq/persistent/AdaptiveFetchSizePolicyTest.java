@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.persistent.provider.InMemorySeqSynchronizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveFetchSizePolicyTest {
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	private final FetchSizePolicy policy = new AdaptiveFetchSizePolicy(Duration.ofSeconds(15), 100, 1000,
+			nanoTime::get);
+
+	@Test
+	public void growTest() {
+		Assert.assertEquals(100, policy.nextFetchSize());
+		// 1秒就用完了,每次最多扩大为2倍
+		tick(1);
+		Assert.assertEquals(200, policy.nextFetchSize());
+		tick(1);
+		Assert.assertEquals(400, policy.nextFetchSize());
+		tick(1);
+		Assert.assertEquals(800, policy.nextFetchSize());
+		tick(1);
+		Assert.assertEquals(1000, policy.nextFetchSize());
+		Assert.assertEquals(1000, policy.currentFetchSize());
+	}
+
+	@Test
+	public void shrinkTest() {
+		Assert.assertEquals(100, policy.nextFetchSize());
+		tick(5);
+		Assert.assertEquals(200, policy.nextFetchSize());
+		// 速度稳定在 40/s 时,15秒正好消耗600个
+		tick(5);
+		Assert.assertEquals(400, policy.nextFetchSize());
+		tick(10);
+		Assert.assertEquals(600, policy.nextFetchSize());
+		tick(15);
+		Assert.assertEquals(600, policy.nextFetchSize());
+		// 流量下降
+		tick(300);
+		Assert.assertEquals(300, policy.nextFetchSize());
+		tick(300);
+		Assert.assertEquals(150, policy.nextFetchSize());
+		tick(300);
+		Assert.assertEquals(100, policy.nextFetchSize());
+	}
+
+	@Test
+	public void seqHolderTest() {
+		final SeqHolder holder = SeqHolder.builder().name("adaptive").synchronizer(new InMemorySeqSynchronizer())
+				.partitionFunc(() -> "P1").fetchSizePolicy(policy).build();
+		Assert.assertEquals(100, holder.getFetchSize());
+		for (long i = 1L; i <= 100L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		tick(1);
+		Assert.assertEquals(101L, holder.nextLong());
+		Assert.assertEquals(200, holder.getFetchSize());
+		for (long i = 102L; i <= 300L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		Assert.assertEquals(2L, holder.getPullCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badRangeTest() {
+		FetchSizePolicy.adaptive(Duration.ofSeconds(15), 100, 10);
+	}
+
+	private void tick(long seconds) {
+		nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ClockPartitionerTest {
+
+	private final ZoneId zoneId = ZoneId.of("Asia/Shanghai");
+
+	@Test
+	public void boundaryTest() {
+		MutableClock clock = new MutableClock(millis(LocalDateTime.of(2020, 12, 31, 23, 59, 59, 999_000_000)));
+		ClockPartitioner daily = ClockPartitioner.daily(clock, zoneId);
+		ClockPartitioner monthly = ClockPartitioner.monthly(clock, zoneId);
+		ClockPartitioner annually = ClockPartitioner.annually(clock, zoneId);
+
+		Assert.assertEquals("20201231", daily.get());
+		Assert.assertEquals("202012", monthly.get());
+		Assert.assertEquals("2020", annually.get());
+		Assert.assertEquals(clock.millis() + 1, daily.nextBoundaryMillis());
+		Assert.assertEquals(clock.millis() + 1, annually.nextBoundaryMillis());
+
+		clock.add(1);
+		Assert.assertEquals("20210101", daily.get());
+		Assert.assertEquals("202101", monthly.get());
+		Assert.assertEquals("2021", annually.get());
+
+		// 时钟回拨
+		clock.add(-1);
+		Assert.assertEquals("20201231", daily.get());
+		Assert.assertEquals("2020", annually.get());
+	}
+
+	@Test
+	public void sameAsFormatterTest() {
+		ZoneId newYork = ZoneId.of("America/New_York");
+		MutableClock clock = new MutableClock(millis(LocalDateTime.of(2020, 1, 1, 0, 0)));
+		ClockPartitioner daily = ClockPartitioner.daily(clock, newYork);
+		ClockPartitioner monthly = ClockPartitioner.of(clock, newYork, ChronoUnit.MONTHS, "yyyy-MM");
+		DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+		DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
+		// 覆盖夏令时切换
+		for (int i = 0; i < 24 * 400; ++i) {
+			LocalDate date = Instant.ofEpochMilli(clock.millis()).atZone(newYork).toLocalDate();
+			Assert.assertEquals(date.format(dayFormatter), daily.get());
+			Assert.assertEquals(date.format(monthFormatter), monthly.get());
+			clock.add(3_600_000L - 7L);
+		}
+	}
+
+	@Test
+	public void systemZoneTest() {
+		final TimeZone saved = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("Asia/Shanghai"));
+			// 上海时间 2021-01-01 04:00, UTC 时间 2020-12-31 20:00
+			MutableClock clock = new MutableClock(millis(LocalDateTime.of(2021, 1, 1, 4, 0)));
+			ClockPartitioner daily = ClockPartitioner.ofSystemZone(clock, ChronoUnit.DAYS, "yyyyMMdd");
+			Assert.assertEquals("20210101", daily.get());
+			// 修改默认时区,当前分区内仍然使用缓存的边界
+			TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+			Assert.assertEquals("20210101", daily.get());
+			Assert.assertEquals(millis(LocalDateTime.of(2021, 1, 2, 0, 0)), daily.nextBoundaryMillis());
+			// 跨越边界后按新的时区计算: 上海时间 2021-01-02 04:00, UTC 时间 2021-01-01 20:00
+			clock.add(TimeUnit.DAYS.toMillis(1));
+			Assert.assertEquals("20210101", daily.get());
+			Assert.assertEquals(LocalDateTime.of(2021, 1, 2, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli(),
+					daily.nextBoundaryMillis());
+		}
+		finally {
+			TimeZone.setDefault(saved);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badUnitTest() {
+		ClockPartitioner.of(Clock.systemUTC(), zoneId, ChronoUnit.HOURS, "yyyyMMddHH");
+	}
+
+	private long millis(LocalDateTime dateTime) {
+		return dateTime.atZone(zoneId).toInstant().toEpochMilli();
+	}
+
+	static class MutableClock extends Clock {
+
+		private final AtomicLong millis;
+
+		MutableClock(long millis) {
+			this.millis = new AtomicLong(millis);
+		}
+
+		void add(long delta) {
+			millis.addAndGet(delta);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("UTC");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long millis() {
+			return millis.get();
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis());
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.provider.InMemorySeqSynchronizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CompactSeqTableTest {
+
+	private final SeqSynchronizer seqSynchronizer = new InMemorySeqSynchronizer();
+
+	@Test
+	public void simpleTest() {
+		final CompactSeqTable table = CompactSeqTable.builder().synchronizer(seqSynchronizer).poolSize(10).build();
+		for (long i = 1L; i <= 25L; ++i) {
+			Assert.assertEquals(i, table.nextLong("order", "T1"));
+			Assert.assertEquals(i, table.nextLong("order", "T2"));
+			Assert.assertEquals(i, table.nextLong("invoice", "T1"));
+		}
+		Assert.assertEquals(3, table.size());
+		Assert.assertEquals(9L, table.getPullCount());
+		Assert.assertEquals(Long.valueOf(31L), seqSynchronizer.getNextValue("order", "T1").orElse(null));
+
+		// 移除后剩余的序号被丢弃
+		Assert.assertTrue(table.remove("order", "T1"));
+		Assert.assertFalse(table.remove("order", "T1"));
+		Assert.assertEquals(31L, table.nextLong("order", "T1"));
+		Assert.assertEquals(26L, table.nextLong("order", "T2"));
+	}
+
+	@Test
+	public void resizeAndRemoveTest() {
+		final int keys = 5000;
+		final CompactSeqTable table = CompactSeqTable.builder().synchronizer(seqSynchronizer).poolSize(100).stripes(2)
+				.initialCapacity(4).build();
+		for (int round = 1; round <= 2; ++round) {
+			for (int i = 0; i < keys; ++i) {
+				Assert.assertEquals(round, table.nextLong("seq", Integer.toString(i)));
+			}
+		}
+		Assert.assertEquals(keys, table.size());
+		// 删除一半后剩余的序号仍然可以找到
+		for (int i = 0; i < keys; i += 2) {
+			Assert.assertTrue(table.remove("seq", Integer.toString(i)));
+		}
+		Assert.assertEquals(keys / 2, table.size());
+		for (int i = 1; i < keys; i += 2) {
+			Assert.assertEquals(3L, table.nextLong("seq", Integer.toString(i)));
+		}
+		Assert.assertEquals(keys, table.getPullCount());
+	}
+
+	@Test
+	public void threadSafetyTest() {
+		final int threads = Runtime.getRuntime().availableProcessors() * 2 + 1;
+		final int count = 2000;
+		final CompactSeqTable table = CompactSeqTable.builder().synchronizer(seqSynchronizer).poolSize(7).stripes(4)
+				.build();
+		final Set<String> all = ConcurrentHashMap.newKeySet();
+		final CountDownLatch completed = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int thread = 0; thread < threads; ++thread) {
+			executorService.execute(() -> {
+				for (int i = 0; i < count; ++i) {
+					final String partition = Integer.toString(i % 5);
+					all.add(partition + "." + table.nextLong("seq", partition));
+				}
+				completed.countDown();
+			});
+		}
+		TestUtil.wait(completed);
+		executorService.shutdown();
+		// 不重复也不跳号
+		Assert.assertEquals(threads * count, all.size());
+		final int perPartition = threads * count / 5;
+		for (int i = 0; i < 5; ++i) {
+			Assert.assertTrue(all.contains(i + "." + perPartition));
+		}
+		Assert.assertEquals(5 * ((perPartition + 6) / 7), table.getPullCount());
+		Assert.assertEquals(5, table.size());
+	}
+
+	@Test
+	public void concurrentMissTest() throws InterruptedException {
+		final int threads = 8;
+		final AtomicInteger calls = new AtomicInteger();
+		final SeqSynchronizer slowSynchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+				calls.incrementAndGet();
+				try {
+					TimeUnit.MILLISECONDS.sleep(100L);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.tryAllocate(name, partition, delta, initValue);
+			}
+		};
+		final CompactSeqTable table = CompactSeqTable.builder().synchronizer(slowSynchronizer).poolSize(threads)
+				.build();
+		final Set<Long> all = ConcurrentHashMap.newKeySet();
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch completed = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int thread = 0; thread < threads; ++thread) {
+			executorService.execute(() -> {
+				try {
+					start.await();
+					all.add(table.nextLong("seq", "cold"));
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					completed.countDown();
+				}
+			});
+		}
+		start.countDown();
+		TestUtil.wait(completed);
+		executorService.shutdown();
+		// 同时未命中时只访问一次后端,其他线程使用同一个号段
+		Assert.assertEquals(1, calls.get());
+		Assert.assertEquals(1L, table.getPullCount());
+		for (long i = 1L; i <= threads; ++i) {
+			Assert.assertTrue(all.contains(i));
+		}
+	}
+
+	@Test
+	public void refillErrorTest() throws Exception {
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+		final SeqSynchronizer brokenSynchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+				if (calls.incrementAndGet() == 1) {
+					entered.countDown();
+					try {
+						proceed.await();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					throw new AssertionError("broken");
+				}
+				return super.tryAllocate(name, partition, delta, initValue);
+			}
+		};
+		final CompactSeqTable table = CompactSeqTable.builder().synchronizer(brokenSynchronizer).poolSize(10).build();
+		final ExecutorService executorService = Executors.newFixedThreadPool(2);
+		try {
+			final Future<Long> leader = executorService.submit(() -> table.nextLong("seq", "P"));
+			entered.await();
+			final Future<Long> waiter = executorService.submit(() -> table.nextLong("seq", "P"));
+			TimeUnit.MILLISECONDS.sleep(50L);
+			proceed.countDown();
+			// 后端抛出 Error 时等待的线程也会被唤醒
+			try {
+				leader.get(5L, TimeUnit.SECONDS);
+				Assert.fail();
+			}
+			catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof AssertionError);
+			}
+			try {
+				waiter.get(5L, TimeUnit.SECONDS);
+				Assert.fail();
+			}
+			catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof SeqException);
+			}
+			Assert.assertEquals(1L, table.nextLong("seq", "P"));
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void waitTimeoutTest() throws Exception {
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		final SeqSynchronizer blockingSynchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+				entered.countDown();
+				try {
+					proceed.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.tryAllocate(name, partition, delta, initValue);
+			}
+		};
+		final CompactSeqTable table = CompactSeqTable.builder().synchronizer(blockingSynchronizer).poolSize(10)
+				.waitTimeout(Duration.ofMillis(50L)).build();
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			final Future<Long> leader = executorService.submit(() -> table.nextLong("seq", "P"));
+			entered.await();
+			try {
+				table.nextLong("seq", "P");
+				Assert.fail();
+			}
+			catch (SeqException e) {
+				// 等待超时
+			}
+			proceed.countDown();
+			Assert.assertEquals(1L, leader.get(5L, TimeUnit.SECONDS).longValue());
+			Assert.assertEquals(2L, table.nextLong("seq", "P"));
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.persistent.provider.InMemorySeqSynchronizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MultiPartitionSeqHolderTest {
+
+	private final String seqName = "multi-partition-test";
+
+	private final AtomicReference<String> tenant = new AtomicReference<>();
+
+	private final SeqSynchronizer seqSynchronizer = new InMemorySeqSynchronizer();
+
+	@Test
+	public void interleavedTest() {
+		final MultiPartitionSeqHolder holder = MultiPartitionSeqHolder.builder().name(seqName)
+				.synchronizer(seqSynchronizer).partitionFunc(tenant::get).poolSize(100).build();
+		for (long i = 1L; i <= 50L; ++i) {
+			Assert.assertEquals(i, next(holder, "A"));
+			Assert.assertEquals(i, next(holder, "B"));
+		}
+		// 每个分区只拉取一次
+		Assert.assertEquals(2L, holder.getPullCount());
+		Assert.assertEquals(2, holder.getPartitionCount());
+		tenant.set("A");
+		Assert.assertEquals(SeqValue.of("A", 51L), holder.nextWithPartition());
+		Assert.assertEquals(seqName + ".A.00000052", holder.nextStr());
+	}
+
+	@Test
+	public void lruTest() {
+		final MultiPartitionSeqHolder holder = MultiPartitionSeqHolder.builder().name(seqName)
+				.synchronizer(seqSynchronizer).partitionFunc(tenant::get).poolSize(100).maxPartitions(2).build();
+		Assert.assertEquals(1L, next(holder, "A"));
+		Assert.assertEquals(1L, next(holder, "B"));
+		Assert.assertEquals(1L, next(holder, "C"));
+		Assert.assertEquals(2, holder.getPartitionCount());
+		// A 被淘汰,剩余的序号在后台归还
+		Assert.assertTrue(next(holder, "A") > 1L);
+		Assert.assertEquals(4L, holder.getPullCount());
+	}
+
+	@Test
+	public void releaseTest() {
+		final MultiPartitionSeqHolder holder = MultiPartitionSeqHolder.builder().name(seqName)
+				.synchronizer(seqSynchronizer).partitionFunc(tenant::get).poolSize(100).build();
+		next(holder, "A");
+		next(holder, "B");
+		Assert.assertEquals(198L, holder.release());
+		Assert.assertEquals(2L, next(holder, "A"));
+	}
+
+	@Test
+	public void idleTest() throws Exception {
+		final MultiPartitionSeqHolder holder = MultiPartitionSeqHolder.builder().name(seqName)
+				.synchronizer(seqSynchronizer).partitionFunc(tenant::get).poolSize(100)
+				.idleTimeout(Duration.ofMillis(1)).build();
+		next(holder, "A");
+		next(holder, "B");
+		TimeUnit.MILLISECONDS.sleep(20L);
+		holder.evictIdle();
+		Assert.assertEquals(0, holder.getPartitionCount());
+		Assert.assertEquals(2L, holder.getPullCount());
+	}
+
+	@Test
+	public void inUseEvictTest() throws Exception {
+		final CountDownLatch fetching = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		final SeqSynchronizer synchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+				if ("A".equals(partition) && fetching.getCount() > 0L) {
+					fetching.countDown();
+					TestUtil.wait(proceed);
+				}
+				return super.tryAllocate(name, partition, delta, initValue);
+			}
+		};
+		final MultiPartitionSeqHolder holder = MultiPartitionSeqHolder.builder().name(seqName)
+				.synchronizer(synchronizer).partitionFunc(tenant::get).poolSize(100).maxPartitions(1).build();
+		final CompletableFuture<Long> inUse = CompletableFuture.supplyAsync(() -> next(holder, "A"));
+		Assert.assertTrue(fetching.await(10, TimeUnit.SECONDS));
+
+		// A 正在使用时被淘汰,由最后一个调用结束时归还
+		Assert.assertEquals(1L, next(holder, "B"));
+		Assert.assertEquals(1, holder.getPartitionCount());
+		proceed.countDown();
+		Assert.assertEquals(1L, inUse.get(10, TimeUnit.SECONDS).longValue());
+		Assert.assertEquals(Optional.of(2L), synchronizer.getNextValue(seqName, "A"));
+	}
+
+	@Test
+	public void concurrentEvictTest() throws InterruptedException, ExecutionException {
+		final ThreadLocal<String> partition = new ThreadLocal<>();
+		// 只保留一个分区,几乎每次调用都会淘汰其他线程正在使用的分区
+		final MultiPartitionSeqHolder holder = MultiPartitionSeqHolder.builder().name(seqName)
+				.synchronizer(seqSynchronizer).partitionFunc(partition::get).poolSize(10).maxPartitions(1).build();
+		final Map<String, Set<Long>> values = new ConcurrentHashMap<>();
+		final int threads = 4;
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; ++t) {
+				final int seed = t;
+				futures.add(executorService.submit(() -> {
+					for (int i = 0; i < 2000; ++i) {
+						final String p = "P" + ((i + seed) % 3);
+						partition.set(p);
+						final long val = (i & 1) == 0 ? holder.nextLong() : holder.nextStrAsync()
+								.thenApply(str -> Long.parseLong(str.substring(str.lastIndexOf('.') + 1))).join();
+						Assert.assertTrue(p + ":" + val,
+								values.computeIfAbsent(p, k -> ConcurrentHashMap.newKeySet()).add(val));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+		Assert.assertEquals(8000, values.values().stream().mapToInt(Set::size).sum());
+	}
+
+	private long next(MultiPartitionSeqHolder holder, String partition) {
+		tenant.set(partition);
+		return holder.nextLong();
+	}
+
+}
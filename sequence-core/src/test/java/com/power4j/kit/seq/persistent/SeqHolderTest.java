@@ -0,0 +1,734 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.LongRange;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.provider.ConcurrencyLimitedSynchronizer;
+import com.power4j.kit.seq.persistent.provider.InMemorySeqSynchronizer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 使用 {@link InMemorySeqSynchronizer} 测试取号器的各种模式
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class SeqHolderTest {
+
+	private final String seqName = "seq-holder-test";
+
+	private SeqSynchronizer seqSynchronizer;
+
+	@Before
+	public void setup() {
+		seqSynchronizer = new InMemorySeqSynchronizer();
+	}
+
+	@Test
+	public void primitiveTest() {
+		final AtomicInteger count = new AtomicInteger();
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> count.getAndIncrement() < 2 ? "P1" : "P2").initValue(1L).poolSize(10).build();
+		Assert.assertEquals(1L, holder.nextLong());
+		Assert.assertEquals(2L, holder.tryNextLong());
+
+		// 分区与序号总是同一次取号的结果
+		SeqValue value = holder.nextWithPartition();
+		Assert.assertEquals("P2", value.getPartition());
+		Assert.assertEquals(1L, value.getValue());
+		Assert.assertEquals(2L, holder.nextLong());
+	}
+
+	@Test
+	public void formatSinkTest() {
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).build();
+		Assert.assertEquals(seqName + ".P1.00000001", holder.nextStr());
+
+		StringBuilder builder = new StringBuilder();
+		holder.appendNext(builder);
+		Assert.assertEquals(seqName + ".P1.00000002", builder.toString());
+
+		char[] chars = new char[64];
+		int len = holder.writeNext(chars, 0);
+		Assert.assertEquals(seqName + ".P1.00000003", new String(chars, 0, len));
+
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		len = holder.writeNext(buffer);
+		Assert.assertEquals(seqName + ".P1.00000004", new String(buffer.array(), 0, len, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void concurrentRefillTest() {
+		final int threads = 8;
+		final int loops = 5000;
+		final int poolSize = 100;
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(poolSize).build();
+
+		final Set<Long> all = ConcurrentHashMap.newKeySet();
+		final CountDownLatch threadDone = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; ++t) {
+			CompletableFuture.runAsync(() -> {
+				for (int i = 0; i < loops; ++i) {
+					all.add(holder.nextLong());
+				}
+				threadDone.countDown();
+			}, executorService);
+		}
+		TestUtil.wait(threadDone);
+		executorService.shutdown();
+		Assert.assertEquals(threads * loops, all.size());
+		// 号段用完之后才会拉取,并发取号不会造成多余的拉取
+		Assert.assertEquals(threads * loops / poolSize, holder.getPullCount());
+	}
+
+	@Test
+	public void slowBackendTest() throws Exception {
+		final CountDownLatch backendBlocked = new CountDownLatch(1);
+		final CountDownLatch releaseBackend = new CountDownLatch(1);
+		final SeqSynchronizer slowSynchronizer = new SlowSynchronizer(seqSynchronizer, () -> {
+			backendBlocked.countDown();
+			TestUtil.wait(releaseBackend);
+		});
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(slowSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).build();
+		final CompletableFuture<Long> first = CompletableFuture.supplyAsync(holder::nextLong);
+		Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+
+		// 其他线程正在访问后端,限时取号快速失败
+		final long begin = System.nanoTime();
+		Assert.assertEquals(SeqHolder.NO_VALUE, holder.tryNextLong(Duration.ofMillis(50)));
+		Assert.assertFalse(holder.nextOpt(Duration.ZERO).isPresent());
+		Assert.assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(5));
+
+		releaseBackend.countDown();
+		Assert.assertEquals(1L, first.get(10, TimeUnit.SECONDS).longValue());
+		Assert.assertEquals(Optional.of(2L), holder.nextOpt(Duration.ofMillis(50)));
+		Assert.assertEquals(1L, holder.getPullCount());
+	}
+
+	@Test
+	public void asyncTest() throws Exception {
+		final CountDownLatch backendBlocked = new CountDownLatch(1);
+		final CountDownLatch releaseBackend = new CountDownLatch(1);
+		final SeqSynchronizer slowSynchronizer = new SlowSynchronizer(seqSynchronizer, () -> {
+			backendBlocked.countDown();
+			TestUtil.wait(releaseBackend);
+		});
+		final AtomicInteger submitted = new AtomicInteger();
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(slowSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).asyncExecutor(task -> {
+					submitted.incrementAndGet();
+					executor.execute(task);
+				}).build();
+
+		// 号段为空,在线程池中拉取,调用线程不阻塞
+		final CompletableFuture<Long> first = holder.nextAsync();
+		Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+		Assert.assertFalse(first.isDone());
+		// 拉取进行中,等待拉取完成,不再占用线程池
+		final CompletableFuture<String> second = holder.nextStrAsync();
+		Assert.assertEquals(1, submitted.get());
+
+		releaseBackend.countDown();
+		Assert.assertEquals(1L, first.get(10, TimeUnit.SECONDS).longValue());
+		Assert.assertEquals(seqName + ".P1.00000002", second.get(10, TimeUnit.SECONDS));
+
+		// 有可用的序号时直接返回已完成的结果
+		final CompletableFuture<Long> third = holder.nextAsync();
+		Assert.assertTrue(third.isDone());
+		Assert.assertEquals(3L, third.join().longValue());
+		Assert.assertEquals(1, submitted.get());
+		Assert.assertEquals(1L, holder.getPullCount());
+		executor.shutdown();
+	}
+
+	@Test
+	public void asyncSharedExecutorTest() throws Exception {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final List<Runnable> deferred = new CopyOnWriteArrayList<>();
+		// 预取任务排在异步取号之后进入同一个单线程池
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).prefetch(0.5).prefetchExecutor(deferred::add)
+				.asyncExecutor(executor).build();
+		for (long expected = 1L; expected <= 10L; ++expected) {
+			Assert.assertEquals(expected, holder.nextLong());
+		}
+		Assert.assertEquals(1, deferred.size());
+
+		// 备用号段还在准备中,异步取号等待它完成,不占用线程池
+		final CompletableFuture<Long> future = holder.nextAsync();
+		executor.execute(deferred.remove(0));
+		Assert.assertEquals(11L, future.get(10, TimeUnit.SECONDS).longValue());
+		Assert.assertEquals(2L, holder.getPullCount());
+		executor.shutdown();
+	}
+
+	@Test
+	public void asyncSynchronizerTest() {
+		final List<Runnable> pending = new ArrayList<>();
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10)
+				.asyncSynchronizer(AsyncSeqSynchronizer.wrap(seqSynchronizer, pending::add)).asyncExecutor(task -> {
+					throw new RejectedExecutionException();
+				}).build();
+		final CompletableFuture<Long> first = holder.nextAsync();
+		final CompletableFuture<String> second = holder.nextStrAsync();
+		Assert.assertFalse(first.isDone());
+		Assert.assertFalse(second.isDone());
+		// 两次取号共用同一次拉取
+		Assert.assertEquals(1, pending.size());
+		while (!pending.isEmpty()) {
+			pending.remove(0).run();
+		}
+		Assert.assertEquals(1L, first.join().longValue());
+		Assert.assertEquals(seqName + ".P1.00000002", second.join());
+		Assert.assertEquals(3L, holder.nextLong());
+		Assert.assertEquals(1L, holder.getPullCount());
+	}
+
+	@Test
+	public void asyncSynchronizerFailureTest() {
+		final SeqSynchronizer failing = new SlowSynchronizer(seqSynchronizer, () -> {
+			throw new IllegalStateException("backend down");
+		});
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(failing).partitionFunc(() -> "P1")
+				.initValue(1L).poolSize(10).asyncSynchronizer(AsyncSeqSynchronizer.wrap(failing, Runnable::run))
+				.build();
+		try {
+			holder.nextAsync().join();
+			Assert.fail();
+		}
+		catch (CompletionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		// 失败后不会残留进行中的拉取
+		Assert.assertThrows(IllegalStateException.class, holder::nextLong);
+	}
+
+	@Test
+	public void virtualThreadsTest() throws Exception {
+		// JDK 21 以下使用共享线程池
+		final SeqHolder holder = SeqHolder.builder().name(seqName)
+				.synchronizer(new ConcurrencyLimitedSynchronizer(seqSynchronizer, 1, Duration.ofSeconds(10)))
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).prefetch(0.5).virtualThreads(true).build();
+		Assert.assertEquals(1L, holder.nextAsync().toCompletableFuture().get(10, TimeUnit.SECONDS).longValue());
+		for (long expected = 2L; expected <= 100L; ++expected) {
+			Assert.assertEquals(expected, holder.next().longValue());
+		}
+	}
+
+	@Test
+	public void prepareAllTest() {
+		final AtomicInteger allocateCalls = new AtomicInteger();
+		final SeqSynchronizer synchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public List<AddState> tryAllocateAll(List<AddRequest> requests, long initValue) {
+				allocateCalls.incrementAndGet();
+				return super.tryAllocateAll(requests, initValue);
+			}
+		};
+		final List<SeqHolder> holders = new ArrayList<>();
+		for (int i = 0; i < 3; ++i) {
+			holders.add(SeqHolder.builder().name(seqName + i).synchronizer(synchronizer).partitionFunc(() -> "P1")
+					.initValue(1L).poolSize(10).build());
+		}
+		holders.add(SeqHolder.builder().name(seqName + 3).synchronizer(synchronizer).partitionFunc(() -> "P1")
+				.initValue(100L).poolSize(10).build());
+
+		// 按初始值分为两组
+		SeqHolder.prepareAll(holders);
+		Assert.assertEquals(2, allocateCalls.get());
+		for (int i = 0; i < 3; ++i) {
+			Assert.assertEquals(1L, holders.get(i).getPullCount());
+			Assert.assertEquals(1L, holders.get(i).next().longValue());
+		}
+		Assert.assertEquals(100L, holders.get(3).next().longValue());
+		Assert.assertEquals(11L, synchronizer.getNextValue(seqName + 0, "P1").get().longValue());
+
+		// 已经初始化的取号器不再拉取
+		SeqHolder.prepareAll(holders);
+		Assert.assertEquals(2, allocateCalls.get());
+	}
+
+	@Test
+	public void fetchFailedTest() {
+		final List<Integer> retries = new CopyOnWriteArrayList<>();
+		final SeqSynchronizer synchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+				retries.add(maxReTry);
+				return AddState.fail(maxReTry + 1);
+			}
+		};
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(synchronizer).partitionFunc(() -> "P1")
+				.initValue(1L).poolSize(2).build();
+		Assert.assertEquals(1L, holder.next().longValue());
+		Assert.assertEquals(2L, holder.next().longValue());
+		Assert.assertThrows(SeqException.class, holder::next);
+		Assert.assertThrows(SeqException.class, () -> holder.fetchSegment(10));
+		// 分配号段时重试次数有上限
+		Assert.assertEquals(Arrays.asList(SeqSynchronizer.DEFAULT_MAX_RETRY, SeqSynchronizer.DEFAULT_MAX_RETRY),
+				retries);
+	}
+
+	@Test
+	public void asyncFailureTest() {
+		final SeqHolder holder = SeqHolder.builder().name(seqName)
+				.synchronizer(new SlowSynchronizer(seqSynchronizer, () -> {
+					throw new IllegalStateException("backend down");
+				})).partitionFunc(() -> "P1").initValue(1L).poolSize(10).asyncExecutor(Runnable::run).build();
+		final CompletableFuture<Long> future = holder.nextAsync();
+		Assert.assertTrue(future.isCompletedExceptionally());
+		try {
+			future.join();
+			Assert.fail();
+		}
+		catch (CompletionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void backendFailureTest() {
+		final SeqHolder holder = SeqHolder.builder().name(seqName)
+				.synchronizer(new SlowSynchronizer(seqSynchronizer, () -> {
+					throw new IllegalStateException("backend down");
+				})).partitionFunc(() -> "P1").initValue(1L).poolSize(10).build();
+		try {
+			holder.nextLong();
+			Assert.fail();
+		}
+		catch (IllegalStateException e) {
+			Assert.assertEquals("backend down", e.getMessage());
+		}
+		// 失败后不会残留进行中的拉取
+		try {
+			holder.tryNextLong(Duration.ofMillis(10));
+			Assert.fail();
+		}
+		catch (IllegalStateException e) {
+			Assert.assertEquals("backend down", e.getMessage());
+		}
+	}
+
+	@Test
+	public void prefetchTest() {
+		final AtomicInteger allocateCalls = new AtomicInteger();
+		final SeqSynchronizer synchronizer = new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAllocate(String name, String partition, int delta, long initValue) {
+				allocateCalls.incrementAndGet();
+				return super.tryAllocate(name, partition, delta, initValue);
+			}
+		};
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(synchronizer).partitionFunc(() -> "P1")
+				.initValue(1L).poolSize(10).prefetch(0.5).prefetchExecutor(Runnable::run).build();
+		for (long i = 1L; i <= 4L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		Assert.assertEquals(1L, holder.getPullCount());
+		// 剩余一半时预取
+		Assert.assertEquals(5L, holder.nextLong());
+		Assert.assertEquals(2L, holder.getPullCount());
+		for (long i = 6L; i <= 14L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		// 切换到备用号段不需要拉取
+		Assert.assertEquals(2L, holder.getPullCount());
+		Assert.assertEquals(15L, holder.nextLong());
+		Assert.assertEquals(3L, holder.getPullCount());
+		// 预取同样使用单次调用的分配
+		Assert.assertEquals(3, allocateCalls.get());
+	}
+
+	@Test
+	public void prefetchRejectedTest() {
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).prefetch(0.5).prefetchExecutor(task -> {
+					throw new RejectedExecutionException();
+				}).build();
+		for (long i = 1L; i <= 25L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		Assert.assertEquals(3L, holder.getPullCount());
+	}
+
+	@Test
+	public void prefetchConcurrentTest() {
+		final int threads = 8;
+		final int loops = 5000;
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(100).prefetch(0.3).build();
+		final Set<Long> all = ConcurrentHashMap.newKeySet();
+		final CountDownLatch threadDone = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		final AtomicInteger unordered = new AtomicInteger();
+		for (int t = 0; t < threads; ++t) {
+			CompletableFuture.runAsync(() -> {
+				long last = -1L;
+				for (int i = 0; i < loops; ++i) {
+					long val = holder.nextLong();
+					if (val <= last) {
+						unordered.incrementAndGet();
+					}
+					last = val;
+					all.add(val);
+				}
+				threadDone.countDown();
+			}, executorService);
+		}
+		TestUtil.wait(threadDone);
+		executorService.shutdown();
+		Assert.assertEquals(0, unordered.get());
+		Assert.assertEquals(threads * loops, all.size());
+		// 最多多出一个备用号段
+		Assert.assertTrue(holder.getPullCount() <= threads * loops / 100 + 1);
+	}
+
+	@Test
+	public void rolloverTest() throws Exception {
+		final ZoneId zoneId = ZoneId.of("Asia/Shanghai");
+		final long boundary = LocalDate.of(2020, 11, 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+		final ClockPartitionerTest.MutableClock clock = new ClockPartitionerTest.MutableClock(boundary - 1000L);
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(ClockPartitioner.monthly(clock, zoneId)).initValue(1L).poolSize(10)
+				.rollover(Duration.ofSeconds(10)).prefetchExecutor(Runnable::run).build();
+		Assert.assertEquals(1L, holder.nextLong());
+
+		// 边界之前提前创建下一个分区
+		final long begin = System.currentTimeMillis();
+		while (holder.getPullCount() < 2L && System.currentTimeMillis() - begin < 10_000L) {
+			TimeUnit.MILLISECONDS.sleep(10L);
+		}
+		Assert.assertEquals(2L, holder.getPullCount());
+		Assert.assertTrue(seqSynchronizer.getNextValue(seqName, "202011").isPresent());
+
+		clock.add(1000L);
+		Assert.assertEquals(SeqValue.of("202011", 1L), holder.nextWithPartition());
+		Assert.assertEquals(SeqValue.of("202011", 2L), holder.nextWithPartition());
+		Assert.assertEquals(2L, holder.getPullCount());
+	}
+
+	@Test
+	public void closeCancelRolloverTest() throws Exception {
+		final ZoneId zoneId = ZoneId.of("Asia/Shanghai");
+		final long boundary = LocalDate.of(2020, 11, 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+		final ClockPartitionerTest.MutableClock clock = new ClockPartitionerTest.MutableClock(boundary - 300L);
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(ClockPartitioner.monthly(clock, zoneId)).initValue(1L).poolSize(10)
+				.rollover(Duration.ofMillis(200)).prefetch(0.5).prefetchExecutor(Runnable::run).build();
+		Assert.assertEquals(1L, holder.nextLong());
+		holder.close();
+
+		// 关闭后不再提前准备下一个分区
+		TimeUnit.MILLISECONDS.sleep(500L);
+		Assert.assertEquals(1L, holder.getPullCount());
+		Assert.assertFalse(seqSynchronizer.getNextValue(seqName, "202011").isPresent());
+
+		// 仍然可以取号,但不再预取
+		for (int i = 0; i < 10; ++i) {
+			holder.nextLong();
+		}
+		Assert.assertEquals(2L, holder.getPullCount());
+	}
+
+	@Test
+	public void rolloverFetchSizeTest() throws Exception {
+		final ZoneId zoneId = ZoneId.of("Asia/Shanghai");
+		final long boundary = LocalDate.of(2020, 11, 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+		final ClockPartitionerTest.MutableClock clock = new ClockPartitionerTest.MutableClock(boundary - 1000L);
+		final AtomicInteger nextCalls = new AtomicInteger();
+		final FetchSizePolicy policy = new FetchSizePolicy() {
+			@Override
+			public int nextFetchSize() {
+				nextCalls.incrementAndGet();
+				return 10;
+			}
+
+			@Override
+			public int currentFetchSize() {
+				return 10;
+			}
+		};
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(ClockPartitioner.monthly(clock, zoneId)).initValue(1L).fetchSizePolicy(policy)
+				.rollover(Duration.ofSeconds(10)).prefetchExecutor(Runnable::run).build();
+		Assert.assertEquals(1L, holder.nextLong());
+		final long begin = System.currentTimeMillis();
+		while (holder.getPullCount() < 2L && System.currentTimeMillis() - begin < 10_000L) {
+			TimeUnit.MILLISECONDS.sleep(10L);
+		}
+		Assert.assertEquals(2L, holder.getPullCount());
+		// 提前准备使用当前数量,不影响拉取数量的调整
+		Assert.assertEquals(1, nextCalls.get());
+		Assert.assertEquals(Optional.of(11L), seqSynchronizer.getNextValue(seqName, "202011"));
+	}
+
+	@Test
+	public void clockStragglerTest() {
+		final ZoneId zoneId = ZoneId.of("Asia/Shanghai");
+		final long boundary = LocalDate.of(2020, 11, 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+		final ClockPartitionerTest.MutableClock clock = new ClockPartitionerTest.MutableClock(boundary - 1000L);
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(ClockPartitioner.monthly(clock, zoneId)).initValue(1L).poolSize(2).build();
+		Assert.assertEquals(SeqValue.of("202010", 1L), holder.nextWithPartition());
+		clock.add(2000L);
+		Assert.assertEquals(SeqValue.of("202011", 1L), holder.nextWithPartition());
+		// 模拟边界之前算出分区的调用,旧号段用完后重新拉取
+		clock.add(-2000L);
+		Assert.assertEquals(SeqValue.of("202010", 2L), holder.nextWithPartition());
+		Assert.assertEquals(SeqValue.of("202010", 3L), holder.nextWithPartition());
+		Assert.assertEquals(3L, holder.getPullCount());
+		// 旧分区的号段不会替换当前号段,批量取号仍然使用当前号段
+		clock.add(2000L);
+		final List<LongRange> ranges = holder.nextBatch(1);
+		Assert.assertEquals(1, ranges.size());
+		Assert.assertEquals(2L, ranges.get(0).getFrom());
+		clock.add(-2000L);
+		Assert.assertEquals(SeqValue.of("202010", 4L), holder.nextWithPartition());
+		Assert.assertEquals(3L, holder.getPullCount());
+	}
+
+	@Test
+	public void retiredSegmentTest() {
+		final Iterator<String> partitions = Arrays.asList("P1", "P2", "P1", "P2").iterator();
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(partitions::next).initValue(1L).poolSize(10).build();
+		Assert.assertEquals(SeqValue.of("P1", 1L), holder.nextWithPartition());
+		Assert.assertEquals(SeqValue.of("P2", 1L), holder.nextWithPartition());
+		// 分区切换时仍在使用旧分区的调用
+		Assert.assertEquals(SeqValue.of("P1", 2L), holder.nextWithPartition());
+		Assert.assertEquals(SeqValue.of("P2", 2L), holder.nextWithPartition());
+		Assert.assertEquals(2L, holder.getPullCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rolloverPartitionerTest() {
+		SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer).partitionFunc(() -> "P1")
+				.rollover(Duration.ofSeconds(10)).build();
+	}
+
+	@Test
+	public void releaseTest() {
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(100).build();
+		for (long i = 1L; i <= 10L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		Assert.assertEquals(90L, holder.release());
+		Assert.assertEquals(Optional.of(11L), seqSynchronizer.getNextValue(seqName, "P1"));
+		// 归还之后仍然可以取号
+		Assert.assertEquals(11L, holder.nextLong());
+		Assert.assertEquals(2L, holder.getPullCount());
+
+		// 其他实例已经拉取过,不能归还
+		final SeqHolder other = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(100).build();
+		Assert.assertEquals(111L, other.nextLong());
+		Assert.assertEquals(0L, holder.release());
+		Assert.assertEquals(99L, other.release());
+		Assert.assertEquals(Optional.of(112L), seqSynchronizer.getNextValue(seqName, "P1"));
+	}
+
+	@Test
+	public void concurrentReleaseTest() {
+		final int threads = 4;
+		final int loops = 2000;
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).build();
+		final Set<Long> all = ConcurrentHashMap.newKeySet();
+		final AtomicInteger taken = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+		final CountDownLatch threadDone = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; ++t) {
+			CompletableFuture.runAsync(() -> {
+				try {
+					for (int i = 0; i < loops; ++i) {
+						if (i % 2 == 0) {
+							all.add(holder.nextLong());
+							taken.incrementAndGet();
+						}
+						else {
+							for (LongRange range : holder.nextBatch(3)) {
+								for (long val = range.getFrom(); val <= range.getLast(); ++val) {
+									all.add(val);
+									taken.incrementAndGet();
+								}
+							}
+						}
+					}
+				}
+				catch (RuntimeException e) {
+					failed.incrementAndGet();
+				}
+				threadDone.countDown();
+			}, executorService);
+		}
+		// 其他线程取号的同时归还
+		while (threadDone.getCount() > 0) {
+			holder.release();
+			Thread.yield();
+		}
+		executorService.shutdown();
+		Assert.assertEquals(0, failed.get());
+		Assert.assertEquals(taken.get(), all.size());
+	}
+
+	@Test
+	public void releaseStandbyTest() {
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(10).prefetch(0.5).prefetchExecutor(Runnable::run)
+				.build();
+		for (long i = 1L; i <= 5L; ++i) {
+			Assert.assertEquals(i, holder.nextLong());
+		}
+		// 备用号段 [11,20] 和当前号段剩余的 [6,10]
+		Assert.assertEquals(15L, holder.release());
+		Assert.assertEquals(Optional.of(6L), seqSynchronizer.getNextValue(seqName, "P1"));
+		holder.close();
+		Assert.assertEquals(6L, holder.nextLong());
+	}
+
+	@Test
+	public void threadLocalBlockTest() {
+		final int threads = 8;
+		final int loops = 5000;
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> "P1").initValue(1L).poolSize(1000).threadLocalBlock(16).build();
+		Assert.assertTrue(holder.isRelaxedOrdering());
+
+		final Set<Long> all = ConcurrentHashMap.newKeySet();
+		final CountDownLatch threadDone = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		final AtomicInteger unordered = new AtomicInteger();
+		for (int t = 0; t < threads; ++t) {
+			CompletableFuture.runAsync(() -> {
+				long last = -1L;
+				for (int i = 0; i < loops; ++i) {
+					long val = holder.next();
+					// 同一个线程内依然是递增的
+					if (val <= last) {
+						unordered.incrementAndGet();
+					}
+					last = val;
+					all.add(val);
+				}
+				threadDone.countDown();
+			}, executorService);
+		}
+		TestUtil.wait(threadDone);
+		executorService.shutdown();
+		Assert.assertEquals(0, unordered.get());
+		Assert.assertEquals(threads * loops, all.size());
+		// 浪费的序号不超过每个线程一个块
+		Assert.assertTrue(seqSynchronizer.getNextValue(seqName, "P1").get() <= 1L + threads * loops + 1000);
+	}
+
+	@Test
+	public void threadLocalBlockPartitionTest() {
+		final List<String> partitions = new ArrayList<>();
+		final AtomicInteger count = new AtomicInteger();
+		final SeqHolder holder = SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer)
+				.partitionFunc(() -> count.getAndIncrement() < 3 ? "P1" : "P2").initValue(1L).poolSize(100)
+				.threadLocalBlock(10).seqFormatter((name, partition, value) -> partition + "-" + value).build();
+		for (int i = 0; i < 6; ++i) {
+			partitions.add(holder.nextStr());
+		}
+		Assert.assertEquals("P1-1", partitions.get(0));
+		Assert.assertEquals("P1-3", partitions.get(2));
+		// 分区切换后私有块被丢弃
+		Assert.assertEquals("P2-1", partitions.get(3));
+		Assert.assertEquals("P2-3", partitions.get(5));
+	}
+
+	/**
+	 * 访问后端之前执行 {@code beforeAccess}
+	 */
+	static class SlowSynchronizer implements SeqSynchronizer {
+
+		private final SeqSynchronizer delegate;
+
+		private final Runnable beforeAccess;
+
+		SlowSynchronizer(SeqSynchronizer delegate, Runnable beforeAccess) {
+			this.delegate = delegate;
+			this.beforeAccess = beforeAccess;
+		}
+
+		@Override
+		public boolean tryCreate(String name, String partition, long nextValue) {
+			beforeAccess.run();
+			return delegate.tryCreate(name, partition, nextValue);
+		}
+
+		@Override
+		public boolean tryUpdate(String name, String partition, long nextValueOld, long nextValueNew) {
+			beforeAccess.run();
+			return delegate.tryUpdate(name, partition, nextValueOld, nextValueNew);
+		}
+
+		@Override
+		public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+			beforeAccess.run();
+			return delegate.tryAddAndGet(name, partition, delta, maxReTry);
+		}
+
+		@Override
+		public Optional<Long> getNextValue(String name, String partition) {
+			return delegate.getNextValue(name, partition);
+		}
+
+		@Override
+		public void init() {
+			delegate.init();
+		}
+
+	}
+
+}
@@ -17,6 +17,7 @@
 package com.power4j.kit.seq.persistent;
 
 import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.LongRange;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
 import org.junit.Test;
@@ -24,6 +25,7 @@ import org.junit.Test;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
@@ -41,6 +43,33 @@ public abstract class SeqHolderTestCase {
 
 	protected abstract SeqHolder getSeqHolder();
 
+	@Test
+	public void nextBatchTest() {
+		final SeqHolder holder = getSeqHolder();
+		final long first = holder.next();
+		final long pullCount = holder.getPullCount();
+
+		// 当前号段足够,不需要访问后端
+		List<LongRange> ranges = holder.nextBatch(10);
+		Assert.assertEquals(1, ranges.size());
+		Assert.assertEquals(first + 1, ranges.get(0).getFrom());
+		Assert.assertEquals(10L, ranges.get(0).size());
+		Assert.assertEquals(pullCount, holder.getPullCount());
+
+		// 超过当前号段,剩余部分只拉取一次
+		final int size = 5000;
+		ranges = holder.nextBatch(size);
+		Assert.assertEquals(size, ranges.stream().mapToLong(LongRange::size).sum());
+		Assert.assertEquals(pullCount + 1, holder.getPullCount());
+		Set<Long> dataSet = new HashSet<>(size);
+		ranges.forEach(r -> r.stream().forEach(dataSet::add));
+		Assert.assertEquals(size, dataSet.size());
+
+		long next = holder.next();
+		Assert.assertFalse(dataSet.contains(next));
+		Assert.assertTrue(next > ranges.get(ranges.size() - 1).getLast());
+	}
+
 	@Test
 	public void getValueTest() {
 		final SeqHolder holder = getSeqHolder();
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent;
+
+import com.power4j.kit.seq.core.LongRange;
+import com.power4j.kit.seq.persistent.provider.InMemorySeqSynchronizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class SeqPublisherTest {
+
+	private final String seqName = "publisher-test";
+
+	private final SeqSynchronizer seqSynchronizer = new InMemorySeqSynchronizer();
+
+	private SeqHolder newHolder(int poolSize) {
+		return SeqHolder.builder().name(seqName).synchronizer(seqSynchronizer).partitionFunc(() -> "P1").initValue(1L)
+				.poolSize(poolSize).build();
+	}
+
+	@Test
+	public void demandTest() {
+		final SeqHolder holder = newHolder(100);
+		final List<String> items = new ArrayList<>();
+		SeqPublisher.strings(holder, Runnable::run)
+				.subscribe(new TestSubscriber<>(s -> s.request(10000), (s, item) -> items.add(item)));
+		// 一次拉取满足全部需求
+		Assert.assertEquals(10000, items.size());
+		Assert.assertEquals(1L, holder.getPullCount());
+		Assert.assertEquals(seqName + ".P1.00000001", items.get(0));
+		Assert.assertEquals(seqName + ".P1.00010000", items.get(9999));
+		Assert.assertEquals(Optional.of(10001L), seqSynchronizer.getNextValue(seqName, "P1"));
+	}
+
+	@Test
+	public void rangesTest() {
+		final SeqHolder holder = newHolder(10);
+		final List<LongRange> items = new ArrayList<>();
+		SeqPublisher.ranges(holder, 100, Runnable::run).maxFetchSize(300)
+				.subscribe(new TestSubscriber<>(s -> s.request(5), (s, item) -> items.add(item)));
+		Assert.assertEquals(5, items.size());
+		Assert.assertEquals(LongRange.of(1L, 100L), items.get(0));
+		Assert.assertEquals(LongRange.of(401L, 100L), items.get(4));
+		// 单次拉取不超过 maxFetchSize
+		Assert.assertEquals(2L, holder.getPullCount());
+	}
+
+	@Test
+	public void cancelTest() {
+		final SeqHolder holder = newHolder(10);
+		final List<String> items = new ArrayList<>();
+		SeqPublisher.strings(holder, Runnable::run).subscribe(new TestSubscriber<>(s -> s.request(100), (s, item) -> {
+			items.add(item);
+			if (items.size() == 10) {
+				s.cancel();
+			}
+		}));
+		Assert.assertEquals(10, items.size());
+		// 未发出的序号归还给后端
+		Assert.assertEquals(Optional.of(11L), seqSynchronizer.getNextValue(seqName, "P1"));
+		Assert.assertEquals(11L, holder.nextLong());
+	}
+
+	@Test
+	public void badRequestTest() {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final TestSubscriber<String> subscriber = new TestSubscriber<>(s -> s.request(0), (s, item) -> Assert.fail());
+		subscriber.onError = error::set;
+		SeqPublisher.strings(newHolder(10), Runnable::run).subscribe(subscriber);
+		Assert.assertTrue(error.get() instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void asyncTest() throws Exception {
+		final SeqHolder holder = newHolder(50);
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch completed = new CountDownLatch(1);
+		final List<Long> items = new ArrayList<>();
+		// 每次只请求一个,在 onNext 中继续请求
+		SeqPublisher.ranges(holder, 1, executor).subscribe(new TestSubscriber<>(s -> s.request(1), (s, item) -> {
+			items.add(item.getFrom());
+			if (items.size() == 1000) {
+				s.cancel();
+				completed.countDown();
+			}
+			else {
+				s.request(1);
+			}
+		}));
+		Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1000, items.size());
+		Assert.assertEquals(1000L, items.get(999).longValue());
+		// 需求较小时按取号器的常规数量拉取
+		Assert.assertEquals(20L, holder.getPullCount());
+	}
+
+	static class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+		private final Consumer<Flow.Subscription> onSubscribe;
+
+		private final BiConsumer<Flow.Subscription, T> onNext;
+
+		private Consumer<Throwable> onError = e -> Assert.fail(e.toString());
+
+		private Flow.Subscription subscription;
+
+		TestSubscriber(Consumer<Flow.Subscription> onSubscribe, BiConsumer<Flow.Subscription, T> onNext) {
+			this.onSubscribe = onSubscribe;
+			this.onNext = onNext;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			onSubscribe.accept(subscription);
+		}
+
+		@Override
+		public void onNext(T item) {
+			onNext.accept(subscription, item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			onError.accept(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			Assert.fail();
+		}
+
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class AdaptiveConcurrencySynchronizerTest {
+
+	private final String seqName = "adaptive-seq";
+
+	@Test
+	public void increaseTest() {
+		final AdaptiveConcurrencySynchronizer synchronizer = AdaptiveConcurrencySynchronizer
+				.builder(new InMemorySeqSynchronizer()).initialLimit(2).limitRange(1, 4).build();
+		synchronizer.tryCreate(seqName, "P1", 1L);
+		for (int i = 0; i < 100; ++i) {
+			synchronizer.tryAddAndGet(seqName, "P1", 1, -1);
+		}
+		Assert.assertEquals(4, synchronizer.getLimit());
+		Assert.assertEquals(0, synchronizer.getInFlight());
+	}
+
+	@Test
+	public void decreaseTest() {
+		final AdaptiveConcurrencySynchronizer synchronizer = AdaptiveConcurrencySynchronizer
+				.builder(new InMemorySeqSynchronizer() {
+					@Override
+					public Optional<Long> getNextValue(String name, String partition) {
+						TestUtil.sleep(30L);
+						return super.getNextValue(name, partition);
+					}
+				}).initialLimit(8).latencyThreshold(Duration.ofMillis(10)).build();
+		synchronizer.getNextValue(seqName, "P1");
+		Assert.assertEquals(4, synchronizer.getLimit());
+		synchronizer.getNextValue(seqName, "P1");
+		Assert.assertEquals(2, synchronizer.getLimit());
+	}
+
+	@Test
+	public void failureTest() {
+		final AdaptiveConcurrencySynchronizer synchronizer = AdaptiveConcurrencySynchronizer
+				.builder(new InMemorySeqSynchronizer() {
+					@Override
+					public boolean tryCreate(String name, String partition, long nextValue) {
+						throw new SeqException("backend down");
+					}
+				}).initialLimit(8).build();
+		Assert.assertThrows(SeqException.class, () -> synchronizer.tryCreate(seqName, "P1", 1L));
+		Assert.assertEquals(4, synchronizer.getLimit());
+	}
+
+	@Test
+	public void rejectTest() throws Exception {
+		final CountDownLatch backendBlocked = new CountDownLatch(1);
+		final CountDownLatch releaseBackend = new CountDownLatch(1);
+		final AdaptiveConcurrencySynchronizer synchronizer = AdaptiveConcurrencySynchronizer
+				.builder(new InMemorySeqSynchronizer() {
+					@Override
+					public boolean tryCreate(String name, String partition, long nextValue) {
+						backendBlocked.countDown();
+						TestUtil.wait(releaseBackend);
+						return super.tryCreate(name, partition, nextValue);
+					}
+				}).initialLimit(1).limitRange(1, 1).build();
+		final CompletableFuture<Boolean> first = CompletableFuture
+				.supplyAsync(() -> synchronizer.tryCreate(seqName, "P1", 1L));
+		Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+
+		// 不排队,超出上限直接失败
+		Assert.assertThrows(SeqException.class, () -> synchronizer.getNextValue(seqName, "P1"));
+		Assert.assertEquals(1L, synchronizer.getRejectedCount());
+
+		releaseBackend.countDown();
+		Assert.assertTrue(first.get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1L, synchronizer.getNextValue(seqName, "P1").get().longValue());
+	}
+
+	@Test
+	public void queueTest() throws Exception {
+		final CountDownLatch backendBlocked = new CountDownLatch(1);
+		final CountDownLatch releaseBackend = new CountDownLatch(1);
+		final AdaptiveConcurrencySynchronizer synchronizer = AdaptiveConcurrencySynchronizer
+				.builder(new InMemorySeqSynchronizer() {
+					@Override
+					public boolean tryCreate(String name, String partition, long nextValue) {
+						backendBlocked.countDown();
+						TestUtil.wait(releaseBackend);
+						return super.tryCreate(name, partition, nextValue);
+					}
+				}).initialLimit(1).limitRange(1, 1).queue(1, Duration.ofSeconds(10)).build();
+		final CompletableFuture<Boolean> first = CompletableFuture
+				.supplyAsync(() -> synchronizer.tryCreate(seqName, "P1", 1L));
+		Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+		final CompletableFuture<Optional<Long>> queued = CompletableFuture
+				.supplyAsync(() -> synchronizer.getNextValue(seqName, "P1"));
+		while (synchronizer.getQueueLength() == 0) {
+			TestUtil.sleep(1L);
+		}
+
+		// 队列已满
+		Assert.assertThrows(SeqException.class, () -> synchronizer.getNextValue(seqName, "P1"));
+		Assert.assertEquals(1L, synchronizer.getRejectedCount());
+
+		releaseBackend.countDown();
+		Assert.assertTrue(first.get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1L, queued.get(10, TimeUnit.SECONDS).get().longValue());
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.SeqSynchronizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class CoalescingSynchronizerTest extends SynchronizerTestCase {
+
+	@Override
+	protected SeqSynchronizer getSeqSynchronizer() {
+		return new CoalescingSynchronizer(new InMemorySeqSynchronizer(), Duration.ofMillis(1), 16);
+	}
+
+	@Test
+	public void coalesceTest() {
+		final int threads = 8;
+		final AtomicInteger backendCalls = new AtomicInteger();
+		final CoalescingSynchronizer synchronizer = new CoalescingSynchronizer(new InMemorySeqSynchronizer() {
+			@Override
+			public List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+				backendCalls.incrementAndGet();
+				return super.tryAddAndGetAll(requests, maxReTry);
+			}
+		}, Duration.ofSeconds(10), threads);
+		for (int i = 0; i < threads; ++i) {
+			synchronizer.tryCreate("doc-" + i, "P1", 1L);
+		}
+
+		// 每个线程一个序号,请求数量达到上限时立即发送
+		final List<AddState> states = runConcurrently(threads,
+				i -> synchronizer.tryAddAndGet("doc-" + i, "P1", 10, -1));
+		Assert.assertEquals(1, backendCalls.get());
+		Assert.assertEquals(1L, synchronizer.getBatchCount());
+		Assert.assertEquals(threads, synchronizer.getRequestCount());
+		for (AddState state : states) {
+			Assert.assertEquals(AddState.success(1L, 11L, 1), state);
+		}
+	}
+
+	@Test
+	public void mergeTest() {
+		final int threads = 8;
+		final AtomicInteger backendCalls = new AtomicInteger();
+		final CoalescingSynchronizer synchronizer = new CoalescingSynchronizer(new InMemorySeqSynchronizer() {
+			@Override
+			public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+				backendCalls.incrementAndGet();
+				return super.tryAddAndGet(name, partition, delta, maxReTry);
+			}
+		}, Duration.ofSeconds(10), threads);
+		synchronizer.tryCreate("doc", "P1", 1L);
+
+		// 同一个序号只做一次加法,各自得到不重叠的区间
+		final List<AddState> states = runConcurrently(threads, i -> synchronizer.tryAddAndGet("doc", "P1", i + 1, -1));
+		Assert.assertEquals(1, backendCalls.get());
+		states.sort((a, b) -> Long.compare(a.getPrevious(), b.getPrevious()));
+		long next = 1L;
+		for (AddState state : states) {
+			Assert.assertTrue(state.isSuccess());
+			Assert.assertEquals(next, state.getPrevious().longValue());
+			next = state.getCurrent();
+		}
+		Assert.assertEquals(1L + threads * (threads + 1) / 2, next);
+		Assert.assertEquals(next, synchronizer.getNextValue("doc", "P1").get().longValue());
+	}
+
+	@Test
+	public void windowTest() {
+		final CoalescingSynchronizer synchronizer = new CoalescingSynchronizer(new InMemorySeqSynchronizer(),
+				Duration.ofMillis(20), 100);
+		synchronizer.tryCreate("doc", "P1", 1L);
+		// 没有其他请求,等待时间窗口后单独发送
+		Assert.assertEquals(AddState.success(1L, 11L, 1), synchronizer.tryAddAndGet("doc", "P1", 10, -1));
+		Assert.assertEquals(AddState.success(11L, 21L, 1), synchronizer.tryAddAndGet("doc", "P1", 10, -1));
+		Assert.assertEquals(2L, synchronizer.getBatchCount());
+	}
+
+	@Test
+	public void failureTest() {
+		final int threads = 4;
+		final CoalescingSynchronizer synchronizer = new CoalescingSynchronizer(new InMemorySeqSynchronizer() {
+			@Override
+			public List<AddState> tryAddAndGetAll(List<AddRequest> requests, int maxReTry) {
+				throw new SeqException("backend down");
+			}
+		}, Duration.ofSeconds(10), threads);
+		final List<AddState> states = runConcurrently(threads, i -> {
+			try {
+				return synchronizer.tryAddAndGet("doc-" + i, "P1", 10, -1);
+			}
+			catch (SeqException e) {
+				return null;
+			}
+		});
+		Assert.assertEquals(threads, states.size());
+		for (AddState state : states) {
+			Assert.assertNull(state);
+		}
+	}
+
+	private static List<AddState> runConcurrently(int threads, Function<Integer, AddState> call) {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch ready = new CountDownLatch(threads);
+		final List<CompletableFuture<AddState>> futures = new ArrayList<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			final int index = i;
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				ready.countDown();
+				TestUtil.wait(ready);
+				return call.apply(index);
+			}, executor));
+		}
+		final List<AddState> states = new ArrayList<>(threads);
+		for (CompletableFuture<AddState> future : futures) {
+			try {
+				states.add(future.get(30, TimeUnit.SECONDS));
+			}
+			catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		executor.shutdown();
+		return states;
+	}
+
+}
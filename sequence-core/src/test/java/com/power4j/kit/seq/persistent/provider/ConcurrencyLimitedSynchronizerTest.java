@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class ConcurrencyLimitedSynchronizerTest {
+
+	private final String seqName = "limited-seq";
+
+	@Test
+	public void limitTest() throws Exception {
+		final int limit = 2;
+		final int threads = 16;
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		final ConcurrencyLimitedSynchronizer synchronizer = new ConcurrencyLimitedSynchronizer(
+				new InMemorySeqSynchronizer() {
+					@Override
+					public AddState tryAddAndGet(String name, String partition, int delta, int maxReTry) {
+						maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+						try {
+							Thread.sleep(5L);
+							return super.tryAddAndGet(name, partition, delta, maxReTry);
+						}
+						catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							throw new IllegalStateException(e);
+						}
+						finally {
+							active.decrementAndGet();
+						}
+					}
+				}, limit, Duration.ofSeconds(10));
+		synchronizer.tryCreate(seqName, "P1", 1L);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch completed = new CountDownLatch(threads);
+		for (int i = 0; i < threads; ++i) {
+			executor.execute(() -> {
+				for (int n = 0; n < 5; ++n) {
+					Assert.assertTrue(synchronizer.tryAddAndGet(seqName, "P1", 10, 0).isSuccess());
+				}
+				completed.countDown();
+			});
+		}
+		Assert.assertTrue(completed.await(30, TimeUnit.SECONDS));
+		executor.shutdown();
+		Assert.assertTrue(maxActive.get() <= limit);
+		Assert.assertEquals(0, synchronizer.getActiveCount());
+		Assert.assertEquals(1L + threads * 5 * 10, synchronizer.getNextValue(seqName, "P1").get().longValue());
+	}
+
+	@Test
+	public void timeoutTest() throws Exception {
+		final CountDownLatch backendBlocked = new CountDownLatch(1);
+		final CountDownLatch releaseBackend = new CountDownLatch(1);
+		final ConcurrencyLimitedSynchronizer synchronizer = new ConcurrencyLimitedSynchronizer(
+				new InMemorySeqSynchronizer() {
+					@Override
+					public boolean tryCreate(String name, String partition, long nextValue) {
+						backendBlocked.countDown();
+						TestUtil.wait(releaseBackend);
+						return super.tryCreate(name, partition, nextValue);
+					}
+				}, 1, Duration.ofMillis(50));
+
+		final Thread holder = new Thread(() -> synchronizer.tryCreate(seqName, "P1", 1L));
+		holder.start();
+		Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+		// 唯一的许可被占用,排队超时
+		Assert.assertThrows(SeqException.class, () -> synchronizer.getNextValue(seqName, "P1"));
+		Assert.assertEquals(1L, synchronizer.getTimeoutCount());
+
+		releaseBackend.countDown();
+		holder.join(10_000L);
+		Assert.assertEquals(1L, synchronizer.getNextValue(seqName, "P1").get().longValue());
+	}
+
+}
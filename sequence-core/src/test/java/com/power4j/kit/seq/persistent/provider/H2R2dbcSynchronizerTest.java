@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddState;
+import com.power4j.kit.seq.persistent.SeqHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * H2 R2DBC 测试
+ *
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class H2R2dbcSynchronizerTest {
+
+	public final static String SEQ_TABLE = "tb_seq_r2dbc";
+
+	private R2dbcSynchronizer r2dbcSynchronizer;
+
+	private H2Synchronizer jdbcSynchronizer;
+
+	@Before
+	public void setUp() {
+		r2dbcSynchronizer = new R2dbcSynchronizer(TestServices.getH2ConnectionFactory(), SEQ_TABLE, SqlDialect.H2);
+		r2dbcSynchronizer.createMissingTable().toCompletableFuture().join();
+		jdbcSynchronizer = new H2Synchronizer(SEQ_TABLE, TestServices.getH2DataSource());
+	}
+
+	@After
+	public void tearDown() {
+		r2dbcSynchronizer.dropTable().toCompletableFuture().join();
+	}
+
+	@Test
+	public void basicTest() {
+		final String name = "r2dbc";
+		final String partition = "P1";
+		Assert.assertTrue(join(r2dbcSynchronizer.tryCreate(name, partition, 1L)));
+		Assert.assertFalse(join(r2dbcSynchronizer.tryCreate(name, partition, 1L)));
+		final AddState state = join(r2dbcSynchronizer.tryAddAndGet(name, partition, 100, -1));
+		Assert.assertTrue(state.isSuccess());
+		Assert.assertEquals(1L, state.getPrevious().longValue());
+		Assert.assertEquals(101L, state.getCurrent().longValue());
+		Assert.assertTrue(join(r2dbcSynchronizer.tryUpdate(name, partition, 101L, 50L)));
+		Assert.assertFalse(join(r2dbcSynchronizer.tryUpdate(name, partition, 101L, 60L)));
+		Assert.assertEquals(Optional.of(50L), join(r2dbcSynchronizer.getNextValue(name, partition)));
+		Assert.assertEquals(Optional.empty(), join(r2dbcSynchronizer.getNextValue(name, "none")));
+		// 与 JDBC 同步器访问同一张表
+		Assert.assertEquals(Optional.of(50L), jdbcSynchronizer.getNextValue(name, partition));
+		Assert.assertEquals(60L, jdbcSynchronizer.tryAddAndGet(name, partition, 10, -1).getCurrent().longValue());
+		Assert.assertEquals(Optional.of(60L), join(r2dbcSynchronizer.getNextValue(name, partition)));
+	}
+
+	@Test
+	public void missingTest() {
+		try {
+			join(r2dbcSynchronizer.tryAddAndGet("r2dbc", "none", 1, -1));
+			Assert.fail();
+		}
+		catch (CompletionException e) {
+			Assert.assertTrue(e.getCause() instanceof SeqException);
+		}
+	}
+
+	@Test
+	public void concurrentAddTest() {
+		final int count = 20;
+		Assert.assertTrue(join(r2dbcSynchronizer.tryCreate("r2dbc", "P5", 1L)));
+		// 比较更新冲突时重试,结果不重叠
+		final List<CompletableFuture<AddState>> adds = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			adds.add(r2dbcSynchronizer.tryAddAndGet("r2dbc", "P5", 1, -1).toCompletableFuture());
+		}
+		final boolean[] added = new boolean[count];
+		for (CompletableFuture<AddState> future : adds) {
+			final int index = (int) (future.join().getPrevious() - 1);
+			Assert.assertFalse(added[index]);
+			added[index] = true;
+		}
+		Assert.assertEquals(Optional.of(count + 1L), join(r2dbcSynchronizer.getNextValue("r2dbc", "P5")));
+	}
+
+	@Test
+	public void allocateTest() {
+		final AddState created = join(r2dbcSynchronizer.tryAllocate("r2dbc", "P2", 10, 1L));
+		Assert.assertEquals(1L, created.getPrevious().longValue());
+		Assert.assertEquals(11L, created.getCurrent().longValue());
+		final AddState added = join(r2dbcSynchronizer.tryAllocate("r2dbc", "P2", 10, 1L));
+		Assert.assertEquals(11L, added.getPrevious().longValue());
+		Assert.assertEquals(21L, added.getCurrent().longValue());
+		Assert.assertEquals(31L, jdbcSynchronizer.tryAllocate("r2dbc", "P2", 10, 1L).getCurrent().longValue());
+	}
+
+	@Test
+	public void concurrentAllocateTest() {
+		final int count = 20;
+		final List<CompletableFuture<AddState>> futures = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			futures.add(r2dbcSynchronizer.tryAllocate("r2dbc", "P3", 5, 1L).toCompletableFuture());
+		}
+		final boolean[] used = new boolean[count * 5 + 1];
+		for (CompletableFuture<AddState> future : futures) {
+			final AddState state = future.join();
+			for (long val = state.getPrevious(); val < state.getCurrent(); ++val) {
+				Assert.assertFalse(used[(int) val]);
+				used[(int) val] = true;
+			}
+		}
+		Assert.assertEquals(Optional.of(count * 5 + 1L), join(r2dbcSynchronizer.getNextValue("r2dbc", "P3")));
+	}
+
+	@Test
+	public void seqHolderTest() {
+		final SeqHolder holder = SeqHolder.builder().name("r2dbc").synchronizer(jdbcSynchronizer)
+				.asyncSynchronizer(r2dbcSynchronizer).partitionFunc(() -> "P4").initValue(1L).poolSize(3).build();
+		for (long i = 1L; i <= 10L; ++i) {
+			Assert.assertEquals(i, holder.nextAsync().join().longValue());
+		}
+		Assert.assertEquals(Optional.of(13L), jdbcSynchronizer.getNextValue("r2dbc", "P4"));
+	}
+
+	private static <T> T join(CompletionStage<T> stage) {
+		return stage.toCompletableFuture().join();
+	}
+
+}
@@ -16,9 +16,28 @@
 
 package com.power4j.kit.seq.persistent.provider;
 
+import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.core.exceptions.SeqException;
+import com.power4j.kit.seq.persistent.AddRequest;
+import com.power4j.kit.seq.persistent.AddState;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * H2 测试
@@ -57,4 +76,156 @@ public class H2SynchronizerTest extends SynchronizerTestCase {
 		return h2Synchronizer;
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void allocateRoundTripTest() {
+		final String partition = TestUtil.strNow();
+		final List<AddRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 500; ++i) {
+			requests.add(AddRequest.of("warm-up-" + i, partition, 100));
+		}
+		final long queries = h2Synchronizer.getQueryCounter();
+		List<AddState> states = h2Synchronizer.tryAllocateAll(requests, 1L);
+		// 两次批量执行,每100个记录一次查询
+		Assert.assertEquals(5L, h2Synchronizer.getQueryCounter() - queries);
+		for (AddState state : states) {
+			Assert.assertEquals(AddState.success(1L, 101L, 1), state);
+		}
+		states = h2Synchronizer.tryAllocateAll(requests, 1L);
+		for (AddState state : states) {
+			Assert.assertEquals(AddState.success(101L, 201L, 1), state);
+		}
+	}
+
+	@Test
+	public void allocateSingleStatementTest() {
+		final String name = "allocate";
+		final String partition = TestUtil.strNow();
+		final int threads = 4;
+		final int allocates = 50;
+		final long queries = h2Synchronizer.getQueryCounter();
+		final long updates = h2Synchronizer.getUpdateCounter();
+		final Set<Long> starts = ConcurrentHashMap.newKeySet();
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		final CountDownLatch completed = new CountDownLatch(threads);
+		for (int thread = 0; thread < threads; ++thread) {
+			executorService.execute(() -> {
+				for (int i = 0; i < allocates; ++i) {
+					AddState state = h2Synchronizer.tryAllocate(name, partition, 10, 1L);
+					if (state.getCurrent() - state.getPrevious() == 10L) {
+						starts.add(state.getPrevious());
+					}
+				}
+				completed.countDown();
+			});
+		}
+		TestUtil.wait(completed);
+		executorService.shutdown();
+		// 每次分配只执行一条语句,没有查询和重试
+		Assert.assertEquals(queries, h2Synchronizer.getQueryCounter());
+		Assert.assertEquals(updates + threads * allocates, h2Synchronizer.getUpdateCounter());
+		Assert.assertEquals(threads * allocates, starts.size());
+		Assert.assertEquals(1L + threads * allocates * 10L,
+				h2Synchronizer.getNextValue(name, partition).get().longValue());
+	}
+
+	@Test
+	public void lockModeTest() {
+		final String name = "lock-mode";
+		final String partition = TestUtil.strNow();
+		final int threads = 4;
+		final int adds = 20;
+		h2Synchronizer.setLockThreshold(0, Duration.ofSeconds(30));
+		h2Synchronizer.tryCreate(name, partition, 1L);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		final CountDownLatch completed = new CountDownLatch(threads);
+		final AtomicInteger failed = new AtomicInteger();
+		for (int thread = 0; thread < threads; ++thread) {
+			executorService.execute(() -> {
+				for (int i = 0; i < adds; ++i) {
+					AddState state = h2Synchronizer.tryAddAndGet(name, partition, 1, 0);
+					if (!state.isSuccess() || state.getTotalOps() != 1) {
+						failed.incrementAndGet();
+					}
+				}
+				completed.countDown();
+			});
+		}
+		TestUtil.wait(completed);
+		executorService.shutdown();
+		Assert.assertEquals(0, failed.get());
+		Assert.assertEquals(threads * adds, h2Synchronizer.getLockedAddCount());
+		Assert.assertEquals(0L, h2Synchronizer.getRetryCount());
+		Assert.assertEquals(1L + threads * adds, h2Synchronizer.getNextValue(name, partition).get().longValue());
+	}
+
+	@Test
+	public void contentionSwitchTest() {
+		final String name = "contention";
+		final String partition = TestUtil.strNow();
+		final AtomicInteger conflicts = new AtomicInteger(40);
+		// 模拟其他实例抢先更新
+		H2Synchronizer synchronizer = new H2Synchronizer(SEQ_TABLE, TestServices.getH2DataSource()) {
+			@Override
+			protected boolean updateSeqValue(Connection connection, String name, String partition, long nextValueOld,
+					long nextValueNew) throws SQLException {
+				if (conflicts.getAndDecrement() > 0) {
+					return false;
+				}
+				return super.updateSeqValue(connection, name, partition, nextValueOld, nextValueNew);
+			}
+		};
+		synchronizer.setRetryBackoff(Duration.ZERO, Duration.ZERO);
+		synchronizer.tryCreate(name, partition, 1L);
+
+		// maxReTry = 2 最多执行4次,与之前的版本相同
+		AddState state = synchronizer.tryAddAndGet(name, partition, 1, 2);
+		Assert.assertFalse(state.isSuccess());
+		Assert.assertEquals(4, state.getTotalOps());
+		Assert.assertFalse(synchronizer.isLockMode());
+
+		state = synchronizer.tryAddAndGet(name, partition, 1, -1);
+		Assert.assertTrue(state.isSuccess());
+		Assert.assertEquals(37, state.getTotalOps());
+		for (int i = 0; i < 14; ++i) {
+			Assert.assertEquals(1, synchronizer.tryAddAndGet(name, partition, 1, -1).getTotalOps());
+		}
+		// 16次加法平均重试超过1次,切换到悲观锁
+		Assert.assertEquals(39L, synchronizer.getRetryCount());
+		Assert.assertTrue(synchronizer.isLockMode());
+		state = synchronizer.tryAddAndGet(name, partition, 1, -1);
+		Assert.assertEquals(AddState.success(16L, 17L, 1), state);
+		Assert.assertEquals(1L, synchronizer.getLockedAddCount());
+	}
+
+	@Test
+	public void batchNoBackoffTest() {
+		final String name = "batch-backoff";
+		final String partition = TestUtil.strNow();
+		final AtomicInteger conflicts = new AtomicInteger(5);
+		H2Synchronizer synchronizer = new H2Synchronizer(SEQ_TABLE, TestServices.getH2DataSource()) {
+			@Override
+			protected boolean updateSeqValue(Connection connection, String name, String partition, long nextValueOld,
+					long nextValueNew) throws SQLException {
+				if (conflicts.getAndDecrement() > 0) {
+					return false;
+				}
+				return super.updateSeqValue(connection, name, partition, nextValueOld, nextValueNew);
+			}
+		};
+		synchronizer.setRetryBackoff(Duration.ofSeconds(1), Duration.ofSeconds(1));
+		synchronizer.tryCreate(name, partition, 1L);
+		// 批量执行时共用连接,冲突后立即重试
+		final long start = System.nanoTime();
+		List<AddState> states = synchronizer
+				.tryAddAndGetAll(Collections.singletonList(AddRequest.of(name, partition, 1)), -1);
+		Assert.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+		Assert.assertEquals(AddState.success(1L, 2L, 6), states.get(0));
+	}
+
+	@Test
+	public void notExistTest() {
+		Assert.assertThrows(SeqException.class,
+				() -> h2Synchronizer.tryAddAndGet("not-exist", TestUtil.strNow(), 1, -1));
+	}
+
+}
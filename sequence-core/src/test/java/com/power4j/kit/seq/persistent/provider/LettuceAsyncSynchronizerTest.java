@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.power4j.kit.seq.persistent.AddState;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class LettuceAsyncSynchronizerTest {
+
+	private final static String SEQ_CACHE_NAME = "power4j:seq-test";
+
+	private RedisClient redisClient;
+
+	@After
+	public void tearDown() {
+		if (redisClient != null) {
+			redisClient.shutdown();
+		}
+	}
+
+	@Test
+	public void interopTest() {
+		redisClient = TestServices.getRedisClient();
+		final SimpleLettuceSynchronizer syncSynchronizer = new SimpleLettuceSynchronizer(SEQ_CACHE_NAME, redisClient);
+		syncSynchronizer.removeCache();
+		final StatefulRedisConnection<String, String> connection = redisClient.connect();
+		final LettuceAsyncSynchronizer asyncSynchronizer = LettuceAsyncSynchronizer.of(SEQ_CACHE_NAME, connection);
+		final String name = "async";
+		final String partition = "P1";
+
+		Assert.assertTrue(asyncSynchronizer.tryCreate(name, partition, 1L).toCompletableFuture().join());
+		Assert.assertFalse(syncSynchronizer.tryCreate(name, partition, 1L));
+		final AddState state = asyncSynchronizer.tryAddAndGet(name, partition, 100, -1).toCompletableFuture().join();
+		Assert.assertEquals(1L, state.getPrevious().longValue());
+		Assert.assertEquals(101L, state.getCurrent().longValue());
+		Assert.assertEquals(Optional.of(101L), syncSynchronizer.getNextValue(name, partition));
+		Assert.assertTrue(asyncSynchronizer.tryUpdate(name, partition, 101L, 50L).toCompletableFuture().join());
+		Assert.assertEquals(Optional.of(50L),
+				asyncSynchronizer.getNextValue(name, partition).toCompletableFuture().join());
+		Assert.assertEquals(Optional.empty(),
+				asyncSynchronizer.getNextValue(name, "none").toCompletableFuture().join());
+
+		// 与同步版本使用同一个分配脚本
+		final AddState created = asyncSynchronizer.tryAllocate(name, "P2", 10, 1L).toCompletableFuture().join();
+		Assert.assertEquals(1L, created.getPrevious().longValue());
+		Assert.assertEquals(11L, created.getCurrent().longValue());
+		final AddState added = asyncSynchronizer.tryAllocate(name, "P2", 10, 1L).toCompletableFuture().join();
+		Assert.assertEquals(11L, added.getPrevious().longValue());
+		Assert.assertEquals(21L, added.getCurrent().longValue());
+		Assert.assertEquals(31L, syncSynchronizer.tryAllocate(name, "P2", 10, 1L).getCurrent().longValue());
+		connection.close();
+		syncSynchronizer.shutdown();
+	}
+
+}
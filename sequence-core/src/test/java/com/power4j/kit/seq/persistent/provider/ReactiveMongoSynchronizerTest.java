@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import com.mongodb.client.MongoClient;
+import com.power4j.kit.seq.persistent.AddState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class ReactiveMongoSynchronizerTest {
+
+	public final static String DB_NAME = "test";
+
+	public final static String COLL_NAME = "col_seq_reactive";
+
+	private MongoClient mongoClient;
+
+	private com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+
+	@After
+	public void tearDown() {
+		if (mongoClient != null) {
+			mongoClient.close();
+		}
+		if (reactiveClient != null) {
+			reactiveClient.close();
+		}
+	}
+
+	@Test
+	public void interopTest() {
+		mongoClient = TestServices.getMongoClient();
+		reactiveClient = TestServices.getReactiveMongoClient();
+		final ReactiveMongoSynchronizer asyncSynchronizer = new ReactiveMongoSynchronizer(DB_NAME, COLL_NAME,
+				reactiveClient);
+		asyncSynchronizer.dropCollection().toCompletableFuture().join();
+		final SimpleMongoSynchronizer syncSynchronizer = new SimpleMongoSynchronizer(DB_NAME, COLL_NAME, mongoClient);
+		syncSynchronizer.init();
+		final String name = "async";
+		final String partition = "P1";
+
+		Assert.assertTrue(asyncSynchronizer.tryCreate(name, partition, 1L).toCompletableFuture().join());
+		Assert.assertFalse(asyncSynchronizer.tryCreate(name, partition, 1L).toCompletableFuture().join());
+		final AddState state = asyncSynchronizer.tryAddAndGet(name, partition, 100, -1).toCompletableFuture().join();
+		Assert.assertEquals(1L, state.getPrevious().longValue());
+		Assert.assertEquals(101L, state.getCurrent().longValue());
+		Assert.assertEquals(Optional.of(101L), syncSynchronizer.getNextValue(name, partition));
+		Assert.assertTrue(asyncSynchronizer.tryUpdate(name, partition, 101L, 50L).toCompletableFuture().join());
+		Assert.assertFalse(asyncSynchronizer.tryUpdate(name, partition, 101L, 60L).toCompletableFuture().join());
+		Assert.assertEquals(Optional.of(50L),
+				asyncSynchronizer.getNextValue(name, partition).toCompletableFuture().join());
+		Assert.assertEquals(Optional.empty(),
+				asyncSynchronizer.getNextValue(name, "none").toCompletableFuture().join());
+		Assert.assertFalse(
+				asyncSynchronizer.tryAddAndGet(name, "none", 1, -1).toCompletableFuture().join().isSuccess());
+
+		final AddState created = asyncSynchronizer.tryAllocate(name, "P2", 10, 1L).toCompletableFuture().join();
+		Assert.assertEquals(1L, created.getPrevious().longValue());
+		Assert.assertEquals(11L, created.getCurrent().longValue());
+		Assert.assertEquals(21L, syncSynchronizer.tryAllocate(name, "P2", 10, 1L).getCurrent().longValue());
+		Assert.assertEquals(31L, asyncSynchronizer.tryAllocate(name, "P2", 10, 1L).toCompletableFuture().join()
+				.getCurrent().longValue());
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 ChenJun (power4j@outlook.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.power4j.kit.seq.persistent.provider;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author CJ (power4j@outlook.com)
+ * @date 2026/10/15
+ * @since 1.6.1
+ */
+public class SqlDialectTest {
+
+	@Test
+	public void sqlTest() {
+		for (SqlDialect dialect : SqlDialect.values()) {
+			Assert.assertFalse(dialect.createTableSql("t_seq").contains("$TABLE_NAME"));
+			Assert.assertTrue(dialect.updateSql("t_seq").startsWith("UPDATE t_seq "));
+			Assert.assertTrue(dialect.selectForUpdateSql("t_seq").endsWith(" FOR UPDATE"));
+			Assert.assertFalse(dialect.allocateSql("t_seq").contains("$TABLE_NAME"));
+		}
+		Assert.assertNull(SqlDialect.MYSQL.addAndGetSql("t_seq"));
+		Assert.assertTrue(SqlDialect.POSTGRESQL.addAndGetSql("t_seq").endsWith("RETURNING seq_next_value"));
+		Assert.assertTrue(SqlDialect.POSTGRESQL.allocateSql("t_seq")
+				.contains(" ON CONFLICT(seq_name, seq_partition) DO UPDATE "));
+		Assert.assertTrue(SqlDialect.MYSQL.allocateSql("t_seq").contains("LAST_INSERT_ID(seq_next_value + ?)"));
+	}
+
+	@Test
+	public void indexedParametersTest() {
+		Assert.assertEquals("SELECT seq_next_value FROM t_seq WHERE seq_name=$1 AND seq_partition=$2",
+				SqlDialect.indexedParameters(SqlDialect.H2.selectSql("t_seq")));
+	}
+
+	@Test
+	public void selectManySqlTest() {
+		Assert.assertEquals(
+				"SELECT seq_name,seq_partition,seq_next_value FROM t_seq WHERE (seq_name=? AND seq_partition=?) OR (seq_name=? AND seq_partition=?)",
+				SqlDialect.MYSQL.selectManySql("t_seq", 2));
+		Assert.assertThrows(IllegalArgumentException.class, () -> SqlDialect.MYSQL.selectManySql("t_seq", 0));
+	}
+
+}
@@ -17,12 +17,15 @@
 package com.power4j.kit.seq.persistent.provider;
 
 import com.power4j.kit.seq.TestUtil;
+import com.power4j.kit.seq.persistent.AddRequest;
 import com.power4j.kit.seq.persistent.AddState;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
@@ -69,6 +72,62 @@ public abstract class SynchronizerTestCase {
 		Assert.assertTrue(addState.getTotalOps() == 1);
 	}
 
+	/**
+	 * 批量加法,结果与请求一一对应
+	 */
+	@Test
+	public void addAndGetAllTest() {
+		final SeqSynchronizer seqSynchronizer = getSeqSynchronizer();
+		final String partition = TestUtil.strNow();
+		seqSynchronizer.tryCreate("power4j-a", partition, 1L);
+		seqSynchronizer.tryCreate("power4j-b", partition, 100L);
+		List<AddState> states = seqSynchronizer.tryAddAndGetAll(Arrays.asList(AddRequest.of("power4j-a", partition, 5),
+				AddRequest.of("power4j-b", partition, 3), AddRequest.of("power4j-a", partition, 2)), -1);
+		Assert.assertEquals(3, states.size());
+		Assert.assertEquals(AddState.success(1L, 6L, 1), states.get(0));
+		Assert.assertEquals(AddState.success(100L, 103L, 1), states.get(1));
+		Assert.assertEquals(AddState.success(6L, 8L, 1), states.get(2));
+		Assert.assertEquals(8L, seqSynchronizer.getNextValue("power4j-a", partition).get().longValue());
+	}
+
+	/**
+	 * 批量分配,不存在的记录以初始值创建
+	 */
+	@Test
+	public void allocateAllTest() {
+		final SeqSynchronizer seqSynchronizer = getSeqSynchronizer();
+		final String partition = TestUtil.strNow();
+		seqSynchronizer.tryCreate("power4j-a", partition, 10L);
+		List<AddState> states = seqSynchronizer.tryAllocateAll(
+				Arrays.asList(AddRequest.of("power4j-a", partition, 5), AddRequest.of("power4j-b", partition, 3),
+						AddRequest.of("power4j-a", partition, 2), AddRequest.of("power4j-b", partition, 1)),
+				1L);
+		Assert.assertEquals(4, states.size());
+		Assert.assertEquals(AddState.success(10L, 15L, 1), states.get(0));
+		Assert.assertEquals(AddState.success(1L, 4L, 1), states.get(1));
+		Assert.assertEquals(AddState.success(15L, 17L, 1), states.get(2));
+		Assert.assertEquals(AddState.success(4L, 5L, 1), states.get(3));
+		Assert.assertEquals(17L, seqSynchronizer.getNextValue("power4j-a", partition).get().longValue());
+		Assert.assertEquals(5L, seqSynchronizer.getNextValue("power4j-b", partition).get().longValue());
+		// 记录都已经存在
+		states = seqSynchronizer.tryAllocateAll(
+				Arrays.asList(AddRequest.of("power4j-a", partition, 4), AddRequest.of("power4j-b", partition, 6)), 1L);
+		Assert.assertEquals(AddState.success(17L, 21L, 1), states.get(0));
+		Assert.assertEquals(AddState.success(5L, 11L, 1), states.get(1));
+	}
+
+	/**
+	 * 分配号段,不存在的记录以初始值创建
+	 */
+	@Test
+	public void allocateTest() {
+		final SeqSynchronizer seqSynchronizer = getSeqSynchronizer();
+		final String partition = TestUtil.strNow();
+		Assert.assertEquals(AddState.success(1L, 11L, 1), seqSynchronizer.tryAllocate("power4j", partition, 10, 1L));
+		Assert.assertEquals(AddState.success(11L, 21L, 1), seqSynchronizer.tryAllocate("power4j", partition, 10, 1L));
+		Assert.assertEquals(21L, seqSynchronizer.getNextValue("power4j", partition).get().longValue());
+	}
+
 	/**
 	 * 测试多线程更新操作
 	 */
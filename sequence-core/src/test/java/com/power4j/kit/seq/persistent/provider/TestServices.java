@@ -22,6 +22,9 @@ import com.power4j.kit.seq.utils.EnvUtil;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import io.lettuce.core.RedisClient;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 
 import javax.sql.DataSource;
 
@@ -47,6 +50,11 @@ public class TestServices {
 	 */
 	private final static String DEFAULT_H2_JDBC_URL = "jdbc:h2:mem:test;MODE=MYSQL;DB_CLOSE_DELAY=-1";
 
+	/**
+	 * r2dbc:h2:mem:///database?options=[properties]
+	 */
+	private final static String DEFAULT_H2_R2DBC_URL = "r2dbc:h2:mem:///test?options=MODE=MYSQL;DB_CLOSE_DELAY=-1";
+
 	/**
 	 * redis://[password@]host [: port][/database]
 	 */
@@ -84,6 +92,17 @@ public class TestServices {
 		return new HikariDataSource(config);
 	}
 
+	/**
+	 * 与 {@link #getH2DataSource()} 访问同一个内存数据库
+	 */
+	public static ConnectionFactory getH2ConnectionFactory() {
+		String url = EnvUtil.getStr("TEST_H2_R2DBC_URL", DEFAULT_H2_R2DBC_URL);
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, EnvUtil.getStr("TEST_H2_USER", "sa"))
+				.option(ConnectionFactoryOptions.PASSWORD, EnvUtil.getStr("TEST_H2_PWD", "")).build();
+		return ConnectionFactories.get(options);
+	}
+
 	public static RedisClient getRedisClient() {
 		String redisUri = EnvUtil.getStr("TEST_REDIS_URI", DEFAULT_REDIS_URI);
 		RedisClient redisClient = RedisClient.create(redisUri);
@@ -98,4 +117,9 @@ public class TestServices {
 		return mongoClient;
 	}
 
+	public static com.mongodb.reactivestreams.client.MongoClient getReactiveMongoClient() {
+		String mongoUri = EnvUtil.getStr("TEST_MONGO_URI", DEFAULT_MONGO_URI);
+		return com.mongodb.reactivestreams.client.MongoClients.create(mongoUri);
+	}
+
 }
@@ -18,11 +18,13 @@ package com.power4j.kit.seq.spring.boot.autoconfigure;
 
 import com.power4j.kit.seq.core.SeqFormatter;
 import com.power4j.kit.seq.core.Sequence;
-import com.power4j.kit.seq.ext.InMemorySequenceRegistry;
+import com.power4j.kit.seq.ext.ConcurrentSequenceRegistry;
 import com.power4j.kit.seq.ext.SequenceRegistry;
+import com.power4j.kit.seq.persistent.FetchSizePolicy;
 import com.power4j.kit.seq.persistent.Partitions;
 import com.power4j.kit.seq.persistent.SeqHolder;
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
+import com.power4j.kit.seq.persistent.provider.ConcurrencyLimitedSynchronizer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -44,7 +46,10 @@ import org.springframework.context.annotation.Import;
 @Import({ JdbcSynchronizerConfigure.class, RedisSynchronizerConfigure.class })
 public class SequenceAutoConfigure {
 
-	@Bean
+	/**
+	 * 容器关闭时归还未使用的序号,由于依赖关系,此时同步器还没有关闭
+	 */
+	@Bean(destroyMethod = "close")
 	@ConditionalOnMissingBean(value = Long.class, parameterizedContainer = Sequence.class)
 	@ConditionalOnProperty(prefix = SequenceProperties.PREFIX, name = "enabled", havingValue = "true",
 			matchIfMissing = true)
@@ -52,14 +57,25 @@ public class SequenceAutoConfigure {
 		log.info("Sequence create,Using {}", seqSynchronizer.getClass().getSimpleName());
 		// 按月分区:即每个月有 Long.MAX 个序号可用
 
+		FetchSizePolicy fetchSizePolicy = sequenceProperties.getFetchInterval() == null
+				? FetchSizePolicy.fixed(sequenceProperties.getFetchSize())
+				: FetchSizePolicy.adaptive(sequenceProperties.getFetchInterval(), sequenceProperties.getFetchSize(),
+						sequenceProperties.getMaxFetchSize());
+
+		final SeqSynchronizer synchronizer = sequenceProperties.getBackendMaxConcurrency() == null ? seqSynchronizer
+				: new ConcurrencyLimitedSynchronizer(seqSynchronizer, sequenceProperties.getBackendMaxConcurrency(),
+						sequenceProperties.getBackendAcquireTimeout());
+
 		// @formatter:off
 
 		return SeqHolder.builder()
 				.name(sequenceProperties.getName())
-				.synchronizer(seqSynchronizer)
+				.synchronizer(synchronizer)
 				.partitionFunc(Partitions.MONTHLY)
 				.initValue(sequenceProperties.getStartValue())
-				.poolSize(sequenceProperties.getFetchSize())
+				.fetchSizePolicy(fetchSizePolicy)
+				.rollover(sequenceProperties.getRolloverLead())
+				.virtualThreads(sequenceProperties.isVirtualThreads())
 				.seqFormatter(SeqFormatter.DEFAULT_FORMAT)
 				.build();
 
@@ -71,8 +87,17 @@ public class SequenceAutoConfigure {
 	@ConditionalOnMissingBean(SequenceRegistry.class)
 	@ConditionalOnProperty(prefix = SequenceProperties.PREFIX, name = "enabled", havingValue = "true",
 			matchIfMissing = true)
-	public SequenceRegistry<Long, Sequence<Long>> sequenceRegistry() {
-		return new InMemorySequenceRegistry<>();
+	public SequenceRegistry<Long, Sequence<Long>> sequenceRegistry(SequenceProperties sequenceProperties) {
+		ConcurrentSequenceRegistry.Builder<Long, Sequence<Long>> builder = ConcurrentSequenceRegistry.builder();
+		if (sequenceProperties.getRegistryMaxSize() != null) {
+			builder.maxSize(sequenceProperties.getRegistryMaxSize());
+		}
+		// 被淘汰的序号归还剩余的号段
+		return builder.idleTimeout(sequenceProperties.getRegistryIdleTimeout()).evictionListener((name, seq) -> {
+			if (seq instanceof SeqHolder) {
+				((SeqHolder) seq).close();
+			}
+		}).build();
 	}
 
 }
@@ -19,6 +19,8 @@ package com.power4j.kit.seq.spring.boot.autoconfigure;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * @author CJ (power4j@outlook.com)
  * @date 2020/7/6
@@ -55,6 +57,46 @@ public class SequenceProperties {
 	 */
 	private int fetchSize = 100;
 
+	/**
+	 * 期望的拉取间隔,设置后根据消耗速度在 {@code [fetchSize, maxFetchSize]} 范围内调整每次拉取的数量
+	 */
+	private Duration fetchInterval;
+
+	/**
+	 * 自适应拉取的最大数量
+	 */
+	private int maxFetchSize = 10000;
+
+	/**
+	 * 分区切换准备的提前量,设置后在分区边界之前创建下一个分区的记录并拉取号段
+	 */
+	private Duration rolloverLead;
+
+	/**
+	 * 在虚拟线程中执行预取等后台拉取,需要 JDK 21 及以上版本
+	 */
+	private boolean virtualThreads = false;
+
+	/**
+	 * 最多同时访问后端的数量,超出的调用排队等待,默认不限制
+	 */
+	private Integer backendMaxConcurrency;
+
+	/**
+	 * 访问后端时排队的最长时间
+	 */
+	private Duration backendAcquireTimeout = Duration.ofSeconds(10);
+
+	/**
+	 * 注册表最多保留的序号数量,超过后淘汰最久未使用的,默认不限制
+	 */
+	private Integer registryMaxSize;
+
+	/**
+	 * 注册表中的序号超过这个时间未使用时淘汰,默认不淘汰
+	 */
+	private Duration registryIdleTimeout;
+
 	/**
 	 * 序号名称
 	 */
@@ -17,6 +17,7 @@
 package com.power4j.kit.seq.spring.boot.autoconfigure.actuator;
 
 import com.power4j.kit.seq.persistent.SeqSynchronizer;
+import com.power4j.kit.seq.persistent.provider.AdaptiveConcurrencySynchronizer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.beans.factory.SmartInitializingSingleton;
@@ -58,16 +59,23 @@ public class SeqSynchronizerEndpoint implements SmartInitializingSingleton {
 
 		return synchronizerBeanMap.entrySet()
 				.stream()
-				.map(kv -> new SynchronizerInfo(
-						kv.getKey(),
-						kv.getValue().getClass().getName(),
-						kv.getValue().getQueryCounter(),
-						kv.getValue().getUpdateCounter()))
+				.map(kv -> toInfo(kv.getKey(), kv.getValue()))
 				.collect(Collectors.toList());
 
 		// @formatter:on
 	}
 
+	private static SynchronizerInfo toInfo(String beanName, SeqSynchronizer synchronizer) {
+		if (synchronizer instanceof AdaptiveConcurrencySynchronizer) {
+			final AdaptiveConcurrencySynchronizer limiter = (AdaptiveConcurrencySynchronizer) synchronizer;
+			return new SynchronizerInfo(beanName, synchronizer.getClass().getName(), synchronizer.getQueryCounter(),
+					synchronizer.getUpdateCounter(), limiter.getLimit(), limiter.getInFlight(),
+					limiter.getRejectedCount());
+		}
+		return new SynchronizerInfo(beanName, synchronizer.getClass().getName(), synchronizer.getQueryCounter(),
+				synchronizer.getUpdateCounter(), null, null, null);
+	}
+
 	@Getter
 	@AllArgsConstructor
 	public static class SynchronizerInfo {
@@ -80,6 +88,15 @@ public class SeqSynchronizerEndpoint implements SmartInitializingSingleton {
 
 		private final Long updateCount;
 
+		/**
+		 * 当前的并发上限,只有 {@link AdaptiveConcurrencySynchronizer} 有此项
+		 */
+		private final Integer concurrencyLimit;
+
+		private final Integer inFlight;
+
+		private final Long rejectedCount;
+
 	}
 
 }